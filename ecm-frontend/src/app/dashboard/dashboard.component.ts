@@ -43,20 +43,11 @@ export class DashboardComponent implements OnInit {
     this.loading = true;
     
     // Load case statistics
-    this.caseService.getCaseCount().subscribe(count => {
-      this.totalCases = count;
-    });
-
-    this.caseService.getCaseCountByStatus(CaseStatus.OPEN).subscribe(count => {
-      this.openCases = count;
-    });
-
-    this.caseService.getCaseCountByStatus(CaseStatus.IN_PROGRESS).subscribe(count => {
-      this.inProgressCases = count;
-    });
-
-    this.caseService.getCaseCountByStatus(CaseStatus.RESOLVED).subscribe(count => {
-      this.resolvedCases = count;
+    this.caseService.getStatsSummary().subscribe(summary => {
+      this.totalCases = summary.total;
+      this.openCases = summary.byStatus[CaseStatus.OPEN] ?? 0;
+      this.inProgressCases = summary.byStatus[CaseStatus.IN_PROGRESS] ?? 0;
+      this.resolvedCases = summary.byStatus[CaseStatus.RESOLVED] ?? 0;
     });
 
     // Load user statistics
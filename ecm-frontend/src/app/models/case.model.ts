@@ -70,4 +70,22 @@ export interface UpdateCaseRequest {
   category?: string;
   assignedTo?: string;
   dueDate?: Date;
-} 
\ No newline at end of file
+} 
+
+export interface CursorPage<T> {
+  content: T[];
+  size: number;
+  nextCursor?: string;
+  hasNext: boolean;
+  totalElements?: number;
+}
+
+export interface CaseStatsSummary {
+  total: number;
+  byStatus: { [status: string]: number };
+  byPriority: { [priority: string]: number };
+  byAssignee: { [assignee: string]: number };
+  unassigned: number;
+  overdue: number;
+  reconciledAt?: string;
+}
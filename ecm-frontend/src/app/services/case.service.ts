@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable, catchError, throwError, tap } from 'rxjs';
-import { Case, CreateCaseRequest, UpdateCaseRequest, CaseStatus, CasePriority } from '../models/case.model';
+import { Case, CreateCaseRequest, UpdateCaseRequest, CaseStatus, CasePriority, CursorPage, CaseStatsSummary } from '../models/case.model';
 import { environment } from '../../environments/environment';
 import { LoggerService } from './logger.service';
 import { ErrorHandlerService } from './error-handler.service';
@@ -119,13 +119,17 @@ export class CaseService {
       );
   }
 
-  getCasesByStatus(status: CaseStatus): Observable<Case[]> {
-    this.logger.debug('Fetching cases by status', { status });
+  getCasesByStatus(status: CaseStatus, cursor: string = '', size: number = 20): Observable<CursorPage<Case>> {
+    this.logger.debug('Fetching cases by status', { status, cursor, size });
     
-    return this.http.get<Case[]>(`${this.apiUrl}/status/${status}`)
+    const params = new HttpParams()
+      .set('cursor', cursor)
+      .set('size', size.toString());
+    
+    return this.http.get<CursorPage<Case>>(`${this.apiUrl}/status/${status}`, { params })
       .pipe(
-        tap(cases => {
-          this.logger.debug('Cases by status fetched successfully', { status, count: cases.length });
+        tap(page => {
+          this.logger.debug('Cases by status fetched successfully', { status, count: page.content.length, hasNext: page.hasNext });
         }),
         catchError(error => {
           this.logger.error('Failed to fetch cases by status', { status, error });
@@ -135,13 +139,17 @@ export class CaseService {
       );
   }
 
-  getCasesByPriority(priority: CasePriority): Observable<Case[]> {
-    this.logger.debug('Fetching cases by priority', { priority });
+  getCasesByPriority(priority: CasePriority, cursor: string = '', size: number = 20): Observable<CursorPage<Case>> {
+    this.logger.debug('Fetching cases by priority', { priority, cursor, size });
     
-    return this.http.get<Case[]>(`${this.apiUrl}/priority/${priority}`)
+    const params = new HttpParams()
+      .set('cursor', cursor)
+      .set('size', size.toString());
+    
+    return this.http.get<CursorPage<Case>>(`${this.apiUrl}/priority/${priority}`, { params })
       .pipe(
-        tap(cases => {
-          this.logger.debug('Cases by priority fetched successfully', { priority, count: cases.length });
+        tap(page => {
+          this.logger.debug('Cases by priority fetched successfully', { priority, count: page.content.length, hasNext: page.hasNext });
         }),
         catchError(error => {
           this.logger.error('Failed to fetch cases by priority', { priority, error });
@@ -151,13 +159,17 @@ export class CaseService {
       );
   }
 
-  getCasesByAssignee(assignedTo: string): Observable<Case[]> {
-    this.logger.debug('Fetching cases by assignee', { assignedTo });
+  getCasesByAssignee(assignedTo: string, cursor: string = '', size: number = 20): Observable<CursorPage<Case>> {
+    this.logger.debug('Fetching cases by assignee', { assignedTo, cursor, size });
     
-    return this.http.get<Case[]>(`${this.apiUrl}/assignee/${assignedTo}`)
+    const params = new HttpParams()
+      .set('cursor', cursor)
+      .set('size', size.toString());
+    
+    return this.http.get<CursorPage<Case>>(`${this.apiUrl}/assignee/${assignedTo}`, { params })
       .pipe(
-        tap(cases => {
-          this.logger.debug('Cases by assignee fetched successfully', { assignedTo, count: cases.length });
+        tap(page => {
+          this.logger.debug('Cases by assignee fetched successfully', { assignedTo, count: page.content.length, hasNext: page.hasNext });
         }),
         catchError(error => {
           this.logger.error('Failed to fetch cases by assignee', { assignedTo, error });
@@ -167,13 +179,17 @@ export class CaseService {
       );
   }
 
-  getOverdueCases(): Observable<Case[]> {
-    this.logger.debug('Fetching overdue cases');
+  getOverdueCases(cursor: string = '', size: number = 20): Observable<CursorPage<Case>> {
+    this.logger.debug('Fetching overdue cases', { cursor, size });
+    
+    const params = new HttpParams()
+      .set('cursor', cursor)
+      .set('size', size.toString());
     
-    return this.http.get<Case[]>(`${this.apiUrl}/overdue`)
+    return this.http.get<CursorPage<Case>>(`${this.apiUrl}/overdue`, { params })
       .pipe(
-        tap(cases => {
-          this.logger.debug('Overdue cases fetched successfully', { count: cases.length });
+        tap(page => {
+          this.logger.debug('Overdue cases fetched successfully', { count: page.content.length, hasNext: page.hasNext });
         }),
         catchError(error => {
           this.logger.error('Failed to fetch overdue cases', { error });
@@ -183,15 +199,18 @@ export class CaseService {
       );
   }
 
-  searchCases(keyword: string): Observable<Case[]> {
-    this.logger.debug('Searching cases', { keyword });
+  searchCases(keyword: string, page: number = 0, size: number = 20): Observable<any> {
+    this.logger.debug('Searching cases', { keyword, page, size });
     
-    const params = new HttpParams().set('keyword', keyword);
+    const params = new HttpParams()
+      .set('keyword', keyword)
+      .set('page', page.toString())
+      .set('size', size.toString());
     
-    return this.http.get<Case[]>(`${this.apiUrl}/search`, { params })
+    return this.http.get<any>(`${this.apiUrl}/search`, { params })
       .pipe(
-        tap(cases => {
-          this.logger.debug('Case search completed successfully', { keyword, count: cases.length });
+        tap(response => {
+          this.logger.debug('Case search completed successfully', { keyword, totalElements: response.totalElements });
         }),
         catchError(error => {
           this.logger.error('Failed to search cases', { keyword, error });
@@ -309,4 +328,20 @@ export class CaseService {
         })
       );
   }
+
+  getStatsSummary(): Observable<CaseStatsSummary> {
+    this.logger.debug('Fetching case statistics summary');
+    
+    return this.http.get<CaseStatsSummary>(`${this.apiUrl}/stats/summary`)
+      .pipe(
+        tap(summary => {
+          this.logger.debug('Case statistics summary fetched successfully', { total: summary.total });
+        }),
+        catchError(error => {
+          this.logger.error('Failed to fetch case statistics summary', { error });
+          this.errorHandler.handleHttpError(error, 'CaseService.getStatsSummary');
+          return throwError(() => error);
+        })
+      );
+  }
 } 
\ No newline at end of file
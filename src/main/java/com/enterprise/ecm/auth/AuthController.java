@@ -1,18 +1,21 @@
 package com.enterprise.ecm.auth;
 
 import com.enterprise.ecm.auth.dto.LoginResponse;
+import com.enterprise.ecm.auth.refresh.RefreshTokenService;
+import com.enterprise.ecm.auth.refresh.RefreshedLogin;
 import com.enterprise.ecm.security.JwtTokenProvider;
+import com.enterprise.ecm.security.VerifiedToken;
+import com.enterprise.ecm.security.revocation.TokenRevocationRegistry;
 import com.enterprise.ecm.users.User;
 import com.enterprise.ecm.users.UserService;
 import com.enterprise.ecm.users.dto.UserDto;
 import com.enterprise.ecm.users.mapper.UserMapper;
 import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.security.AuthenticatedUser;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import lombok.RequiredArgsConstructor;
@@ -20,30 +23,44 @@ import lombok.RequiredArgsConstructor;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
     
-    private final AuthenticationManager authenticationManager;
+    private final LoginService loginService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
     private final JwtTokenProvider tokenProvider;
     private final UserService userService;
     private final UserMapper userMapper;
     private final LoggingService loggingService;
     
+    /**
+     * Credentials are checked on the {@link LoginService} pool; the request thread is released
+     * meanwhile.
+     */
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
         loggingService.logInfo("Login attempt for user: {}", loginRequest.getUsername());
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())
-        );
-        
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
-        
-        LoginResponse response = new LoginResponse(jwt, "Bearer", loginRequest.getUsername());
-        return ResponseEntity.ok(response);
+        return loginService.authenticate(loginRequest.getUsername(), loginRequest.getPassword())
+                .thenApply(user -> ResponseEntity.ok(loginResponse(user, refreshTokenService.issue(user))));
+    }
+    
+    /**
+     * Exchanges a refresh token for a new access token and refresh token, without the password.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshRequest refreshRequest) {
+        RefreshedLogin refreshed = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        return ResponseEntity.ok(loginResponse(refreshed.getUser(), refreshed.getRefreshToken()));
+    }
+    
+    private LoginResponse loginResponse(AuthenticatedUser user, String refreshToken) {
+        return new LoginResponse(tokenProvider.generateToken(user), "Bearer", user.getUsername(),
+                tokenProvider.getTokenLifetime().toSeconds(), refreshToken);
     }
     
     @PostMapping("/register")
@@ -61,8 +78,19 @@ public class AuthController {
                 .orElse(ResponseEntity.notFound().build());
     }
     
+    /**
+     * Revokes the access token of the request, and the login of the refresh token when one is given.
+     */
     @PostMapping("/logout")
-    public ResponseEntity<Void> logout() {
+    public ResponseEntity<Void> logout(HttpServletRequest request, @RequestBody(required = false) RefreshRequest refreshRequest) {
+        String jwt = tokenProvider.resolveToken(request);
+        VerifiedToken token = jwt != null ? tokenProvider.verify(jwt) : null;
+        if (token != null) {
+            tokenRevocationRegistry.revoke(token.getTokenId(), token.getExpiration());
+        }
+        if (refreshRequest != null && refreshRequest.getRefreshToken() != null) {
+            refreshTokenService.revoke(refreshRequest.getRefreshToken());
+        }
         SecurityContextHolder.clearContext();
         return ResponseEntity.ok().build();
     }
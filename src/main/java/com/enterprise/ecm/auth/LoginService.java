@@ -0,0 +1,138 @@
+package com.enterprise.ecm.auth;
+
+import com.enterprise.ecm.shared.exception.TooManyRequestsException;
+import com.enterprise.ecm.shared.security.AuthenticatedUser;
+import com.enterprise.ecm.users.UserService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks login credentials on a dedicated pool, off the request threads: BCrypt is deliberately
+ * slow, and a burst of logins would otherwise hold every request thread and starve the rest of
+ * the API.
+ * <p>
+ * The pool has {@code auth.login.threads} threads and a queue of {@code auth.login.queue-capacity}
+ * logins; beyond that, logins are shed with a 429 before any hashing is done. So are logins for
+ * a username that already has {@code auth.login.per-user-concurrency} logins in progress, which
+ * keeps one account (or one attacker guessing its password) from taking the whole pool.
+ * <p>
+ * A password whose hash has a lower cost than {@code security.password.bcrypt-cost} is re-encoded
+ * at that cost once it has been verified. The time spent queued and verifying is recorded as
+ * {@code auth.login.queue.wait} and {@code auth.login.verification}.
+ */
+@Service
+public class LoginService {
+    
+    private static final Duration RETRY_AFTER = Duration.ofSeconds(1);
+    
+    private final AuthenticationManager authenticationManager;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+    private final int perUserConcurrency;
+    
+    private final ThreadPoolExecutor verifiers;
+    private final Map<String, Integer> loginsInProgress = new ConcurrentHashMap<>();
+    private final Timer queueWait;
+    
+    public LoginService(AuthenticationManager authenticationManager, UserService userService, MeterRegistry meterRegistry,
+                        @Value("${auth.login.threads:4}") int threads,
+                        @Value("${auth.login.queue-capacity:100}") int queueCapacity,
+                        @Value("${auth.login.per-user-concurrency:2}") int perUserConcurrency) {
+        this.authenticationManager = authenticationManager;
+        this.userService = userService;
+        this.meterRegistry = meterRegistry;
+        this.perUserConcurrency = perUserConcurrency;
+        this.verifiers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("login-"));
+        this.queueWait = Timer.builder("auth.login.queue.wait")
+                .description("Time logins wait for a verification thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.queue.size", verifiers, pool -> pool.getQueue().size())
+                .description("Logins waiting for a verification thread")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Authenticates {@code username} on the verification pool. The returned user is the one to
+     * issue the token for.
+     *
+     * @throws TooManyRequestsException when the login is shed
+     */
+    public CompletableFuture<AuthenticatedUser> authenticate(String username, String password) {
+        if (!acquire(username)) {
+            throw new TooManyRequestsException("Too many logins in progress for user: " + username,
+                    "Too many logins are in progress for this user. Please retry shortly.", RETRY_AFTER);
+        }
+        CompletableFuture<AuthenticatedUser> result = new CompletableFuture<>();
+        long queuedAt = System.nanoTime();
+        try {
+            verifiers.execute(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    result.complete(verify(username, password));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    release(username);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(username);
+            throw new TooManyRequestsException("Login queue full (" + verifiers.getQueue().size() + " waiting)",
+                    "The server is busy. Please retry shortly.", RETRY_AFTER);
+        }
+        return result;
+    }
+    
+    private AuthenticatedUser verify(String username, String password) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(username, password));
+            AuthenticatedUser user = userService.upgradePasswordEncoding(username, password)
+                    .orElse((AuthenticatedUser) authentication.getPrincipal());
+            outcome = "success";
+            return user;
+        } finally {
+            sample.stop(Timer.builder("auth.login.verification")
+                    .description("Time to verify login credentials")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+    
+    private boolean acquire(String username) {
+        if (loginsInProgress.merge(username, 1, Integer::sum) > perUserConcurrency) {
+            release(username);
+            return false;
+        }
+        return true;
+    }
+    
+    private void release(String username) {
+        loginsInProgress.computeIfPresent(username, (key, count) -> count == 1 ? null : count - 1);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        verifiers.shutdown();
+    }
+}
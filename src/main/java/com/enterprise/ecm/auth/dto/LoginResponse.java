@@ -11,4 +11,8 @@ public class LoginResponse {
     private String token;
     private String type;
     private String username;
-} 
\ No newline at end of file
+    // seconds until the access token expires
+    private long expiresIn;
+    // single use: exchanged at /auth/refresh for a new access token and refresh token
+    private String refreshToken;
+} 
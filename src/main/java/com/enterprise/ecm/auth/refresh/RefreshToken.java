@@ -0,0 +1,88 @@
+package com.enterprise.ecm.auth.refresh;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A refresh token, stored by the SHA-256 of the token. {@code familyId} is shared by all tokens
+ * rotated from one login; {@code rotatedAt} is set once the token has been exchanged.
+ * {@code userId} and {@code userVersion} identify the user record the token was issued for.
+ */
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+    
+    @Id
+    @Column(name = "token_hash")
+    private String tokenHash;
+    
+    @Column(name = "family_id", nullable = false)
+    private String familyId;
+    
+    @Column(name = "username", nullable = false)
+    private String username;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(name = "user_version", nullable = false)
+    private long userVersion;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "rotated_at")
+    private LocalDateTime rotatedAt;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    protected RefreshToken() {
+    }
+    
+    public RefreshToken(String tokenHash, String familyId, String username, Long userId, long userVersion, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.username = username;
+        this.userId = userId;
+        this.userVersion = userVersion;
+        this.expiresAt = expiresAt;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public String getTokenHash() {
+        return tokenHash;
+    }
+    
+    public String getFamilyId() {
+        return familyId;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public long getUserVersion() {
+        return userVersion;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public LocalDateTime getRotatedAt() {
+        return rotatedAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
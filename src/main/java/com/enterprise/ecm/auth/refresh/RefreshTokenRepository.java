@@ -0,0 +1,37 @@
+package com.enterprise.ecm.auth.refresh;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+    
+    /**
+     * Marks the token as exchanged, unless it already was; returns 0 in that case.
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.rotatedAt = :now WHERE t.tokenHash = :tokenHash AND t.rotatedAt IS NULL")
+    int markRotated(@Param("tokenHash") String tokenHash, @Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.familyId = :familyId")
+    int deleteFamily(@Param("familyId") String familyId);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+    
+    @Query("SELECT t.tokenHash FROM RefreshToken t WHERE t.expiresAt < :now ORDER BY t.expiresAt")
+    List<String> findExpiredHashes(@Param("now") LocalDateTime now, Pageable limit);
+    
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.tokenHash IN :tokenHashes")
+    int deleteByTokenHashes(@Param("tokenHashes") List<String> tokenHashes);
+}
@@ -0,0 +1,169 @@
+package com.enterprise.ecm.auth.refresh;
+
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.security.AuthenticatedUser;
+import com.enterprise.ecm.users.UserService;
+import com.enterprise.ecm.users.event.UserLoginsRevokedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues refresh tokens and exchanges them for a new access token, so that access tokens can be
+ * short-lived without the client sending the password (and the server running BCrypt) again.
+ * <p>
+ * A refresh token is random and only its SHA-256 is stored. It is exchanged once: the exchange
+ * issues a new refresh token of the same family (one family per login) and marks the old one as
+ * rotated. Presenting a rotated token again means it was copied, so the whole family is revoked
+ * and the client holding it, legitimate or not, has to log in again. A token is bound to the id
+ * and the version of its user, and is not exchanged once the user has changed, or for another
+ * user registered under the same name; all tokens of a user are deleted when its password is
+ * changed or it is deactivated or deleted. Expired tokens are deleted in batches by a scheduled
+ * cleanup.
+ */
+@Service
+public class RefreshTokenService {
+    
+    private static final int TOKEN_BYTES = 32;
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserService userService;
+    private final LoggingService loggingService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lifetime;
+    private final int cleanupBatchSize;
+    private final SecureRandom random = new SecureRandom();
+    
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserService userService,
+                               LoggingService loggingService, PlatformTransactionManager transactionManager,
+                               @Value("${jwt.refresh-expiration:P14D}") Duration lifetime,
+                               @Value("${jwt.refresh-cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userService = userService;
+        this.loggingService = loggingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lifetime = lifetime;
+        this.cleanupBatchSize = cleanupBatchSize;
+    }
+    
+    /**
+     * Issues the first refresh token of a new family, for a user who has just logged in.
+     */
+    @Transactional
+    public String issue(AuthenticatedUser user) {
+        return issue(user, UUID.randomUUID().toString(), LocalDateTime.now());
+    }
+    
+    /**
+     * Exchanges a refresh token for its replacement and the user to issue an access token for.
+     *
+     * @throws AuthenticationException when the token is unknown, expired or already exchanged, or
+     *                                 its user no longer exists, is inactive or has changed
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public RefreshedLogin rotate(String token) {
+        LocalDateTime now = LocalDateTime.now();
+        String tokenHash = hash(token);
+        RefreshToken current = refreshTokenRepository.findById(tokenHash)
+                .filter(refreshToken -> refreshToken.getExpiresAt().isAfter(now))
+                .orElseThrow(() -> new CredentialsExpiredException("Unknown or expired refresh token"));
+        
+        if (refreshTokenRepository.markRotated(tokenHash, now) == 0) {
+            refreshTokenRepository.deleteFamily(current.getFamilyId());
+            loggingService.logWarn("Refresh token of user {} was used twice; its login is revoked", current.getUsername());
+            throw new CredentialsExpiredException("Refresh token already used");
+        }
+        
+        AuthenticatedUser user = userService.findAuthenticatedUser(current.getUsername()).orElse(null);
+        if (user == null || !user.isEnabled() || !user.getUserId().equals(current.getUserId())
+                || user.getUserVersion() != current.getUserVersion()) {
+            refreshTokenRepository.deleteFamily(current.getFamilyId());
+            throw new CredentialsExpiredException("User of the refresh token no longer exists, is inactive or has changed");
+        }
+        return new RefreshedLogin(user, issue(user, current.getFamilyId(), now));
+    }
+    
+    /**
+     * Revokes the login a refresh token belongs to; unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findById(hash(token))
+                .ifPresent(refreshToken -> refreshTokenRepository.deleteFamily(refreshToken.getFamilyId()));
+    }
+    
+    /**
+     * Revokes all logins of a user, in the transaction changing it.
+     */
+    @EventListener
+    public void on(UserLoginsRevokedEvent event) {
+        int deleted = refreshTokenRepository.deleteByUserId(event.getUserId());
+        if (deleted > 0) {
+            loggingService.logInfo("Revoked {} refresh tokens of user {}", deleted, event.getUsername());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval:PT1H}")
+    public void pruneExpiredTokens() {
+        pruneExpiredBefore(LocalDateTime.now());
+    }
+    
+    /**
+     * Deletes the tokens expired before {@code cutoff}, a batch per transaction, and returns how
+     * many there were.
+     */
+    public long pruneExpiredBefore(LocalDateTime cutoff) {
+        long deleted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<String> hashes = refreshTokenRepository.findExpiredHashes(cutoff, PageRequest.ofSize(cleanupBatchSize));
+                if (!hashes.isEmpty()) {
+                    refreshTokenRepository.deleteByTokenHashes(hashes);
+                }
+                return hashes.size();
+            });
+            deleted += batch;
+        } while (batch == cleanupBatchSize);
+        if (deleted > 0) {
+            loggingService.logInfo("Pruned {} expired refresh tokens", deleted);
+        }
+        return deleted;
+    }
+    
+    private String issue(AuthenticatedUser user, String familyId, LocalDateTime now) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(hash(token), familyId, user.getUsername(), user.getUserId(),
+                user.getUserVersion(), now.plus(lifetime)));
+        return token;
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
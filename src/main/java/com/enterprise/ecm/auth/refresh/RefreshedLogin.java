@@ -0,0 +1,14 @@
+package com.enterprise.ecm.auth.refresh;
+
+import com.enterprise.ecm.shared.security.AuthenticatedUser;
+import lombok.Value;
+
+/**
+ * The user a refresh token was exchanged for, as currently stored, and the token replacing it.
+ */
+@Value
+public class RefreshedLogin {
+    
+    AuthenticatedUser user;
+    String refreshToken;
+}
@@ -1,9 +1,14 @@
 package com.enterprise.ecm.cases;
 
+import com.enterprise.ecm.cases.stats.CaseStatsKey;
+import com.enterprise.ecm.config.EntityCacheConfig;
 import com.enterprise.ecm.shared.entity.BaseEntity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -11,8 +16,12 @@ import java.util.List;
 
 @Entity
 @Table(name = "cases")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.CASES)
 public class Case extends BaseEntity {
     
+    static final int CHILD_BATCH_SIZE = 128;
+    
     @NotBlank
     @Column(name = "case_number", unique = true)
     private String caseNumber;
@@ -46,12 +55,22 @@ public class Case extends BaseEntity {
     @Column(name = "resolved_date")
     private LocalDateTime resolvedDate;
     
+    // Child collections are batch-fetched: initializing them for one case of a page loads them
+    // for up to CHILD_BATCH_SIZE cases of the same persistence context in a single IN (...) query.
+    // Sized to cover the largest page: CaseService clamps cursor and offset pages to MAX_PAGE_SIZE,
+    // and a cursor page reads one look-ahead row beyond it.
     @OneToMany(mappedBy = "caseEntity", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = CHILD_BATCH_SIZE)
     private List<CaseNote> notes = new ArrayList<>();
     
     @OneToMany(mappedBy = "caseEntity", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = CHILD_BATCH_SIZE)
     private List<CaseAttachment> attachments = new ArrayList<>();
     
+    // State last reported to CaseStatistics, so that later changes can be applied as deltas
+    @Transient
+    private CaseStatsKey countedState;
+    
     public Case() {
         this.status = CaseStatus.OPEN;
         this.priority = CasePriority.MEDIUM;
@@ -156,6 +175,19 @@ public class Case extends BaseEntity {
         this.attachments = attachments;
     }
     
+    CaseStatsKey getCountedState() {
+        return countedState;
+    }
+    
+    void setCountedState(CaseStatsKey countedState) {
+        this.countedState = countedState;
+    }
+    
+    @PostLoad
+    void rememberCountedState() {
+        this.countedState = CaseStatsKey.of(this);
+    }
+    
     public void addNote(CaseNote note) {
         note.setCaseEntity(this);
         this.notes.add(note);
@@ -25,6 +25,10 @@ public class CaseAttachment extends BaseEntity {
     @Column(name = "description")
     private String description;
     
+    // SHA-256 of the content in the attachment store; null for attachments recorded without content
+    @Column(name = "content_hash")
+    private String contentHash;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "case_id")
     private Case caseEntity;
@@ -84,6 +88,14 @@ public class CaseAttachment extends BaseEntity {
         this.description = description;
     }
     
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    
     public Case getCaseEntity() {
         return caseEntity;
     }
@@ -0,0 +1,19 @@
+package com.enterprise.ecm.cases;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CaseAttachmentRepository extends JpaRepository<CaseAttachment, Long> {
+    
+    @Query("SELECT a FROM CaseAttachment a WHERE a.caseEntity.id = :caseId ORDER BY a.id")
+    List<CaseAttachment> findByCase(@Param("caseId") Long caseId);
+    
+    @Query("SELECT a FROM CaseAttachment a WHERE a.caseEntity.id = :caseId AND a.id = :id")
+    Optional<CaseAttachment> findByCaseAndId(@Param("caseId") Long caseId, @Param("id") Long id);
+}
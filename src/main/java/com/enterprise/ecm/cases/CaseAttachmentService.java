@@ -0,0 +1,125 @@
+package com.enterprise.ecm.cases;
+
+import com.enterprise.ecm.cases.storage.ContentBlobStore;
+import com.enterprise.ecm.cases.storage.StagedContent;
+import com.enterprise.ecm.cases.storage.StoredContent;
+import com.enterprise.ecm.shared.exception.ResourceNotFoundException;
+import com.enterprise.ecm.shared.exception.ValidationException;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.security.CurrentUser;
+import com.enterprise.ecm.shared.tenant.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Attachments of a case, with their content kept in the {@link ContentBlobStore}. Adding or
+ * removing an attachment increments the case version, as the case representation includes them,
+ * and is reported on the change feed as an update of the case.
+ */
+@Service
+@RequiredArgsConstructor
+public class CaseAttachmentService {
+    
+    private final CaseRepository caseRepository;
+    private final CaseService caseService;
+    private final CaseAttachmentRepository caseAttachmentRepository;
+    private final ContentBlobStore contentBlobStore;
+    private final EntityManager entityManager;
+    private final LoggingService loggingService;
+    
+    /**
+     * Streams {@code content} into the store and attaches it to the case. The case is checked
+     * before the upload is read, and again when the attachment is recorded.
+     */
+    public CaseAttachment addAttachment(Long caseId, String fileName, String contentType, String description, InputStream content) {
+        validateFileName(fileName);
+        String tenantId = TenantContext.getCurrentTenant();
+        // the case may change while the upload is read, so it is loaded again to attach
+        checkCase(caseId, tenantId);
+        StagedContent staged = contentBlobStore.stage(content, contentType);
+        return attach(caseId, tenantId, CurrentUser.username(), fileName, contentType, description, staged);
+    }
+    
+    /**
+     * Adds content already staged in the store (e.g. a completed chunked upload) to the case.
+     */
+    public CaseAttachment attach(Long caseId, String tenantId, String createdBy, String fileName, String contentType,
+                                 String description, StagedContent staged) {
+        CaseAttachment attachment = contentBlobStore.commit(staged, () -> {
+            Case caseEntity = findCase(caseId, tenantId);
+            CaseAttachment created = new CaseAttachment(fileName, contentBlobStore.relativePath(staged.getContentHash()),
+                    staged.getSize(), contentType);
+            created.setDescription(description);
+            created.setContentHash(staged.getContentHash());
+            created.setTenantId(tenantId);
+            created.setCreatedBy(createdBy);
+            created.setCaseEntity(caseEntity);
+            caseAttachmentRepository.save(created);
+            entityManager.lock(caseEntity, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            caseService.recordChildChange(caseEntity);
+            return created;
+        });
+        loggingService.logInfo("Attached {} ({} bytes, {}) to case {}", fileName, staged.getSize(), staged.getContentHash(), caseId);
+        return attachment;
+    }
+    
+    /**
+     * Checks that the case exists for the tenant, without keeping it in the persistence context.
+     */
+    public void checkCase(Long caseId, String tenantId) {
+        entityManager.detach(findCase(caseId, tenantId));
+    }
+    
+    public void validateFileName(String fileName) {
+        if (fileName == null || fileName.isBlank() || fileName.length() > 255) {
+            throw new ValidationException("Invalid attachment file name: " + fileName, "A file name of at most 255 characters is required");
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public List<CaseAttachment> getAttachments(Long caseId) {
+        findCase(caseId, TenantContext.getCurrentTenant());
+        return caseAttachmentRepository.findByCase(caseId);
+    }
+    
+    @Transactional(readOnly = true)
+    public CaseAttachment getAttachment(Long caseId, Long attachmentId) {
+        findCase(caseId, TenantContext.getCurrentTenant());
+        return caseAttachmentRepository.findByCaseAndId(caseId, attachmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment", "id", attachmentId));
+    }
+    
+    /**
+     * The stored content of the attachment.
+     */
+    public StoredContent getContent(CaseAttachment attachment) {
+        StoredContent content = contentBlobStore.find(attachment.getContentHash());
+        if (content == null) {
+            throw new ResourceNotFoundException("Attachment content", "id", attachment.getId());
+        }
+        return content;
+    }
+    
+    @Transactional
+    public void deleteAttachment(Long caseId, Long attachmentId) {
+        Case caseEntity = findCase(caseId, TenantContext.getCurrentTenant());
+        CaseAttachment attachment = caseAttachmentRepository.findByCaseAndId(caseId, attachmentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment", "id", attachmentId));
+        caseAttachmentRepository.delete(attachment);
+        contentBlobStore.release(attachment.getContentHash());
+        entityManager.lock(caseEntity, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        caseService.recordChildChange(caseEntity);
+    }
+    
+    private Case findCase(Long caseId, String tenantId) {
+        return caseRepository.findById(caseId)
+                .filter(caseEntity -> caseEntity.getTenantId().equals(tenantId))
+                .orElseThrow(() -> new ResourceNotFoundException("Case", "id", caseId));
+    }
+}
@@ -0,0 +1,187 @@
+package com.enterprise.ecm.cases;
+
+import com.enterprise.ecm.cases.dto.BulkCaseAssignRequest;
+import com.enterprise.ecm.cases.dto.BulkCaseItemResult;
+import com.enterprise.ecm.cases.dto.BulkCaseResponse;
+import com.enterprise.ecm.cases.dto.BulkCaseStatusRequest;
+import com.enterprise.ecm.cases.dto.CreateCaseRequest;
+import com.enterprise.ecm.cases.mapper.CaseMapper;
+import com.enterprise.ecm.shared.exception.ValidationException;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.tenant.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk variants of the {@link CaseService} write operations.
+ * <p>
+ * Items are processed in chunks of {@link #CHUNK_SIZE}, each in its own transaction, so Hibernate
+ * sends every chunk as a few JDBC batches. A failing row fails its whole batch, so a chunk that
+ * cannot commit is retried one item per transaction to isolate the failing items; the other items
+ * of the request are unaffected.
+ */
+@Service
+@RequiredArgsConstructor
+public class CaseBulkService {
+    
+    public static final int MAX_ITEMS = 1000;
+    
+    // A multiple of hibernate.jdbc.batch_size
+    static final int CHUNK_SIZE = 100;
+    
+    private final CaseService caseService;
+    private final CaseRepository caseRepository;
+    private final CaseMapper caseMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final LoggingService loggingService;
+    
+    public BulkCaseResponse createCases(List<CreateCaseRequest> requests) {
+        if (requests == null || requests.isEmpty() || requests.size() > MAX_ITEMS) {
+            String message = "A bulk request must contain between 1 and " + MAX_ITEMS + " cases";
+            throw new ValidationException(message, message);
+        }
+        BulkCaseItemResult[] results = new BulkCaseItemResult[requests.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            String violations = describeViolations(requests.get(index));
+            if (violations != null) {
+                results[index] = BulkCaseItemResult.failed(index, null, violations);
+            } else {
+                validIndexes.add(index);
+            }
+        }
+        
+        runInChunks(validIndexes, results, index -> null, chunk -> chunk.stream()
+                .map(index -> {
+                    Case createdCase = caseService.createCase(caseMapper.toEntity(requests.get(index)));
+                    return BulkCaseItemResult.succeeded(index, createdCase.getId(), createdCase.getCaseNumber());
+                })
+                .collect(Collectors.toList()));
+        return respond("Bulk created", results);
+    }
+    
+    public BulkCaseResponse updateCaseStatus(BulkCaseStatusRequest request) {
+        return updateCases("Bulk status update", request.getIds(),
+                id -> caseService.updateCaseStatus(id, request.getStatus(), null));
+    }
+    
+    public BulkCaseResponse assignCases(BulkCaseAssignRequest request) {
+        return updateCases("Bulk assignment", request.getIds(),
+                id -> caseService.assignCase(id, request.getAssignedTo(), null));
+    }
+    
+    /**
+     * Loads each chunk of cases with one tenant-scoped query, then applies {@code update} to the
+     * ids found; the resulting UPDATE statements are flushed together at commit.
+     */
+    private BulkCaseResponse updateCases(String operation, List<Long> ids, Function<Long, Case> update) {
+        BulkCaseItemResult[] results = new BulkCaseItemResult[ids.size()];
+        List<Integer> indexes = new ArrayList<>(ids.size());
+        for (int index = 0; index < ids.size(); index++) {
+            indexes.add(index);
+        }
+        String tenantId = TenantContext.getCurrentTenant();
+        
+        runInChunks(indexes, results, ids::get, chunk -> {
+            List<Long> chunkIds = chunk.stream().map(ids::get).collect(Collectors.toList());
+            Map<Long, Case> casesById = caseRepository.findAllByTenantAndIds(tenantId, chunkIds).stream()
+                    .collect(Collectors.toMap(Case::getId, Function.identity()));
+            List<BulkCaseItemResult> chunkResults = new ArrayList<>(chunk.size());
+            for (int index : chunk) {
+                Long id = ids.get(index);
+                if (!casesById.containsKey(id)) {
+                    chunkResults.add(BulkCaseItemResult.notFound(index, id));
+                } else {
+                    // Served from the persistence context populated by the chunk query
+                    Case updatedCase = update.apply(id);
+                    chunkResults.add(BulkCaseItemResult.succeeded(index, id, updatedCase.getCaseNumber()));
+                }
+            }
+            return chunkResults;
+        });
+        return respond(operation, results);
+    }
+    
+    private void runInChunks(List<Integer> indexes, BulkCaseItemResult[] results, Function<Integer, Long> idOf,
+                             Function<List<Integer>, List<BulkCaseItemResult>> chunkOperation) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int start = 0; start < indexes.size(); start += CHUNK_SIZE) {
+            List<Integer> chunk = indexes.subList(start, Math.min(start + CHUNK_SIZE, indexes.size()));
+            try {
+                store(results, transactionTemplate.execute(status -> chunkOperation.apply(chunk)));
+            } catch (RuntimeException chunkFailure) {
+                loggingService.logWarn("Bulk chunk of {} cases failed, retrying item by item: {}",
+                        chunk.size(), NestedExceptionUtils.getMostSpecificCause(chunkFailure).getMessage());
+                for (int index : chunk) {
+                    try {
+                        store(results, transactionTemplate.execute(status -> chunkOperation.apply(List.of(index))));
+                    } catch (RuntimeException itemFailure) {
+                        loggingService.logWarn("Bulk item {} failed: {}", index,
+                                NestedExceptionUtils.getMostSpecificCause(itemFailure).getMessage());
+                        results[index] = BulkCaseItemResult.failed(index, idOf.apply(index), describeFailure(itemFailure));
+                    } finally {
+                        entityManager.clear();
+                    }
+                }
+            } finally {
+                // Keeps the request-scoped persistence context from growing with the request size
+                entityManager.clear();
+            }
+        }
+    }
+    
+    private void store(BulkCaseItemResult[] results, List<BulkCaseItemResult> chunkResults) {
+        for (BulkCaseItemResult result : chunkResults) {
+            results[result.getIndex()] = result;
+        }
+    }
+    
+    private BulkCaseResponse respond(String operation, BulkCaseItemResult[] results) {
+        BulkCaseResponse response = BulkCaseResponse.of(Arrays.asList(results));
+        loggingService.logInfo("{}: {} of {} cases succeeded", operation, response.getSucceeded(), response.getTotal());
+        return response;
+    }
+    
+    // Database messages carry SQL and schema details, so callers only get the kind of failure
+    private String describeFailure(RuntimeException failure) {
+        if (failure instanceof DataIntegrityViolationException) {
+            return "Rejected by a database constraint";
+        }
+        if (failure instanceof DataAccessException) {
+            return "Could not be stored";
+        }
+        return failure.getMessage();
+    }
+    
+    private String describeViolations(CreateCaseRequest request) {
+        if (request == null) {
+            return "Case is required";
+        }
+        Set<ConstraintViolation<CreateCaseRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+}
@@ -1,17 +1,53 @@
 package com.enterprise.ecm.cases;
 
+import com.enterprise.ecm.cases.dto.AttachmentUploadDto;
+import com.enterprise.ecm.cases.dto.BulkCaseAssignRequest;
+import com.enterprise.ecm.cases.dto.BulkCaseResponse;
+import com.enterprise.ecm.cases.dto.BulkCaseStatusRequest;
+import com.enterprise.ecm.cases.dto.CaseAttachmentDto;
 import com.enterprise.ecm.cases.dto.CaseDto;
+import com.enterprise.ecm.cases.dto.CaseNoteDto;
+import com.enterprise.ecm.cases.dto.CaseQueryRequest;
+import com.enterprise.ecm.cases.dto.CaseStatsSummaryDto;
+import com.enterprise.ecm.cases.dto.CaseSummaryDto;
+import com.enterprise.ecm.cases.dto.CreateAttachmentUploadRequest;
+import com.enterprise.ecm.cases.dto.CreateCaseNoteRequest;
 import com.enterprise.ecm.cases.dto.CreateCaseRequest;
 import com.enterprise.ecm.cases.dto.UpdateCaseRequest;
+import com.enterprise.ecm.cases.export.AttachmentArchiveWriter;
+import com.enterprise.ecm.cases.export.CaseExportFormat;
+import com.enterprise.ecm.cases.export.CaseExportWriter;
+import com.enterprise.ecm.cases.mapper.CaseAttachmentMapper;
 import com.enterprise.ecm.cases.mapper.CaseMapper;
+import com.enterprise.ecm.cases.mapper.CaseNoteMapper;
+import com.enterprise.ecm.cases.storage.StoredContent;
+import com.enterprise.ecm.cases.stream.CaseChangeHub;
+import com.enterprise.ecm.cases.upload.ChunkedUpload;
+import com.enterprise.ecm.cases.upload.ChunkedUploadService;
+import com.enterprise.ecm.shared.dto.CursorPage;
+import com.enterprise.ecm.shared.http.FileResponses;
+import com.enterprise.ecm.shared.http.VersionETag;
 import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.tenant.TenantContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
@@ -22,8 +58,16 @@ import lombok.RequiredArgsConstructor;
 public class CaseController {
     
     private final CaseService caseService;
+    private final CaseBulkService caseBulkService;
+    private final CaseNoteService caseNoteService;
+    private final CaseAttachmentService caseAttachmentService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final CaseChangeHub caseChangeHub;
     private final CaseMapper caseMapper;
+    private final CaseNoteMapper caseNoteMapper;
+    private final CaseAttachmentMapper caseAttachmentMapper;
     private final LoggingService loggingService;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
     public ResponseEntity<CaseDto> createCase(@Valid @RequestBody CreateCaseRequest request) {
@@ -34,12 +78,38 @@ public class CaseController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
     
+    /**
+     * Creates up to {@link CaseBulkService#MAX_ITEMS} cases with batched inserts. Invalid or failing
+     * items are reported in the per-item results and do not prevent the others from being created.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCaseResponse> createCases(@RequestBody List<CreateCaseRequest> requests) {
+        loggingService.logInfo("Received request to create {} cases", requests.size());
+        return ResponseEntity.ok(caseBulkService.createCases(requests));
+    }
+    
+    @PatchMapping("/bulk/status")
+    public ResponseEntity<BulkCaseResponse> updateCaseStatuses(@Valid @RequestBody BulkCaseStatusRequest request) {
+        return ResponseEntity.ok(caseBulkService.updateCaseStatus(request));
+    }
+    
+    @PatchMapping("/bulk/assign")
+    public ResponseEntity<BulkCaseResponse> assignCases(@Valid @RequestBody BulkCaseAssignRequest request) {
+        return ResponseEntity.ok(caseBulkService.assignCases(request));
+    }
+    
     @GetMapping("/{id}")
-    public ResponseEntity<CaseDto> getCaseById(@PathVariable Long id) {
+    public ResponseEntity<CaseDto> getCaseById(@PathVariable Long id, WebRequest webRequest) {
         loggingService.logDebug("Received request to get case by id: {}", id);
         Optional<Case> caseEntity = caseService.getCaseById(id);
-        return caseEntity.map(entity -> ResponseEntity.ok(caseMapper.toDto(entity)))
-                .orElse(ResponseEntity.notFound().build());
+        if (caseEntity.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = VersionETag.of(caseEntity.get().getVersion());
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(caseMapper.toDto(caseEntity.get()));
     }
     
     @GetMapping("/number/{caseNumber}")
@@ -56,6 +126,36 @@ public class CaseController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Keyset-paged variant of {@link #getAllCases(Pageable)}, selected by the presence of the
+     * {@code cursor} parameter (send it empty for the first slice). Deep slices cost the same
+     * as the first one and the total count is only computed when {@code includeTotal=true}.
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPage<CaseDto>> getAllCasesByCursor(@RequestParam String cursor,
+                                                                  @RequestParam(defaultValue = "20") int size,
+                                                                  @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<Case> cases = caseService.getCases(cursor, size, includeTotal);
+        return ResponseEntity.ok(cases.map(caseMapper::toDto));
+    }
+    
+    /**
+     * Summary views ({@code view=summary}) return only the columns a list screen shows, read as a
+     * DTO projection without loading notes, attachments or descriptions. {@code view=full} (the
+     * default) keeps the complete representation.
+     */
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<Page<CaseSummaryDto>> getCaseSummaries(Pageable pageable) {
+        return ResponseEntity.ok(caseService.getCaseSummaries(pageable));
+    }
+    
+    @GetMapping(params = {"cursor", "view=summary"})
+    public ResponseEntity<CursorPage<CaseSummaryDto>> getCaseSummariesByCursor(@RequestParam String cursor,
+                                                                              @RequestParam(defaultValue = "20") int size,
+                                                                              @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(caseService.getCaseSummaries(cursor, size, includeTotal));
+    }
+    
     @GetMapping("/list")
     public ResponseEntity<List<CaseDto>> getAllCasesList() {
         List<Case> cases = caseService.getAllCases();
@@ -63,81 +163,296 @@ public class CaseController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Streaming export of every case of the tenant as NDJSON or CSV ({@code format=ndjson|csv}).
+     * Rows are written to the response as they are read, so memory use does not grow with tenant size.
+     */
+    @GetMapping(value = "/list", params = "format")
+    public ResponseEntity<StreamingResponseBody> exportCases(@RequestParam String format) {
+        CaseExportFormat exportFormat = CaseExportFormat.fromParameter(format);
+        String tenantId = TenantContext.getCurrentTenant();
+        StreamingResponseBody body = outputStream -> {
+            CaseExportWriter writer = new CaseExportWriter(exportFormat, objectMapper, outputStream);
+            writer.writeHeader();
+            long count = caseService.streamCases(tenantId, entity -> writer.write(caseMapper.toDtoWithoutChildren(entity)));
+            writer.flush();
+            loggingService.logInfo("Exported {} cases for tenant {} as {}", count, tenantId, exportFormat);
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cases." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+    
+    /**
+     * Server-sent events with the case changes of the tenant: {@code created}, {@code updated} and
+     * {@code deleted} deltas, and {@code resync} when the client must reload the cases it shows.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCaseChanges() {
+        return caseChangeHub.subscribe(TenantContext.getCurrentTenant());
+    }
+    
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<CaseDto>> getCasesByStatus(@PathVariable CaseStatus status) {
-        List<Case> cases = caseService.getCasesByStatus(status);
-        List<CaseDto> response = caseMapper.toDtoList(cases);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<CaseDto>> getCasesByStatus(@PathVariable CaseStatus status,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<Case> cases = caseService.getCasesByStatus(status, cursor, size, includeTotal);
+        return ResponseEntity.ok(cases.map(caseMapper::toDto));
+    }
+    
+    @GetMapping(value = "/status/{status}", params = "view=summary")
+    public ResponseEntity<CursorPage<CaseSummaryDto>> getCaseSummariesByStatus(@PathVariable CaseStatus status,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(defaultValue = "20") int size,
+                                                                              @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(caseService.getCaseSummariesByStatus(status, cursor, size, includeTotal));
     }
     
     @GetMapping("/priority/{priority}")
-    public ResponseEntity<List<CaseDto>> getCasesByPriority(@PathVariable CasePriority priority) {
-        List<Case> cases = caseService.getCasesByPriority(priority);
-        List<CaseDto> response = caseMapper.toDtoList(cases);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<CaseDto>> getCasesByPriority(@PathVariable CasePriority priority,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<Case> cases = caseService.getCasesByPriority(priority, cursor, size, includeTotal);
+        return ResponseEntity.ok(cases.map(caseMapper::toDto));
+    }
+    
+    @GetMapping(value = "/priority/{priority}", params = "view=summary")
+    public ResponseEntity<CursorPage<CaseSummaryDto>> getCaseSummariesByPriority(@PathVariable CasePriority priority,
+                                                                                @RequestParam(required = false) String cursor,
+                                                                                @RequestParam(defaultValue = "20") int size,
+                                                                                @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(caseService.getCaseSummariesByPriority(priority, cursor, size, includeTotal));
     }
     
     @GetMapping("/assignee/{assignedTo}")
-    public ResponseEntity<List<CaseDto>> getCasesByAssignee(@PathVariable String assignedTo) {
-        List<Case> cases = caseService.getCasesByAssignee(assignedTo);
-        List<CaseDto> response = caseMapper.toDtoList(cases);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<CaseDto>> getCasesByAssignee(@PathVariable String assignedTo,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<Case> cases = caseService.getCasesByAssignee(assignedTo, cursor, size, includeTotal);
+        return ResponseEntity.ok(cases.map(caseMapper::toDto));
+    }
+    
+    @GetMapping(value = "/assignee/{assignedTo}", params = "view=summary")
+    public ResponseEntity<CursorPage<CaseSummaryDto>> getCaseSummariesByAssignee(@PathVariable String assignedTo,
+                                                                                @RequestParam(required = false) String cursor,
+                                                                                @RequestParam(defaultValue = "20") int size,
+                                                                                @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(caseService.getCaseSummariesByAssignee(assignedTo, cursor, size, includeTotal));
     }
     
     @GetMapping("/overdue")
-    public ResponseEntity<List<CaseDto>> getOverdueCases() {
-        List<Case> cases = caseService.getOverdueCases();
-        List<CaseDto> response = caseMapper.toDtoList(cases);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<CursorPage<CaseDto>> getOverdueCases(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "20") int size,
+                                                              @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<Case> cases = caseService.getOverdueCases(cursor, size, includeTotal);
+        return ResponseEntity.ok(cases.map(caseMapper::toDto));
+    }
+    
+    @GetMapping(value = "/overdue", params = "view=summary")
+    public ResponseEntity<CursorPage<CaseSummaryDto>> getOverdueCaseSummaries(@RequestParam(required = false) String cursor,
+                                                                             @RequestParam(defaultValue = "20") int size,
+                                                                             @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(caseService.getOverdueCaseSummaries(cursor, size, includeTotal));
+    }
+    
+    /**
+     * Cases matching any combination of filters, e.g.
+     * {@code ?status=OPEN,IN_PROGRESS&priority=HIGH&category=Claims&dueTo=2024-07-01T00:00:00&keyword=roof},
+     * paged like the other list endpoints.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<CursorPage<CaseDto>> queryCases(CaseQueryRequest filter,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "20") int size,
+                                                        @RequestParam(defaultValue = "false") boolean includeTotal) {
+        CursorPage<Case> cases = caseService.queryCases(filter, cursor, size, includeTotal);
+        return ResponseEntity.ok(cases.map(caseMapper::toDto));
+    }
+    
+    @GetMapping(value = "/query", params = "view=summary")
+    public ResponseEntity<CursorPage<CaseSummaryDto>> queryCaseSummaries(CaseQueryRequest filter,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(defaultValue = "20") int size,
+                                                                        @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return ResponseEntity.ok(caseService.queryCaseSummaries(filter, cursor, size, includeTotal));
     }
     
     @GetMapping("/search")
-    public ResponseEntity<List<CaseDto>> searchCases(@RequestParam String keyword) {
-        List<Case> cases = caseService.searchCases(keyword);
-        List<CaseDto> response = caseMapper.toDtoList(cases);
+    public ResponseEntity<Page<CaseDto>> searchCases(@RequestParam String keyword, Pageable pageable) {
+        Page<Case> cases = caseService.searchCases(keyword, pageable);
+        Page<CaseDto> response = cases.map(caseMapper::toDto);
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping(value = "/search", params = "view=summary")
+    public ResponseEntity<Page<CaseSummaryDto>> searchCaseSummaries(@RequestParam String keyword, Pageable pageable) {
+        return ResponseEntity.ok(caseService.searchCaseSummaries(keyword, pageable));
+    }
+    
     @PutMapping("/{id}")
-    public ResponseEntity<CaseDto> updateCase(@PathVariable Long id, @Valid @RequestBody UpdateCaseRequest request) {
-        try {
-            Optional<Case> existingCase = caseService.getCaseById(id);
-            if (existingCase.isPresent()) {
-                Case caseEntity = existingCase.get();
-                caseMapper.updateEntityFromRequestIgnoreNull(request, caseEntity);
-                Case updatedCase = caseService.updateCase(id, caseEntity);
-                CaseDto response = caseMapper.toDto(updatedCase);
-                return ResponseEntity.ok(response);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<CaseDto> updateCase(@PathVariable Long id, @Valid @RequestBody UpdateCaseRequest request,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Case updatedCase = caseService.updateCase(id, request, VersionETag.parseIfMatch(ifMatch));
+        return withETag(updatedCase);
     }
     
     @PatchMapping("/{id}/status")
-    public ResponseEntity<CaseDto> updateCaseStatus(@PathVariable Long id, @RequestParam CaseStatus status) {
-        try {
-            Case caseEntity = caseService.updateCaseStatus(id, status);
-            CaseDto response = caseMapper.toDto(caseEntity);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<CaseDto> updateCaseStatus(@PathVariable Long id, @RequestParam CaseStatus status,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Case caseEntity = caseService.updateCaseStatus(id, status, VersionETag.parseIfMatch(ifMatch));
+        return withETag(caseEntity);
     }
     
     @PatchMapping("/{id}/assign")
-    public ResponseEntity<CaseDto> assignCase(@PathVariable Long id, @RequestParam String assignedTo) {
-        try {
-            Case caseEntity = caseService.assignCase(id, assignedTo);
-            CaseDto response = caseMapper.toDto(caseEntity);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+    public ResponseEntity<CaseDto> assignCase(@PathVariable Long id, @RequestParam String assignedTo,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Case caseEntity = caseService.assignCase(id, assignedTo, VersionETag.parseIfMatch(ifMatch));
+        return withETag(caseEntity);
+    }
+    
+    /**
+     * Appends a note to the case timeline. Concurrent appends to one case are written together.
+     */
+    @PostMapping("/{id}/notes")
+    public ResponseEntity<CaseNoteDto> addNote(@PathVariable Long id, @Valid @RequestBody CreateCaseNoteRequest request) {
+        CaseNote note = caseNoteService.appendNote(id, caseNoteMapper.toEntity(request));
+        return ResponseEntity.status(HttpStatus.CREATED).body(caseNoteMapper.toDto(note));
+    }
+    
+    @GetMapping("/{id}/notes")
+    public ResponseEntity<CursorPage<CaseNoteDto>> getNotes(@PathVariable Long id,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        CursorPage<CaseNote> notes = caseNoteService.getNotes(id, cursor, size);
+        return ResponseEntity.ok(notes.map(caseNoteMapper::toDto));
+    }
+    
+    /**
+     * Attaches the request body, streamed to the attachment store as it arrives. Content already
+     * stored (by SHA-256) is referenced instead of stored again.
+     */
+    @PostMapping("/{id}/attachments")
+    public ResponseEntity<CaseAttachmentDto> addAttachment(@PathVariable Long id, @RequestParam String fileName,
+                                                           @RequestParam(required = false) String description,
+                                                           HttpServletRequest request) throws IOException {
+        String contentType = Optional.ofNullable(request.getContentType()).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        CaseAttachment attachment = caseAttachmentService.addAttachment(id, fileName, contentType, description, request.getInputStream());
+        return ResponseEntity.status(HttpStatus.CREATED).body(caseAttachmentMapper.toDto(attachment));
+    }
+    
+    @GetMapping("/{id}/attachments")
+    public ResponseEntity<List<CaseAttachmentDto>> getAttachments(@PathVariable Long id) {
+        return ResponseEntity.ok(caseAttachmentMapper.toDtoList(caseAttachmentService.getAttachments(id)));
+    }
+    
+    /**
+     * Serves the attachment content from disk without copying it through the heap, with
+     * {@code Range} support. The content hash is the ETag. Content stored compressed is sent as
+     * stored to clients accepting its encoding, and decompressed on the fly to others.
+     */
+    @GetMapping("/{id}/attachments/{attachmentId}/content")
+    public void getAttachmentContent(@PathVariable Long id, @PathVariable Long attachmentId,
+                                     WebRequest webRequest, HttpServletRequest request,
+                                     HttpServletResponse response) throws IOException {
+        CaseAttachment attachment = caseAttachmentService.getAttachment(id, attachmentId);
+        StoredContent content = caseAttachmentService.getContent(attachment);
+        String encoding = content.getEncoding();
+        boolean passThrough = encoding != null && FileResponses.acceptsEncoding(request, encoding);
+        if (encoding != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        // the encoded bytes are a different representation, so they get their own ETag
+        String eTag = "\"" + attachment.getContentHash() + (passThrough ? "-" + encoding : "") + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return;
+        }
+        response.setContentType(Optional.ofNullable(attachment.getContentType()).orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(attachment.getFileName(), StandardCharsets.UTF_8).build().toString());
+        if (encoding == null || passThrough) {
+            if (passThrough) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            }
+            FileResponses.write(request, response, content.getFile(), eTag);
+        } else {
+            FileResponses.write(request, response, content.getSize(), eTag, content::openDecoded);
         }
     }
     
+    /**
+     * Every attachment of the case as one ZIP archive, streamed from the attachment store entry
+     * by entry, so memory use does not grow with the attachments and no temporary file is written.
+     */
+    @GetMapping("/{id}/attachments.zip")
+    public void getAttachmentArchive(@PathVariable Long id, HttpServletResponse response) throws IOException {
+        List<CaseAttachment> attachments = caseAttachmentService.getAttachments(id).stream()
+                .filter(attachment -> attachment.getContentHash() != null)
+                .toList();
+        // looked up before anything is written, while missing content can still be a 404
+        List<StoredContent> contents = attachments.stream().map(caseAttachmentService::getContent).toList();
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("case-" + id + "-attachments.zip").build().toString());
+        try (AttachmentArchiveWriter writer = new AttachmentArchiveWriter(response.getOutputStream())) {
+            for (int i = 0; i < attachments.size(); i++) {
+                CaseAttachment attachment = attachments.get(i);
+                writer.write(attachment.getFileName(), attachment.getContentType(), attachment.getCreatedAt(), contents.get(i));
+            }
+        }
+        loggingService.logInfo("Archived {} attachments of case {}", attachments.size(), id);
+    }
+    
+    /**
+     * Starts a resumable upload: the file is then sent in chunks of {@code chunkSize} bytes,
+     * in any order, and attached with {@code complete}.
+     */
+    @PostMapping("/{id}/attachments/uploads")
+    public ResponseEntity<AttachmentUploadDto> startUpload(@PathVariable Long id, @Valid @RequestBody CreateAttachmentUploadRequest request) {
+        ChunkedUpload upload = chunkedUploadService.startUpload(id, request);
+        return ResponseEntity.created(URI.create("/cases/" + id + "/attachments/uploads/" + upload.getId()))
+                .body(chunkedUploadService.toDto(upload));
+    }
+    
+    @GetMapping("/{id}/attachments/uploads/{uploadId}")
+    public ResponseEntity<AttachmentUploadDto> getUpload(@PathVariable Long id, @PathVariable String uploadId) {
+        return ResponseEntity.ok(chunkedUploadService.toDto(chunkedUploadService.getUpload(id, uploadId)));
+    }
+    
+    /**
+     * Writes chunk {@code chunk} (bytes {@code chunk * chunkSize} onwards) from the raw request body.
+     * Sending a chunk again after a dropped connection is safe.
+     */
+    @PutMapping("/{id}/attachments/uploads/{uploadId}/chunks/{chunk}")
+    public ResponseEntity<AttachmentUploadDto> writeChunk(@PathVariable Long id, @PathVariable String uploadId, @PathVariable int chunk,
+                                                          @RequestHeader(value = "Content-Digest", required = false) String contentDigest,
+                                                          HttpServletRequest request) throws IOException {
+        ChunkedUpload upload = chunkedUploadService.writeChunk(id, uploadId, chunk, request.getInputStream(), contentDigest);
+        return ResponseEntity.ok(chunkedUploadService.toDto(upload));
+    }
+    
+    @PostMapping("/{id}/attachments/uploads/{uploadId}/complete")
+    public ResponseEntity<CaseAttachmentDto> completeUpload(@PathVariable Long id, @PathVariable String uploadId,
+                                                            @RequestParam(required = false) String sha256) {
+        CaseAttachment attachment = chunkedUploadService.completeUpload(id, uploadId, sha256);
+        return ResponseEntity.status(HttpStatus.CREATED).body(caseAttachmentMapper.toDto(attachment));
+    }
+    
+    @DeleteMapping("/{id}/attachments/uploads/{uploadId}")
+    public ResponseEntity<Void> abortUpload(@PathVariable Long id, @PathVariable String uploadId) {
+        chunkedUploadService.abortUpload(id, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @DeleteMapping("/{id}/attachments/{attachmentId}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable Long id, @PathVariable Long attachmentId) {
+        caseAttachmentService.deleteAttachment(id, attachmentId);
+        return ResponseEntity.noContent().build();
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCase(@PathVariable Long id) {
         loggingService.logWarn("Received request to delete case: {}", id);
@@ -156,4 +471,16 @@ public class CaseController {
         long count = caseService.getCaseCountByStatus(status);
         return ResponseEntity.ok(count);
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Counts by status, priority, assignee and overdue in one call, served from in-memory counters.
+     */
+    @GetMapping("/stats/summary")
+    public ResponseEntity<CaseStatsSummaryDto> getStatsSummary() {
+        return ResponseEntity.ok(caseService.getStatsSummary());
+    }
+    
+    private ResponseEntity<CaseDto> withETag(Case caseEntity) {
+        return ResponseEntity.ok().eTag(VersionETag.of(caseEntity.getVersion())).body(caseMapper.toDto(caseEntity));
+    }
+}
@@ -0,0 +1,32 @@
+package com.enterprise.ecm.cases;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface CaseNoteRepository extends JpaRepository<CaseNote, Long> {
+    
+    // Newest-first keyset slice of a case's timeline, served by idx_case_notes_case_id_id
+    @Query("SELECT n FROM CaseNote n WHERE n.caseEntity.id = :caseId AND n.id < :afterId ORDER BY n.id DESC")
+    List<CaseNote> findSliceByCase(@Param("caseId") Long caseId, @Param("afterId") long afterId, Pageable limit);
+    
+    @Query("SELECT n FROM CaseNote n WHERE n.caseEntity.id = :caseId ORDER BY n.id")
+    List<CaseNote> findAllByCase(@Param("caseId") Long caseId);
+    
+    // Used to rebuild in-memory indexes at startup, across all tenants
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + CaseRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT n FROM CaseNote n ORDER BY n.id")
+    Stream<CaseNote> streamAll();
+}
@@ -0,0 +1,187 @@
+package com.enterprise.ecm.cases;
+
+import com.enterprise.ecm.cases.event.CaseNoteAddedEvent;
+import com.enterprise.ecm.cases.search.CaseSearchIndex;
+import com.enterprise.ecm.shared.dto.CursorPage;
+import com.enterprise.ecm.shared.exception.ResourceNotFoundException;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.pagination.KeysetCursor;
+import com.enterprise.ecm.shared.security.CurrentUser;
+import com.enterprise.ecm.shared.tenant.TenantContext;
+import com.enterprise.ecm.shared.transaction.TransactionCallbacks;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The notes timeline of a case: append-only writes and newest-first keyset reads.
+ * <p>
+ * Appends to the same case are group-committed. Each request queues its note and takes the
+ * case's lock; whoever holds it writes everything queued so far in one transaction (one JDBC
+ * batch of inserts and one version bump of the case), so requests that arrive while a batch
+ * is being written share the next one instead of contending on the case row one by one.
+ */
+@Service
+@RequiredArgsConstructor
+public class CaseNoteService {
+    
+    private static final int MAX_ATTEMPTS = 3;
+    
+    private final CaseRepository caseRepository;
+    private final CaseService caseService;
+    private final CaseNoteRepository caseNoteRepository;
+    private final CaseSearchIndex caseSearchIndex;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final LoggingService loggingService;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final ConcurrentMap<Long, NoteQueue> queues = new ConcurrentHashMap<>();
+    
+    /**
+     * Appends {@code note} to the case and returns it once committed. The case version is
+     * incremented with it, since the case representation (and its ETag) includes the notes.
+     */
+    public CaseNote appendNote(Long caseId, CaseNote note) {
+        PendingNote pending = new PendingNote(note.getContent(), note.getNoteType(), TenantContext.getCurrentTenant(), CurrentUser.username());
+        NoteQueue queue = queues.computeIfAbsent(caseId, id -> new NoteQueue());
+        queue.pending.add(pending);
+        queue.lock.lock();
+        try {
+            if (!pending.result.isDone()) {
+                List<PendingNote> batch = new ArrayList<>();
+                for (PendingNote next; (next = queue.pending.poll()) != null; ) {
+                    batch.add(next);
+                }
+                try {
+                    write(caseId, batch);
+                } finally {
+                    // after an Error in write the other requests of the batch must not wait forever
+                    batch.forEach(unwritten -> unwritten.result.completeExceptionally(
+                            new IllegalStateException("Appending notes to case " + caseId + " was aborted")));
+                }
+            }
+        } finally {
+            // a note queued after this check is written by its own request, which holds this queue
+            if (queue.pending.isEmpty()) {
+                queues.remove(caseId, queue);
+            }
+            queue.lock.unlock();
+        }
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<CaseNote> getNotes(Long caseId, String cursor, int size) {
+        findCase(caseId, TenantContext.getCurrentTenant());
+        int limit = Math.max(1, Math.min(size, CaseService.MAX_PAGE_SIZE));
+        return KeysetCursor.slice(cursor, limit,
+                (afterId, pageable) -> caseNoteRepository.findSliceByCase(caseId, afterId, pageable),
+                CaseNote::getId, null);
+    }
+    
+    private void write(Long caseId, List<PendingNote> batch) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(caseId, batch));
+                batch.stream().filter(pending -> pending.note != null).forEach(pending -> pending.result.complete(pending.note));
+                loggingService.logDebug("Appended {} notes to case {}", batch.size(), caseId);
+                return;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                // the case was updated concurrently; the notes themselves cannot conflict
+                if (attempt == MAX_ATTEMPTS) {
+                    batch.forEach(pending -> pending.result.completeExceptionally(e));
+                    return;
+                }
+            } catch (RuntimeException e) {
+                loggingService.logWarn("Appending {} notes to case {} failed: {}", batch.size(), caseId, e.getMessage());
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+                return;
+            } finally {
+                // the notes are returned detached; keeps a request-scoped persistence context clean for a retry
+                entityManager.clear();
+            }
+        }
+    }
+    
+    private void insert(Long caseId, List<PendingNote> batch) {
+        Case caseEntity = caseRepository.findById(caseId).orElse(null);
+        List<CaseNote> notes = new ArrayList<>(batch.size());
+        for (PendingNote pending : batch) {
+            pending.note = null;
+            if (caseEntity == null || !caseEntity.getTenantId().equals(pending.tenantId)) {
+                pending.result.completeExceptionally(new ResourceNotFoundException("Case", "id", caseId));
+                continue;
+            }
+            CaseNote note = new CaseNote(pending.content, pending.noteType);
+            note.setTenantId(pending.tenantId);
+            note.setCreatedBy(pending.createdBy);
+            note.setCaseEntity(caseEntity);
+            entityManager.persist(note);
+            eventPublisher.publishEvent(new CaseNoteAddedEvent(pending.tenantId, caseId, note.getId(), note.getNoteType(), pending.createdBy));
+            notes.add(note);
+            pending.note = note;
+        }
+        if (!notes.isEmpty()) {
+            entityManager.lock(caseEntity, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            TransactionCallbacks.afterCommit(() -> notes.forEach(caseSearchIndex::indexNote));
+            caseService.recordChildChange(caseEntity);
+        }
+    }
+    
+    private Case findCase(Long caseId, String tenantId) {
+        return caseRepository.findById(caseId)
+                .filter(caseEntity -> caseEntity.getTenantId().equals(tenantId))
+                .orElseThrow(() -> new ResourceNotFoundException("Case", "id", caseId));
+    }
+    
+    /**
+     * The number of appends to the case waiting for the batch being written to commit.
+     */
+    int waitingAppends(Long caseId) {
+        NoteQueue queue = queues.get(caseId);
+        return queue == null ? 0 : queue.lock.getQueueLength();
+    }
+    
+    private static class NoteQueue {
+        final Queue<PendingNote> pending = new ConcurrentLinkedQueue<>();
+        final ReentrantLock lock = new ReentrantLock();
+    }
+    
+    private static class PendingNote {
+        final String content;
+        final String noteType;
+        final String tenantId;
+        final String createdBy;
+        final CompletableFuture<CaseNote> result = new CompletableFuture<>();
+        CaseNote note;
+        
+        PendingNote(String content, String noteType, String tenantId, String createdBy) {
+            this.content = content;
+            this.noteType = noteType;
+            this.tenantId = tenantId;
+            this.createdBy = createdBy;
+        }
+    }
+}
@@ -1,43 +1,124 @@
 package com.enterprise.ecm.cases;
 
+import com.enterprise.ecm.cases.dto.CaseSummaryDto;
+import com.enterprise.ecm.cases.stats.CaseCountRow;
+import com.enterprise.ecm.cases.sla.SlaCaseRow;
+import com.enterprise.ecm.config.EntityCacheConfig;
 import com.enterprise.ecm.shared.tenant.TenantContext;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CaseRepository extends JpaRepository<Case, Long> {
     
+    int EXPORT_FETCH_SIZE = 500;
+    
+    // Cases whose SLA is still running (see CaseStatus#isClosed)
+    String OPEN_CASE = "c.status NOT IN (com.enterprise.ecm.cases.CaseStatus.RESOLVED, com.enterprise.ecm.cases.CaseStatus.CLOSED, "
+            + "com.enterprise.ecm.cases.CaseStatus.CANCELLED) ";
+    
+    // Projection used by the summary view of the list endpoints; returns unmanaged DTOs
+    String SUMMARY_SELECT = "SELECT new com.enterprise.ecm.cases.dto.CaseSummaryDto("
+            + "c.id, c.caseNumber, c.title, c.status, c.priority, c.assignedTo, c.dueDate) FROM Case c ";
+    
     @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId")
     List<Case> findAllByTenant(@Param("tenantId") String tenantId);
     
+    // Full scans read through the entity cache but do not fill it, so exports cannot evict hot cases
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "GET")
+    })
+    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId ORDER BY c.id")
+    Stream<Case> streamAllByTenant(@Param("tenantId") String tenantId);
+    
+    // Used to rebuild in-memory indexes at startup, across all tenants
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "GET")
+    })
+    @Query("SELECT c FROM Case c ORDER BY c.id")
+    Stream<Case> streamAll();
+    
     @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId")
     Page<Case> findAllByTenant(@Param("tenantId") String tenantId, Pageable pageable);
     
+    @Query(value = SUMMARY_SELECT + "WHERE c.tenantId = :tenantId",
+            countQuery = "SELECT COUNT(c) FROM Case c WHERE c.tenantId = :tenantId")
+    Page<CaseSummaryDto> findSummariesByTenant(@Param("tenantId") String tenantId, Pageable pageable);
+    
+    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.id IN :ids")
+    List<Case> findAllByTenantAndIds(@Param("tenantId") String tenantId, @Param("ids") Collection<Long> ids);
+    
+    @Query(SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.id IN :ids")
+    List<CaseSummaryDto> findSummariesByTenantAndIds(@Param("tenantId") String tenantId, @Param("ids") Collection<Long> ids);
+    
     @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.caseNumber = :caseNumber")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheConfig.CASES_BY_NUMBER)
+    })
     Optional<Case> findByTenantAndCaseNumber(@Param("tenantId") String tenantId, @Param("caseNumber") String caseNumber);
     
-    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.status = :status")
-    List<Case> findByTenantAndStatus(@Param("tenantId") String tenantId, @Param("status") CaseStatus status);
+    // Keyset (seek) pagination: callers pass the last id of the previous slice and a
+    // PageRequest.of(0, size) as the row limit. List return types skip the COUNT query.
+    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.id < :afterId ORDER BY c.id DESC")
+    List<Case> findSliceByTenant(@Param("tenantId") String tenantId, @Param("afterId") long afterId, Pageable limit);
+    
+    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.status = :status AND c.id < :afterId ORDER BY c.id DESC")
+    List<Case> findSliceByTenantAndStatus(@Param("tenantId") String tenantId, @Param("status") CaseStatus status,
+                                          @Param("afterId") long afterId, Pageable limit);
+    
+    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.priority = :priority AND c.id < :afterId ORDER BY c.id DESC")
+    List<Case> findSliceByTenantAndPriority(@Param("tenantId") String tenantId, @Param("priority") CasePriority priority,
+                                            @Param("afterId") long afterId, Pageable limit);
     
-    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.priority = :priority")
-    List<Case> findByTenantAndPriority(@Param("tenantId") String tenantId, @Param("priority") CasePriority priority);
+    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.assignedTo = :assignedTo AND c.id < :afterId ORDER BY c.id DESC")
+    List<Case> findSliceByTenantAndAssignedTo(@Param("tenantId") String tenantId, @Param("assignedTo") String assignedTo,
+                                              @Param("afterId") long afterId, Pageable limit);
     
-    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.assignedTo = :assignedTo")
-    List<Case> findByTenantAndAssignedTo(@Param("tenantId") String tenantId, @Param("assignedTo") String assignedTo);
+    // Fallbacks for the overdue endpoints while the in-memory SLA tracker is still being loaded
+    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.dueDate <= :now AND " + OPEN_CASE + "AND c.id < :afterId ORDER BY c.id DESC")
+    List<Case> findOverdueSliceByTenant(@Param("tenantId") String tenantId, @Param("now") LocalDateTime now,
+                                        @Param("afterId") long afterId, Pageable limit);
     
-    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.dueDate <= :dueDate")
-    List<Case> findByTenantAndDueDateBefore(@Param("tenantId") String tenantId, @Param("dueDate") LocalDateTime dueDate);
+    // Fallback for keyword search while the in-memory search index is still being built
+    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND (c.title LIKE %:keyword% OR c.description LIKE %:keyword%)")
+    Page<Case> findByTenantAndKeyword(@Param("tenantId") String tenantId, @Param("keyword") String keyword, Pageable pageable);
     
-    @Query("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.title LIKE %:keyword% OR c.description LIKE %:keyword%")
-    List<Case> findByTenantAndKeyword(@Param("tenantId") String tenantId, @Param("keyword") String keyword);
+    @Query(SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.id < :afterId ORDER BY c.id DESC")
+    List<CaseSummaryDto> findSummarySliceByTenant(@Param("tenantId") String tenantId, @Param("afterId") long afterId, Pageable limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.status = :status AND c.id < :afterId ORDER BY c.id DESC")
+    List<CaseSummaryDto> findSummarySliceByTenantAndStatus(@Param("tenantId") String tenantId, @Param("status") CaseStatus status,
+                                                           @Param("afterId") long afterId, Pageable limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.priority = :priority AND c.id < :afterId ORDER BY c.id DESC")
+    List<CaseSummaryDto> findSummarySliceByTenantAndPriority(@Param("tenantId") String tenantId, @Param("priority") CasePriority priority,
+                                                             @Param("afterId") long afterId, Pageable limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.assignedTo = :assignedTo AND c.id < :afterId ORDER BY c.id DESC")
+    List<CaseSummaryDto> findSummarySliceByTenantAndAssignedTo(@Param("tenantId") String tenantId, @Param("assignedTo") String assignedTo,
+                                                               @Param("afterId") long afterId, Pageable limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE c.tenantId = :tenantId AND c.dueDate <= :now AND " + OPEN_CASE + "AND c.id < :afterId ORDER BY c.id DESC")
+    List<CaseSummaryDto> findOverdueSummarySliceByTenant(@Param("tenantId") String tenantId, @Param("now") LocalDateTime now,
+                                                         @Param("afterId") long afterId, Pageable limit);
     
     @Query("SELECT COUNT(c) FROM Case c WHERE c.tenantId = :tenantId AND c.status = :status")
     long countByTenantAndStatus(@Param("tenantId") String tenantId, @Param("status") CaseStatus status);
@@ -45,6 +126,29 @@ public interface CaseRepository extends JpaRepository<Case, Long> {
     @Query("SELECT COUNT(c) FROM Case c WHERE c.tenantId = :tenantId")
     long countByTenant(@Param("tenantId") String tenantId);
     
+    @Query("SELECT COUNT(c) FROM Case c WHERE c.tenantId = :tenantId AND c.priority = :priority")
+    long countByTenantAndPriority(@Param("tenantId") String tenantId, @Param("priority") CasePriority priority);
+    
+    @Query("SELECT COUNT(c) FROM Case c WHERE c.tenantId = :tenantId AND c.assignedTo = :assignedTo")
+    long countByTenantAndAssignedTo(@Param("tenantId") String tenantId, @Param("assignedTo") String assignedTo);
+    
+    @Query("SELECT COUNT(c) FROM Case c WHERE c.tenantId = :tenantId AND c.dueDate <= :now AND " + OPEN_CASE)
+    long countOverdueByTenant(@Param("tenantId") String tenantId, @Param("now") LocalDateTime now);
+    
+    // Startup load of the SLA tracker (see CaseSlaLoader)
+    @Query("SELECT new com.enterprise.ecm.cases.sla.SlaCaseRow(c.tenantId, c.id, c.dueDate) FROM Case c " +
+           "WHERE c.dueDate IS NOT NULL AND " + OPEN_CASE)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<SlaCaseRow> streamOpenWithDueDate();
+    
+    // Dashboard statistics reconciliation (see CaseStatistics)
+    @Query("SELECT new com.enterprise.ecm.cases.stats.CaseCountRow(c.status, c.priority, c.assignedTo, COUNT(c)) FROM Case c " +
+           "WHERE c.tenantId = :tenantId GROUP BY c.status, c.priority, c.assignedTo")
+    List<CaseCountRow> countGroupedByTenant(@Param("tenantId") String tenantId);
+    
     // Default methods that use current tenant
     default List<Case> findAllByCurrentTenant() {
         return findAllByTenant(TenantContext.getCurrentTenant());
@@ -58,24 +162,48 @@ public interface CaseRepository extends JpaRepository<Case, Long> {
         return findByTenantAndCaseNumber(TenantContext.getCurrentTenant(), caseNumber);
     }
     
-    default List<Case> findByCurrentTenantAndStatus(CaseStatus status) {
-        return findByTenantAndStatus(TenantContext.getCurrentTenant(), status);
+    default List<Case> findSliceByCurrentTenant(long afterId, Pageable limit) {
+        return findSliceByTenant(TenantContext.getCurrentTenant(), afterId, limit);
     }
     
-    default List<Case> findByCurrentTenantAndPriority(CasePriority priority) {
-        return findByTenantAndPriority(TenantContext.getCurrentTenant(), priority);
+    default List<Case> findSliceByCurrentTenantAndStatus(CaseStatus status, long afterId, Pageable limit) {
+        return findSliceByTenantAndStatus(TenantContext.getCurrentTenant(), status, afterId, limit);
     }
     
-    default List<Case> findByCurrentTenantAndAssignedTo(String assignedTo) {
-        return findByTenantAndAssignedTo(TenantContext.getCurrentTenant(), assignedTo);
+    default List<Case> findSliceByCurrentTenantAndPriority(CasePriority priority, long afterId, Pageable limit) {
+        return findSliceByTenantAndPriority(TenantContext.getCurrentTenant(), priority, afterId, limit);
     }
     
-    default List<Case> findByCurrentTenantAndDueDateBefore(LocalDateTime dueDate) {
-        return findByTenantAndDueDateBefore(TenantContext.getCurrentTenant(), dueDate);
+    default List<Case> findSliceByCurrentTenantAndAssignedTo(String assignedTo, long afterId, Pageable limit) {
+        return findSliceByTenantAndAssignedTo(TenantContext.getCurrentTenant(), assignedTo, afterId, limit);
     }
     
-    default List<Case> findByCurrentTenantAndKeyword(String keyword) {
-        return findByTenantAndKeyword(TenantContext.getCurrentTenant(), keyword);
+    default List<Case> findOverdueSliceByCurrentTenant(LocalDateTime now, long afterId, Pageable limit) {
+        return findOverdueSliceByTenant(TenantContext.getCurrentTenant(), now, afterId, limit);
+    }
+    
+    default Page<CaseSummaryDto> findSummariesByCurrentTenant(Pageable pageable) {
+        return findSummariesByTenant(TenantContext.getCurrentTenant(), pageable);
+    }
+    
+    default List<CaseSummaryDto> findSummarySliceByCurrentTenant(long afterId, Pageable limit) {
+        return findSummarySliceByTenant(TenantContext.getCurrentTenant(), afterId, limit);
+    }
+    
+    default List<CaseSummaryDto> findSummarySliceByCurrentTenantAndStatus(CaseStatus status, long afterId, Pageable limit) {
+        return findSummarySliceByTenantAndStatus(TenantContext.getCurrentTenant(), status, afterId, limit);
+    }
+    
+    default List<CaseSummaryDto> findSummarySliceByCurrentTenantAndPriority(CasePriority priority, long afterId, Pageable limit) {
+        return findSummarySliceByTenantAndPriority(TenantContext.getCurrentTenant(), priority, afterId, limit);
+    }
+    
+    default List<CaseSummaryDto> findSummarySliceByCurrentTenantAndAssignedTo(String assignedTo, long afterId, Pageable limit) {
+        return findSummarySliceByTenantAndAssignedTo(TenantContext.getCurrentTenant(), assignedTo, afterId, limit);
+    }
+    
+    default List<CaseSummaryDto> findOverdueSummarySliceByCurrentTenant(LocalDateTime now, long afterId, Pageable limit) {
+        return findOverdueSummarySliceByTenant(TenantContext.getCurrentTenant(), now, afterId, limit);
     }
     
     default long countByCurrentTenantAndStatus(CaseStatus status) {
@@ -85,4 +213,16 @@ public interface CaseRepository extends JpaRepository<Case, Long> {
     default long countByCurrentTenant() {
         return countByTenant(TenantContext.getCurrentTenant());
     }
+    
+    default long countByCurrentTenantAndPriority(CasePriority priority) {
+        return countByTenantAndPriority(TenantContext.getCurrentTenant(), priority);
+    }
+    
+    default long countByCurrentTenantAndAssignedTo(String assignedTo) {
+        return countByTenantAndAssignedTo(TenantContext.getCurrentTenant(), assignedTo);
+    }
+    
+    default long countOverdueByCurrentTenant(LocalDateTime now) {
+        return countOverdueByTenant(TenantContext.getCurrentTenant(), now);
+    }
 } 
\ No newline at end of file
@@ -1,107 +1,303 @@
 package com.enterprise.ecm.cases;
 
+import com.enterprise.ecm.cases.dto.CaseQueryRequest;
+import com.enterprise.ecm.cases.dto.CaseStatsSummaryDto;
+import com.enterprise.ecm.cases.dto.CaseSummaryDto;
+import com.enterprise.ecm.cases.dto.UpdateCaseRequest;
+import com.enterprise.ecm.cases.event.CaseAssignedEvent;
+import com.enterprise.ecm.cases.event.CaseCreatedEvent;
+import com.enterprise.ecm.cases.event.CaseDeletedEvent;
+import com.enterprise.ecm.cases.event.CaseStatusChangedEvent;
+import com.enterprise.ecm.cases.mapper.CaseMapper;
+import com.enterprise.ecm.cases.numbering.CaseNumberAllocator;
+import com.enterprise.ecm.cases.query.CaseFilterQuery;
+import com.enterprise.ecm.cases.search.CaseSearchHit;
+import com.enterprise.ecm.cases.search.CaseSearchIndex;
+import com.enterprise.ecm.cases.search.CaseSearchResult;
+import com.enterprise.ecm.cases.sla.CaseSlaTracker;
+import com.enterprise.ecm.cases.stats.CaseStatistics;
+import com.enterprise.ecm.cases.stats.CaseStatsKey;
+import com.enterprise.ecm.cases.storage.ContentBlobStore;
+import com.enterprise.ecm.cases.stream.CaseChange;
+import com.enterprise.ecm.cases.stream.CaseChangeHub;
+import com.enterprise.ecm.cases.stream.CaseChangeType;
+import com.enterprise.ecm.shared.dto.CursorPage;
+import com.enterprise.ecm.shared.exception.PreconditionFailedException;
+import com.enterprise.ecm.shared.exception.ResourceNotFoundException;
+import com.enterprise.ecm.shared.pagination.KeysetCursor;
 import com.enterprise.ecm.shared.tenant.TenantContext;
+import com.enterprise.ecm.shared.transaction.TransactionCallbacks;
 import com.enterprise.ecm.shared.logging.LoggingService;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.function.ThrowingConsumer;
 import lombok.RequiredArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class CaseService {
     
+    public static final int MAX_PAGE_SIZE = 100;
+    
     private final CaseRepository caseRepository;
     private final LoggingService loggingService;
+    private final EntityManager entityManager;
+    private final CaseSearchIndex caseSearchIndex;
+    private final CaseMapper caseMapper;
+    private final CaseStatistics caseStatistics;
+    private final CaseNumberAllocator caseNumberAllocator;
+    private final CaseSlaTracker caseSlaTracker;
+    private final ContentBlobStore contentBlobStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CaseChangeHub caseChangeHub;
+    private final CaseFilterQuery caseFilterQuery;
     
     public Case createCase(Case caseEntity) {
         loggingService.logInfo("Creating case", caseEntity);
         if (caseEntity.getCaseNumber() == null || caseEntity.getCaseNumber().trim().isEmpty()) {
-            caseEntity.setCaseNumber(generateCaseNumber());
+            caseEntity.setCaseNumber(caseNumberAllocator.allocate(TenantContext.getCurrentTenant()));
         }
-        return caseRepository.save(caseEntity);
+        Case savedCase = caseRepository.save(caseEntity);
+        TransactionCallbacks.afterCommit(() -> caseSearchIndex.indexCase(savedCase));
+        recordChange(savedCase, CaseStatsKey.of(savedCase));
+        return savedCase;
     }
     
     public Optional<Case> getCaseById(Long id) {
         loggingService.logDebug("Fetching case by id: {}", id);
-        return caseRepository.findById(id);
+        // served from the entity cache when hot; the cache is keyed by id alone, so scope it here
+        String tenantId = TenantContext.getCurrentTenant();
+        return caseRepository.findById(id)
+                .filter(caseEntity -> tenantId == null || tenantId.equals(caseEntity.getTenantId()));
     }
     
     public Optional<Case> getCaseByNumber(String caseNumber) {
         return caseRepository.findByCurrentTenantAndCaseNumber(caseNumber);
     }
     
+    @Transactional(readOnly = true)
     public List<Case> getAllCases() {
         return caseRepository.findAllByCurrentTenant();
     }
     
+    /**
+     * Streams every case of the tenant through {@code consumer} using a forward-only cursor.
+     * The persistence context is cleared after each fetch batch so memory stays flat regardless
+     * of tenant size. The tenant is passed explicitly because exports run off the request thread.
+     */
+    @Transactional(readOnly = true)
+    public long streamCases(String tenantId, ThrowingConsumer<Case> consumer) {
+        long count = 0;
+        try (Stream<Case> cases = caseRepository.streamAllByTenant(tenantId)) {
+            Iterator<Case> iterator = cases.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                if (++count % CaseRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        return count;
+    }
+    
+    @Transactional(readOnly = true)
     public Page<Case> getAllCases(Pageable pageable) {
-        return caseRepository.findAllByCurrentTenant(pageable);
+        return caseRepository.findAllByCurrentTenant(clampPage(pageable));
     }
     
-    public List<Case> getCasesByStatus(CaseStatus status) {
-        return caseRepository.findByCurrentTenantAndStatus(status);
+    @Transactional(readOnly = true)
+    public CursorPage<Case> getCases(String cursor, int size, boolean includeTotal) {
+        return slice(cursor, size, caseRepository::findSliceByCurrentTenant, Case::getId,
+                includeTotal ? caseRepository::countByCurrentTenant : null);
     }
     
-    public List<Case> getCasesByPriority(CasePriority priority) {
-        return caseRepository.findByCurrentTenantAndPriority(priority);
+    @Transactional(readOnly = true)
+    public CursorPage<Case> getCasesByStatus(CaseStatus status, String cursor, int size, boolean includeTotal) {
+        return slice(cursor, size, (afterId, limit) -> caseRepository.findSliceByCurrentTenantAndStatus(status, afterId, limit), Case::getId,
+                includeTotal ? () -> caseRepository.countByCurrentTenantAndStatus(status) : null);
     }
     
-    public List<Case> getCasesByAssignee(String assignedTo) {
-        return caseRepository.findByCurrentTenantAndAssignedTo(assignedTo);
+    @Transactional(readOnly = true)
+    public CursorPage<Case> getCasesByPriority(CasePriority priority, String cursor, int size, boolean includeTotal) {
+        return slice(cursor, size, (afterId, limit) -> caseRepository.findSliceByCurrentTenantAndPriority(priority, afterId, limit), Case::getId,
+                includeTotal ? () -> caseRepository.countByCurrentTenantAndPriority(priority) : null);
     }
     
-    public List<Case> getOverdueCases() {
-        return caseRepository.findByCurrentTenantAndDueDateBefore(LocalDateTime.now());
+    @Transactional(readOnly = true)
+    public CursorPage<Case> getCasesByAssignee(String assignedTo, String cursor, int size, boolean includeTotal) {
+        return slice(cursor, size, (afterId, limit) -> caseRepository.findSliceByCurrentTenantAndAssignedTo(assignedTo, afterId, limit), Case::getId,
+                includeTotal ? () -> caseRepository.countByCurrentTenantAndAssignedTo(assignedTo) : null);
     }
     
-    public List<Case> searchCases(String keyword) {
-        return caseRepository.findByCurrentTenantAndKeyword(keyword);
+    /**
+     * Open cases past their due date, served from the SLA tracker: the page's ids come from memory
+     * and only those cases are read. Falls back to a query while the tracker is loading.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Case> getOverdueCases(String cursor, int size, boolean includeTotal) {
+        String tenantId = TenantContext.getCurrentTenant();
+        if (!caseSlaTracker.isReady()) {
+            LocalDateTime now = LocalDateTime.now();
+            return slice(cursor, size, (afterId, limit) -> caseRepository.findOverdueSliceByTenant(tenantId, now, afterId, limit), Case::getId,
+                    includeTotal ? () -> caseRepository.countOverdueByTenant(tenantId, now) : null);
+        }
+        return slice(cursor, size, (afterId, limit) -> inIdOrder(caseSlaTracker.getOverdueCaseIds(tenantId, afterId, limit.getPageSize()),
+                        ids -> caseRepository.findAllByTenantAndIds(tenantId, ids), Case::getId), Case::getId,
+                includeTotal ? () -> caseSlaTracker.getOverdueCount(tenantId) : null);
     }
     
-    public Case updateCase(Long id, Case updatedCase) {
-        return caseRepository.findById(id)
-                .map(existingCase -> {
-                    existingCase.setTitle(updatedCase.getTitle());
-                    existingCase.setDescription(updatedCase.getDescription());
-                    existingCase.setStatus(updatedCase.getStatus());
-                    existingCase.setPriority(updatedCase.getPriority());
-                    existingCase.setCategory(updatedCase.getCategory());
-                    existingCase.setAssignedTo(updatedCase.getAssignedTo());
-                    existingCase.setDueDate(updatedCase.getDueDate());
-                    return caseRepository.save(existingCase);
-                })
-                .orElseThrow(() -> new RuntimeException("Case not found with id: " + id));
-    }
-    
-    public Case updateCaseStatus(Long id, CaseStatus status) {
-        return caseRepository.findById(id)
-                .map(caseEntity -> {
-                    caseEntity.setStatus(status);
-                    return caseRepository.save(caseEntity);
-                })
-                .orElseThrow(() -> new RuntimeException("Case not found with id: " + id));
+    /**
+     * Cases matching every filter of {@code filter}, in one statement per slice (see {@link CaseFilterQuery}).
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Case> queryCases(CaseQueryRequest filter, String cursor, int size, boolean includeTotal) {
+        String tenantId = TenantContext.getCurrentTenant();
+        return slice(cursor, size, (afterId, limit) -> caseFilterQuery.findSlice(tenantId, filter, afterId, limit.getPageSize()), Case::getId,
+                includeTotal ? () -> caseFilterQuery.count(tenantId, filter) : null);
     }
     
-    public Case assignCase(Long id, String assignedTo) {
-        return caseRepository.findById(id)
-                .map(caseEntity -> {
-                    caseEntity.setAssignedTo(assignedTo);
-                    return caseRepository.save(caseEntity);
-                })
-                .orElseThrow(() -> new RuntimeException("Case not found with id: " + id));
+    // Summary views: unmanaged DTO projections, no entity hydration or persistence-context tracking
+    
+    @Transactional(readOnly = true)
+    public Page<CaseSummaryDto> getCaseSummaries(Pageable pageable) {
+        return caseRepository.findSummariesByCurrentTenant(clampPage(pageable));
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<CaseSummaryDto> getCaseSummaries(String cursor, int size, boolean includeTotal) {
+        return slice(cursor, size, caseRepository::findSummarySliceByCurrentTenant, CaseSummaryDto::getId,
+                includeTotal ? caseRepository::countByCurrentTenant : null);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<CaseSummaryDto> getCaseSummariesByStatus(CaseStatus status, String cursor, int size, boolean includeTotal) {
+        return slice(cursor, size, (afterId, limit) -> caseRepository.findSummarySliceByCurrentTenantAndStatus(status, afterId, limit), CaseSummaryDto::getId,
+                includeTotal ? () -> caseRepository.countByCurrentTenantAndStatus(status) : null);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<CaseSummaryDto> getCaseSummariesByPriority(CasePriority priority, String cursor, int size, boolean includeTotal) {
+        return slice(cursor, size, (afterId, limit) -> caseRepository.findSummarySliceByCurrentTenantAndPriority(priority, afterId, limit), CaseSummaryDto::getId,
+                includeTotal ? () -> caseRepository.countByCurrentTenantAndPriority(priority) : null);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<CaseSummaryDto> getCaseSummariesByAssignee(String assignedTo, String cursor, int size, boolean includeTotal) {
+        return slice(cursor, size, (afterId, limit) -> caseRepository.findSummarySliceByCurrentTenantAndAssignedTo(assignedTo, afterId, limit), CaseSummaryDto::getId,
+                includeTotal ? () -> caseRepository.countByCurrentTenantAndAssignedTo(assignedTo) : null);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<CaseSummaryDto> getOverdueCaseSummaries(String cursor, int size, boolean includeTotal) {
+        String tenantId = TenantContext.getCurrentTenant();
+        if (!caseSlaTracker.isReady()) {
+            LocalDateTime now = LocalDateTime.now();
+            return slice(cursor, size, (afterId, limit) -> caseRepository.findOverdueSummarySliceByTenant(tenantId, now, afterId, limit), CaseSummaryDto::getId,
+                    includeTotal ? () -> caseRepository.countOverdueByTenant(tenantId, now) : null);
+        }
+        return slice(cursor, size, (afterId, limit) -> inIdOrder(caseSlaTracker.getOverdueCaseIds(tenantId, afterId, limit.getPageSize()),
+                        ids -> caseRepository.findSummariesByTenantAndIds(tenantId, ids), CaseSummaryDto::getId), CaseSummaryDto::getId,
+                includeTotal ? () -> caseSlaTracker.getOverdueCount(tenantId) : null);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<CaseSummaryDto> queryCaseSummaries(CaseQueryRequest filter, String cursor, int size, boolean includeTotal) {
+        String tenantId = TenantContext.getCurrentTenant();
+        return slice(cursor, size, (afterId, limit) -> caseFilterQuery.findSummarySlice(tenantId, filter, afterId, limit.getPageSize()), CaseSummaryDto::getId,
+                includeTotal ? () -> caseFilterQuery.count(tenantId, filter) : null);
+    }
+    
+    /**
+     * Ranked keyword search over title, description, category and notes, served from the
+     * in-memory {@link CaseSearchIndex}. Only the cases of the requested page are loaded.
+     */
+    @Transactional(readOnly = true)
+    public Page<Case> searchCases(String keyword, Pageable requested) {
+        Pageable pageable = clampPage(requested);
+        String tenantId = TenantContext.getCurrentTenant();
+        if (!caseSearchIndex.isReady()) {
+            return caseRepository.findByTenantAndKeyword(tenantId, keyword, pageable);
+        }
+        CaseSearchResult result = caseSearchIndex.search(tenantId, keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        List<Long> ids = result.getHits().stream().map(CaseSearchHit::getCaseId).collect(Collectors.toList());
+        List<Case> ranked = inIdOrder(ids, hitIds -> caseRepository.findAllByTenantAndIds(tenantId, hitIds), Case::getId);
+        return new PageImpl<>(ranked, pageable, result.getTotal());
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<CaseSummaryDto> searchCaseSummaries(String keyword, Pageable requested) {
+        Pageable pageable = clampPage(requested);
+        String tenantId = TenantContext.getCurrentTenant();
+        if (!caseSearchIndex.isReady()) {
+            return caseRepository.findByTenantAndKeyword(tenantId, keyword, pageable).map(caseMapper::toSummaryDto);
+        }
+        CaseSearchResult result = caseSearchIndex.search(tenantId, keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        List<Long> ids = result.getHits().stream().map(CaseSearchHit::getCaseId).collect(Collectors.toList());
+        List<CaseSummaryDto> ranked = inIdOrder(ids, hitIds -> caseRepository.findSummariesByTenantAndIds(tenantId, hitIds), CaseSummaryDto::getId);
+        return new PageImpl<>(ranked, pageable, result.getTotal());
+    }
+    
+    /**
+     * Applies the non-null fields of {@code request}. When {@code expectedVersions} is given
+     * (from {@code If-Match}) the case must still be at one of those versions; the UPDATE itself is
+     * conditioned on the version read here, so a concurrent change in between is detected too.
+     */
+    public Case updateCase(Long id, UpdateCaseRequest request, Set<Long> expectedVersions) {
+        Case caseEntity = findForUpdate(id, expectedVersions);
+        caseMapper.updateEntityFromRequestIgnoreNull(request, caseEntity);
+        Case savedCase = flushVersioned(caseEntity, expectedVersions);
+        TransactionCallbacks.afterCommit(() -> caseSearchIndex.indexCase(savedCase));
+        recordChange(savedCase, CaseStatsKey.of(savedCase));
+        return savedCase;
+    }
+    
+    public Case updateCaseStatus(Long id, CaseStatus status, Set<Long> expectedVersions) {
+        Case caseEntity = findForUpdate(id, expectedVersions);
+        caseEntity.setStatus(status);
+        Case savedCase = flushVersioned(caseEntity, expectedVersions);
+        recordChange(savedCase, CaseStatsKey.of(savedCase));
+        return savedCase;
+    }
+    
+    public Case assignCase(Long id, String assignedTo, Set<Long> expectedVersions) {
+        Case caseEntity = findForUpdate(id, expectedVersions);
+        caseEntity.setAssignedTo(assignedTo);
+        Case savedCase = flushVersioned(caseEntity, expectedVersions);
+        recordChange(savedCase, CaseStatsKey.of(savedCase));
+        return savedCase;
     }
     
     public void deleteCase(Long id) {
         loggingService.logWarn("Deleting case: {}", id);
-        caseRepository.deleteById(id);
+        caseRepository.findById(id).ifPresent(caseEntity -> {
+            // the attachments go with the case (cascade), and so do their references to stored content
+            caseEntity.getAttachments().forEach(attachment -> contentBlobStore.release(attachment.getContentHash()));
+            caseRepository.delete(caseEntity);
+            recordChange(caseEntity, null);
+        });
+        String tenantId = TenantContext.getCurrentTenant();
+        TransactionCallbacks.afterCommit(() -> caseSearchIndex.removeCase(tenantId, id));
     }
     
     public long getCaseCount() {
@@ -112,10 +308,130 @@ public class CaseService {
         return caseRepository.countByCurrentTenantAndStatus(status);
     }
     
-    private String generateCaseNumber() {
+    @Transactional(readOnly = true)
+    public CaseStatsSummaryDto getStatsSummary() {
         String tenantId = TenantContext.getCurrentTenant();
-        String timestamp = String.valueOf(System.currentTimeMillis());
-        String random = UUID.randomUUID().toString().substring(0, 8);
-        return String.format("CASE-%s-%s-%s", tenantId.toUpperCase(), timestamp, random);
+        CaseStatsSummaryDto summary = caseStatistics.summary(tenantId);
+        summary.setOverdue(caseSlaTracker.isReady() ? caseSlaTracker.getOverdueCount(tenantId)
+                : caseRepository.countOverdueByTenant(tenantId, LocalDateTime.now()));
+        return summary;
+    }
+    
+    private Case findForUpdate(Long id, Set<Long> expectedVersions) {
+        Case caseEntity = caseRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Case", "id", id));
+        if (expectedVersions != null && !expectedVersions.contains(caseEntity.getVersion())) {
+            throw new PreconditionFailedException("Case " + id + " is at version " + caseEntity.getVersion() + ", not one of " + expectedVersions,
+                    "The case was modified by someone else. Reload it and try again.");
+        }
+        return caseEntity;
+    }
+    
+    /**
+     * The UPDATE is always {@code ... WHERE id = ? AND version = ?}. Conditional requests flush it
+     * right away so a lost race surfaces as a failed precondition; unconditional ones (bulk) leave
+     * it to the batched flush at commit, where it surfaces as a conflict.
+     */
+    private Case flushVersioned(Case caseEntity, Set<Long> expectedVersions) {
+        Long readVersion = caseEntity.getVersion();
+        if (expectedVersions == null) {
+            return caseRepository.save(caseEntity);
+        }
+        try {
+            return caseRepository.saveAndFlush(caseEntity);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new PreconditionFailedException("Case " + caseEntity.getId() + " changed after version " + readVersion, e,
+                    "The case was modified by someone else. Reload it and try again.");
+        }
+    }
+    
+    /**
+     * Reports the change of {@code caseEntity} to the dashboard counters, the SLA tracker and the
+     * change feed once the transaction commits, and publishes its domain events. {@code after} is null when the
+     * case is deleted.
+     */
+    private void recordChange(Case caseEntity, CaseStatsKey after) {
+        CaseStatsKey before = caseEntity.getCountedState();
+        caseEntity.setCountedState(after);
+        publishEvents(caseEntity, before, after);
+        String tenantId = caseEntity.getTenantId();
+        Long caseId = caseEntity.getId();
+        LocalDateTime dueDate = caseEntity.getDueDate();
+        CaseChangeType changeType = before == null ? CaseChangeType.CREATED : after == null ? CaseChangeType.DELETED : CaseChangeType.UPDATED;
+        TransactionCallbacks.afterCommit(() -> {
+            caseStatistics.apply(tenantId, before, after);
+            if (after == null) {
+                caseSlaTracker.remove(tenantId, caseId);
+            } else {
+                caseSlaTracker.update(tenantId, caseId, after.getStatus(), dueDate);
+            }
+            // mapped here, after the commit: the version is only incremented when the change is flushed
+            caseChangeHub.publish(tenantId, new CaseChange(changeType, caseId, caseEntity.getVersion(),
+                    after == null ? null : caseMapper.toSummaryDto(caseEntity)));
+        });
+    }
+    
+    /**
+     * Reports a change of the notes or attachments of {@code caseEntity}, which incremented its
+     * version, to the change feed once the transaction commits, so that subscribers get the new
+     * version as with any other update.
+     */
+    public void recordChildChange(Case caseEntity) {
+        String tenantId = caseEntity.getTenantId();
+        // mapped after the commit, which increments the version
+        TransactionCallbacks.afterCommit(() -> caseChangeHub.publish(tenantId, new CaseChange(CaseChangeType.UPDATED,
+                caseEntity.getId(), caseEntity.getVersion(), caseMapper.toSummaryDto(caseEntity))));
+    }
+    
+    /**
+     * Publishes the events of a change from {@code before} to {@code after} (null for a new or a
+     * deleted case) in the current transaction, which stores them with the change.
+     */
+    private void publishEvents(Case caseEntity, CaseStatsKey before, CaseStatsKey after) {
+        String tenantId = caseEntity.getTenantId();
+        Long caseId = caseEntity.getId();
+        if (before == null) {
+            eventPublisher.publishEvent(new CaseCreatedEvent(tenantId, caseId, caseEntity.getCaseNumber(),
+                    after.getStatus(), after.getPriority(), after.getAssignedTo()));
+            return;
+        }
+        if (after == null) {
+            eventPublisher.publishEvent(new CaseDeletedEvent(tenantId, caseId, caseEntity.getCaseNumber()));
+            return;
+        }
+        if (before.getStatus() != after.getStatus()) {
+            eventPublisher.publishEvent(new CaseStatusChangedEvent(tenantId, caseId, before.getStatus(), after.getStatus()));
+        }
+        if (!Objects.equals(before.getAssignedTo(), after.getAssignedTo())) {
+            eventPublisher.publishEvent(new CaseAssignedEvent(tenantId, caseId, before.getAssignedTo(), after.getAssignedTo()));
+        }
+    }
+    
+    /**
+     * Reads the rows for {@code ids} and returns them in the order of {@code ids}.
+     */
+    private <T> List<T> inIdOrder(List<Long> ids, Function<List<Long>, List<T>> query, Function<T, Long> idOf) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, T> rowsById = query.apply(ids).stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return ids.stream().map(rowsById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+    
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+    
+    // offset pages are held to the same maximum as cursor pages
+    private Pageable clampPage(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getPageSize() <= MAX_PAGE_SIZE) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), MAX_PAGE_SIZE, pageable.getSort());
+    }
+    
+    private <T> CursorPage<T> slice(String cursor, int size, BiFunction<Long, Pageable, List<T>> query,
+                                    Function<T, Long> idOf, LongSupplier totalSupplier) {
+        return KeysetCursor.slice(cursor, clampPageSize(size), query, idOf, totalSupplier);
     }
 } 
\ No newline at end of file
@@ -17,4 +17,11 @@ public enum CaseStatus {
     public String getDisplayName() {
         return displayName;
     }
+    
+    /**
+     * Whether work on the case has finished; closed cases are never overdue.
+     */
+    public boolean isClosed() {
+        return this == RESOLVED || this == CLOSED || this == CANCELLED;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.enterprise.ecm.cases.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+public class AttachmentUploadDto {
+    private String uploadId;
+    private String fileName;
+    private long size;
+    private long chunkSize;
+    private int chunkCount;
+    private List<Integer> receivedChunks;
+    private Instant expiresAt;
+}
@@ -0,0 +1,19 @@
+package com.enterprise.ecm.cases.dto;
+
+import com.enterprise.ecm.cases.CaseBulkService;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCaseAssignRequest {
+    @NotEmpty(message = "At least one case id is required")
+    @Size(max = CaseBulkService.MAX_ITEMS, message = "At most " + CaseBulkService.MAX_ITEMS + " cases per request")
+    private List<Long> ids;
+    
+    @NotBlank(message = "Assignee is required")
+    private String assignedTo;
+}
@@ -0,0 +1,36 @@
+package com.enterprise.ecm.cases.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one item of a bulk request; {@code index} is the item's position in the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCaseItemResult {
+    
+    public enum Outcome {
+        SUCCEEDED, FAILED, NOT_FOUND
+    }
+    
+    private int index;
+    private Long id;
+    private String caseNumber;
+    private Outcome outcome;
+    private String error;
+    
+    public static BulkCaseItemResult succeeded(int index, Long id, String caseNumber) {
+        return new BulkCaseItemResult(index, id, caseNumber, Outcome.SUCCEEDED, null);
+    }
+    
+    public static BulkCaseItemResult failed(int index, Long id, String error) {
+        return new BulkCaseItemResult(index, id, null, Outcome.FAILED, error);
+    }
+    
+    public static BulkCaseItemResult notFound(int index, Long id) {
+        return new BulkCaseItemResult(index, id, null, Outcome.NOT_FOUND, "Case not found with id: " + id);
+    }
+}
@@ -0,0 +1,25 @@
+package com.enterprise.ecm.cases.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkCaseResponse {
+    
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BulkCaseItemResult> results;
+    
+    public static BulkCaseResponse of(List<BulkCaseItemResult> results) {
+        int succeeded = (int) results.stream()
+                .filter(result -> result.getOutcome() == BulkCaseItemResult.Outcome.SUCCEEDED)
+                .count();
+        return new BulkCaseResponse(results.size(), succeeded, results.size() - succeeded, results);
+    }
+}
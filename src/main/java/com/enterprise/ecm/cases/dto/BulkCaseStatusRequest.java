@@ -0,0 +1,20 @@
+package com.enterprise.ecm.cases.dto;
+
+import com.enterprise.ecm.cases.CaseBulkService;
+import com.enterprise.ecm.cases.CaseStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkCaseStatusRequest {
+    @NotEmpty(message = "At least one case id is required")
+    @Size(max = CaseBulkService.MAX_ITEMS, message = "At most " + CaseBulkService.MAX_ITEMS + " cases per request")
+    private List<Long> ids;
+    
+    @NotNull(message = "Status is required")
+    private CaseStatus status;
+}
@@ -12,6 +12,7 @@ public class CaseAttachmentDto {
     private Long fileSize;
     private String contentType;
     private String description;
+    private String contentHash;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String createdBy;
@@ -0,0 +1,35 @@
+package com.enterprise.ecm.cases.dto;
+
+import com.enterprise.ecm.cases.CasePriority;
+import com.enterprise.ecm.cases.CaseStatus;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Filters of {@code GET /cases/query}, bound from query parameters; a case must match every
+ * filter given. Ranges include their start and exclude their end.
+ */
+@Data
+public class CaseQueryRequest {
+    private Set<CaseStatus> status;
+    private Set<CasePriority> priority;
+    private String assignedTo;
+    private String category;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime dueTo;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdFrom;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdTo;
+    
+    private String keyword;
+}
@@ -0,0 +1,24 @@
+package com.enterprise.ecm.cases.dto;
+
+import com.enterprise.ecm.cases.CasePriority;
+import com.enterprise.ecm.cases.CaseStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CaseStatsSummaryDto {
+    
+    private long total;
+    private Map<CaseStatus, Long> byStatus;
+    private Map<CasePriority, Long> byPriority;
+    private Map<String, Long> byAssignee;
+    private long unassigned;
+    private long overdue;
+    private LocalDateTime reconciledAt;
+}
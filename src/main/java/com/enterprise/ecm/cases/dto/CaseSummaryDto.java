@@ -0,0 +1,27 @@
+package com.enterprise.ecm.cases.dto;
+
+import com.enterprise.ecm.cases.CasePriority;
+import com.enterprise.ecm.cases.CaseStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight case representation for list views, selected directly by JPQL constructor
+ * expressions in {@link com.enterprise.ecm.cases.CaseRepository}. The constructor argument
+ * order must match {@code CaseRepository.SUMMARY_SELECT}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CaseSummaryDto {
+    private Long id;
+    private String caseNumber;
+    private String title;
+    private CaseStatus status;
+    private CasePriority priority;
+    private String assignedTo;
+    private LocalDateTime dueDate;
+}
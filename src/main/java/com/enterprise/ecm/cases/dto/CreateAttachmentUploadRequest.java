@@ -0,0 +1,23 @@
+package com.enterprise.ecm.cases.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class CreateAttachmentUploadRequest {
+    @NotBlank(message = "File name is required")
+    @Size(max = 255, message = "File name must not exceed 255 characters")
+    private String fileName;
+    
+    private String contentType;
+    
+    @Size(max = 500, message = "Description must not exceed 500 characters")
+    private String description;
+    
+    @NotNull(message = "Size is required")
+    @PositiveOrZero(message = "Size must not be negative")
+    private Long size;
+}
@@ -1,11 +1,13 @@
 package com.enterprise.ecm.cases.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
 public class CreateCaseNoteRequest {
     @NotBlank(message = "Content is required")
+    @Size(max = 1000, message = "Content must not exceed 1000 characters")
     private String content;
     
     private String noteType;
@@ -0,0 +1,15 @@
+package com.enterprise.ecm.cases.event;
+
+import lombok.Value;
+
+/**
+ * Published when a case is assigned to someone else, or unassigned ({@code assignedTo} null).
+ */
+@Value
+public class CaseAssignedEvent implements CaseEvent {
+    
+    String tenantId;
+    Long caseId;
+    String previousAssignee;
+    String assignedTo;
+}
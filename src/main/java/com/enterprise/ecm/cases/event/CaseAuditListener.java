@@ -0,0 +1,25 @@
+package com.enterprise.ecm.cases.event;
+
+import com.enterprise.ecm.config.DomainEventConfig;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Writes every case event to the audit log, off the request thread. An event that is not
+ * logged because the node stopped first is delivered again, so an entry may be repeated.
+ */
+@Component
+@RequiredArgsConstructor
+public class CaseAuditListener {
+    
+    private final LoggingService loggingService;
+    
+    @Async(DomainEventConfig.EXECUTOR)
+    @TransactionalEventListener
+    public void on(CaseEvent event) {
+        loggingService.logInfo("Case audit [tenant={}, case={}]: {}", event.getTenantId(), event.getCaseId(), event);
+    }
+}
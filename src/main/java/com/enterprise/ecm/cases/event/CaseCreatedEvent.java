@@ -0,0 +1,19 @@
+package com.enterprise.ecm.cases.event;
+
+import com.enterprise.ecm.cases.CasePriority;
+import com.enterprise.ecm.cases.CaseStatus;
+import lombok.Value;
+
+/**
+ * Published when a case is created.
+ */
+@Value
+public class CaseCreatedEvent implements CaseEvent {
+    
+    String tenantId;
+    Long caseId;
+    String caseNumber;
+    CaseStatus status;
+    CasePriority priority;
+    String assignedTo;
+}
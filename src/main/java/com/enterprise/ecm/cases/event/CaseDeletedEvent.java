@@ -0,0 +1,14 @@
+package com.enterprise.ecm.cases.event;
+
+import lombok.Value;
+
+/**
+ * Published when a case is deleted, with its notes and attachments.
+ */
+@Value
+public class CaseDeletedEvent implements CaseEvent {
+    
+    String tenantId;
+    Long caseId;
+    String caseNumber;
+}
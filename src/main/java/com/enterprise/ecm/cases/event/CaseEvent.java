@@ -0,0 +1,13 @@
+package com.enterprise.ecm.cases.event;
+
+/**
+ * A committed change of a case. Published from within the changing transaction, so listeners
+ * registered with {@code @TransactionalEventListener} get it from the event publication table
+ * once the change is committed, and again after a failure until they complete.
+ */
+public interface CaseEvent {
+    
+    String getTenantId();
+    
+    Long getCaseId();
+}
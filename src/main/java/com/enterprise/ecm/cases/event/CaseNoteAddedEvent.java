@@ -0,0 +1,16 @@
+package com.enterprise.ecm.cases.event;
+
+import lombok.Value;
+
+/**
+ * Published when a note is appended to the timeline of a case.
+ */
+@Value
+public class CaseNoteAddedEvent implements CaseEvent {
+    
+    String tenantId;
+    Long caseId;
+    Long noteId;
+    String noteType;
+    String createdBy;
+}
@@ -0,0 +1,16 @@
+package com.enterprise.ecm.cases.event;
+
+import com.enterprise.ecm.cases.CaseStatus;
+import lombok.Value;
+
+/**
+ * Published when the status of a case changes.
+ */
+@Value
+public class CaseStatusChangedEvent implements CaseEvent {
+    
+    String tenantId;
+    Long caseId;
+    CaseStatus previousStatus;
+    CaseStatus status;
+}
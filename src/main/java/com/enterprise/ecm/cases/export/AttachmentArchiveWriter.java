@@ -0,0 +1,118 @@
+package com.enterprise.ecm.cases.export;
+
+import com.enterprise.ecm.cases.storage.StoredContent;
+import org.springframework.http.MediaType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes attachments one entry at a time to an output stream as a ZIP archive, reading each
+ * from the attachment store as it is written. Content of an already compressed type is stored
+ * as is rather than deflated again. Only a fixed-size copy buffer is held per archive, so memory
+ * use does not depend on the size of the attachments.
+ */
+public class AttachmentArchiveWriter implements Closeable {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String DEFAULT_ENTRY_NAME = "attachment";
+    
+    private static final List<MediaType> COMPRESSED_TYPES = MediaType.parseMediaTypes(
+            "image/jpeg, image/png, image/gif, image/webp, image/avif, image/heic, video/*, audio/*, "
+                    + "application/zip, application/gzip, application/x-gzip, application/x-7z-compressed, "
+                    + "application/vnd.rar, application/x-rar-compressed, application/x-bzip2, application/x-xz, "
+                    + "application/zstd");
+    
+    // OOXML and OpenDocument files are ZIP archives themselves
+    private static final List<String> COMPRESSED_TYPE_PREFIXES = List.of(
+            "application/vnd.openxmlformats-officedocument.", "application/vnd.oasis.opendocument.");
+    
+    private final ZipOutputStream zip;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final Set<String> entryNames = new HashSet<>();
+    
+    public AttachmentArchiveWriter(OutputStream outputStream) {
+        this.zip = new ZipOutputStream(outputStream);
+    }
+    
+    /**
+     * Adds {@code content} as an entry named after {@code fileName}, made unique within the archive.
+     */
+    public void write(String fileName, String contentType, LocalDateTime modified, StoredContent content) throws IOException {
+        ZipEntry entry = new ZipEntry(entryName(fileName));
+        if (modified != null) {
+            entry.setTimeLocal(modified);
+        }
+        if (content.getEncoding() == null && isCompressed(contentType)) {
+            // a stored entry needs its CRC up front; content stored before CRC-32s were recorded has none
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.getSize());
+            entry.setCompressedSize(content.getSize());
+            entry.setCrc(content.getCrc32() != null ? content.getCrc32() : crc32(content));
+        }
+        zip.putNextEntry(entry);
+        try (InputStream in = content.openDecoded()) {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                zip.write(buffer, 0, read);
+            }
+        }
+        zip.closeEntry();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+    
+    private String entryName(String fileName) {
+        // a single path segment that is neither . nor .., so no entry is extracted outside the target directory
+        String name = fileName.replace('/', '_').replace('\\', '_').strip();
+        if (name.isEmpty() || name.equals(".") || name.equals("..")) {
+            name = DEFAULT_ENTRY_NAME;
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        // compared ignoring case, as the archive is likely extracted on a case-insensitive file system
+        for (int i = 2; !entryNames.add(name.toLowerCase(Locale.ROOT)); i++) {
+            name = base + " (" + i + ")" + extension;
+        }
+        return name;
+    }
+    
+    private long crc32(StoredContent content) throws IOException {
+        CRC32 crc = new CRC32();
+        try (InputStream in = content.openDecoded()) {
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+    
+    private static boolean isCompressed(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        if (COMPRESSED_TYPE_PREFIXES.stream().anyMatch(type::startsWith)) {
+            return true;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(type);
+            return COMPRESSED_TYPES.stream().anyMatch(compressed -> compressed.includes(mediaType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
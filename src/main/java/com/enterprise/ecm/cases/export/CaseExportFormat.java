@@ -0,0 +1,39 @@
+package com.enterprise.ecm.cases.export;
+
+import com.enterprise.ecm.shared.exception.ValidationException;
+import org.springframework.http.MediaType;
+
+/**
+ * Wire formats supported by the streaming case export.
+ */
+public enum CaseExportFormat {
+    
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+    
+    private final MediaType mediaType;
+    private final String fileExtension;
+    
+    CaseExportFormat(MediaType mediaType, String fileExtension) {
+        this.mediaType = mediaType;
+        this.fileExtension = fileExtension;
+    }
+    
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+    
+    public String getFileExtension() {
+        return fileExtension;
+    }
+    
+    public static CaseExportFormat fromParameter(String value) {
+        for (CaseExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new ValidationException("Unsupported export format: " + value,
+                "Supported export formats are ndjson and csv");
+    }
+}
@@ -0,0 +1,80 @@
+package com.enterprise.ecm.cases.export;
+
+import com.enterprise.ecm.cases.dto.CaseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes cases one row at a time to an output stream as NDJSON or CSV.
+ * Only a fixed-size write buffer is held, so memory use does not depend on the number of rows.
+ */
+public class CaseExportWriter implements Flushable {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private static final String[] CSV_HEADER = {
+            "id", "caseNumber", "title", "description", "status", "priority", "category", "assignedTo",
+            "dueDate", "resolvedDate", "createdAt", "updatedAt", "createdBy", "updatedBy", "version"
+    };
+    
+    private final CaseExportFormat format;
+    private final ObjectWriter jsonWriter;
+    private final Writer out;
+    
+    public CaseExportWriter(CaseExportFormat format, ObjectMapper objectMapper, OutputStream outputStream) {
+        this.format = format;
+        this.jsonWriter = objectMapper.writerFor(CaseDto.class);
+        this.out = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+    
+    public void writeHeader() throws IOException {
+        if (format == CaseExportFormat.CSV) {
+            writeCsvRow((Object[]) CSV_HEADER);
+        }
+    }
+    
+    public void write(CaseDto dto) throws IOException {
+        if (format == CaseExportFormat.NDJSON) {
+            out.write(jsonWriter.writeValueAsString(dto));
+            out.write('\n');
+        } else {
+            writeCsvRow(dto.getId(), dto.getCaseNumber(), dto.getTitle(), dto.getDescription(), dto.getStatus(),
+                    dto.getPriority(), dto.getCategory(), dto.getAssignedTo(), dto.getDueDate(), dto.getResolvedDate(),
+                    dto.getCreatedAt(), dto.getUpdatedAt(), dto.getCreatedBy(), dto.getUpdatedBy(), dto.getVersion());
+        }
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+    
+    private void writeCsvRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(toCsvField(values[i]));
+        }
+        out.write("\r\n");
+    }
+    
+    private static String toCsvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = String.valueOf(value);
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
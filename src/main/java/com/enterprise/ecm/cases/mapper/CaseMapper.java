@@ -2,6 +2,7 @@ package com.enterprise.ecm.cases.mapper;
 
 import com.enterprise.ecm.cases.Case;
 import com.enterprise.ecm.cases.dto.CaseDto;
+import com.enterprise.ecm.cases.dto.CaseSummaryDto;
 import com.enterprise.ecm.cases.dto.CreateCaseRequest;
 import com.enterprise.ecm.cases.dto.UpdateCaseRequest;
 import org.mapstruct.*;
@@ -43,6 +44,16 @@ public interface CaseMapper {
     
     List<CaseDto> toDtoList(List<Case> entities);
     
+    /**
+     * Maps only the scalar fields of a case, without touching the lazy notes and attachments.
+     */
+    @Named("withoutChildren")
+    @Mapping(target = "notes", ignore = true)
+    @Mapping(target = "attachments", ignore = true)
+    CaseDto toDtoWithoutChildren(Case entity);
+    
+    CaseSummaryDto toSummaryDto(Case entity);
+    
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "caseNumber", ignore = true)
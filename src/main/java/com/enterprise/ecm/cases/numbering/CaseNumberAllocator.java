@@ -0,0 +1,13 @@
+package com.enterprise.ecm.cases.numbering;
+
+/**
+ * Hands out case numbers for newly created cases. Numbers must be unique across the whole
+ * installation, since {@code cases.case_number} is unique regardless of tenant.
+ * <p>
+ * The default implementation is {@link HiLoCaseNumberAllocator}; declare another bean of this
+ * type as {@code @Primary} to replace it.
+ */
+public interface CaseNumberAllocator {
+    
+    String allocate(String tenantId);
+}
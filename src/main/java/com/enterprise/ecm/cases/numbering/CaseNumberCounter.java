@@ -0,0 +1,42 @@
+package com.enterprise.ecm.cases.numbering;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * The next case number not yet reserved by any application node, per tenant. Keyed by the
+ * upper-cased tenant id, as used in the case number prefix.
+ */
+@Entity
+@Table(name = "case_number_counters")
+public class CaseNumberCounter {
+    
+    @Id
+    @Column(name = "tenant_id")
+    private String tenantId;
+    
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+    
+    protected CaseNumberCounter() {
+    }
+    
+    public CaseNumberCounter(String tenantId, long nextValue) {
+        this.tenantId = tenantId;
+        this.nextValue = nextValue;
+    }
+    
+    public String getTenantId() {
+        return tenantId;
+    }
+    
+    public long getNextValue() {
+        return nextValue;
+    }
+    
+    public void setNextValue(long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
@@ -0,0 +1,19 @@
+package com.enterprise.ecm.cases.numbering;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CaseNumberCounterRepository extends JpaRepository<CaseNumberCounter, String> {
+    
+    // Row lock held until the reserving transaction commits, which serializes nodes reserving for the same tenant
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CaseNumberCounter c WHERE c.tenantId = :tenantId")
+    Optional<CaseNumberCounter> findForUpdate(@Param("tenantId") String tenantId);
+}
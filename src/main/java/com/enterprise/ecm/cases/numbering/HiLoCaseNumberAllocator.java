@@ -0,0 +1,111 @@
+package com.enterprise.ecm.cases.numbering;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates short, per-tenant increasing case numbers ({@code CASE-<TENANT>-<n>}).
+ * <p>
+ * Sequences are keyed by the upper-cased tenant id used in the prefix, so tenant ids that differ
+ * only in case share one sequence rather than allocating the same numbers.
+ * <p>
+ * Each node reserves blocks of {@code blockSize} numbers from the tenant's row in
+ * {@code case_number_counters} under a row lock, in a transaction of its own, and then hands
+ * them out with an atomic increment. Numbers are increasing per node; with several nodes, or
+ * after a restart, unused parts of reserved blocks leave gaps.
+ */
+@Component
+public class HiLoCaseNumberAllocator implements CaseNumberAllocator {
+    
+    private final CaseNumberCounterRepository counterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    
+    private final Map<String, TenantSequence> sequences = new ConcurrentHashMap<>();
+    
+    public HiLoCaseNumberAllocator(CaseNumberCounterRepository counterRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${cases.numbering.block-size:100}") int blockSize) {
+        this.counterRepository = counterRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Independent of the caller's transaction: a rolled back case must not give its block back
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+    
+    @Override
+    public String allocate(String tenantId) {
+        TenantSequence sequence = sequences.computeIfAbsent(tenantId.toUpperCase(Locale.ROOT), TenantSequence::new);
+        return sequence.prefix + sequence.next();
+    }
+    
+    private Block reserve(String tenantKey) {
+        try {
+            return transactionTemplate.execute(status -> reserveInTransaction(tenantKey));
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the tenant's counter row first; it exists now
+            return transactionTemplate.execute(status -> reserveInTransaction(tenantKey));
+        }
+    }
+    
+    private Block reserveInTransaction(String tenantKey) {
+        CaseNumberCounter counter = counterRepository.findForUpdate(tenantKey)
+                .orElseGet(() -> new CaseNumberCounter(tenantKey, 1));
+        long start = counter.getNextValue();
+        counter.setNextValue(start + blockSize);
+        counterRepository.saveAndFlush(counter);
+        return new Block(start, start + blockSize);
+    }
+    
+    private final class TenantSequence {
+        
+        private final String tenantKey;
+        private final String prefix;
+        private volatile Block block = Block.EXHAUSTED;
+        
+        TenantSequence(String tenantKey) {
+            this.tenantKey = tenantKey;
+            this.prefix = "CASE-" + tenantKey + "-";
+        }
+        
+        long next() {
+            while (true) {
+                Block current = block;
+                long value = current.next.getAndIncrement();
+                if (value < current.limit) {
+                    return value;
+                }
+                synchronized (this) {
+                    if (block == current) {
+                        block = reserve(tenantKey);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Numbers {@code [next, limit)} reserved by this node.
+     */
+    private static final class Block {
+        
+        static final Block EXHAUSTED = new Block(0, 0);
+        
+        final AtomicLong next;
+        final long limit;
+        
+        Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
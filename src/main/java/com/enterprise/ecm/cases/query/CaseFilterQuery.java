@@ -0,0 +1,240 @@
+package com.enterprise.ecm.cases.query;
+
+import com.enterprise.ecm.cases.Case;
+import com.enterprise.ecm.cases.CaseRepository;
+import com.enterprise.ecm.cases.dto.CaseQueryRequest;
+import com.enterprise.ecm.cases.dto.CaseSummaryDto;
+import com.enterprise.ecm.cases.search.CaseSearchIndex;
+import com.enterprise.ecm.shared.exception.ValidationException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs the combined filters of {@code GET /cases/query} as a single statement per page.
+ * <p>
+ * Only the filters given become predicates, so the statement depends on which filters are set
+ * (the shape of the request) and not on their values, which are bound as parameters. There are
+ * few shapes; the JPQL of each is built once and reused verbatim, so Hibernate parses and
+ * translates it to SQL once and serves it from its query plan cache afterwards. Slices are
+ * {@code tenant_id}-scoped keyset scans in {@code id DESC} order, which the composite
+ * {@code (tenant_id, <filtered column>, id)} indexes serve.
+ * <p>
+ * A keyword is looked up in the {@link CaseSearchIndex}, as by the search endpoint, and becomes
+ * a predicate on the ids of the matching cases, so it is matched by primary key rather than by
+ * scanning the text columns; when nothing matches, no statement is run. Only while the index is
+ * still being built is the keyword matched with {@code LIKE} on title and description instead.
+ */
+@Component
+@RequiredArgsConstructor
+public class CaseFilterQuery {
+    
+    private static final int STATUS = 1;
+    private static final int PRIORITY = 1 << 1;
+    private static final int ASSIGNED_TO = 1 << 2;
+    private static final int CATEGORY = 1 << 3;
+    private static final int DUE_FROM = 1 << 4;
+    private static final int DUE_TO = 1 << 5;
+    private static final int CREATED_FROM = 1 << 6;
+    private static final int CREATED_TO = 1 << 7;
+    private static final int KEYWORD = 1 << 8;
+    private static final int KEYWORD_IDS = 1 << 9;
+    
+    private static final char LIKE_ESCAPE = '!';
+    
+    private final EntityManager entityManager;
+    private final CaseSearchIndex caseSearchIndex;
+    
+    private final Map<Integer, Statements> statements = new ConcurrentHashMap<>();
+    
+    public List<Case> findSlice(String tenantId, CaseQueryRequest filter, long afterId, int limit) {
+        Shape shape = shapeOf(tenantId, filter);
+        if (shape.matchesNothing()) {
+            return List.of();
+        }
+        return slice(entityManager.createQuery(statementsOf(shape.flags).slice, Case.class), tenantId, filter, shape, afterId, limit);
+    }
+    
+    public List<CaseSummaryDto> findSummarySlice(String tenantId, CaseQueryRequest filter, long afterId, int limit) {
+        Shape shape = shapeOf(tenantId, filter);
+        if (shape.matchesNothing()) {
+            return List.of();
+        }
+        return slice(entityManager.createQuery(statementsOf(shape.flags).summarySlice, CaseSummaryDto.class), tenantId, filter, shape, afterId, limit);
+    }
+    
+    public long count(String tenantId, CaseQueryRequest filter) {
+        Shape shape = shapeOf(tenantId, filter);
+        if (shape.matchesNothing()) {
+            return 0;
+        }
+        TypedQuery<Long> query = entityManager.createQuery(statementsOf(shape.flags).count, Long.class);
+        bind(query, tenantId, filter, shape);
+        return query.getSingleResult();
+    }
+    
+    private <T> List<T> slice(TypedQuery<T> query, String tenantId, CaseQueryRequest filter, Shape shape, long afterId, int limit) {
+        bind(query, tenantId, filter, shape);
+        return query.setParameter("afterId", afterId).setMaxResults(limit).getResultList();
+    }
+    
+    private Statements statementsOf(int shape) {
+        return statements.computeIfAbsent(shape, Statements::new);
+    }
+    
+    private Shape shapeOf(String tenantId, CaseQueryRequest filter) {
+        int flags = flagsOf(filter);
+        if ((flags & KEYWORD) != 0 && caseSearchIndex.isReady()) {
+            return new Shape(flags & ~KEYWORD | KEYWORD_IDS, caseSearchIndex.findMatchingCaseIds(tenantId, filter.getKeyword()));
+        }
+        return new Shape(flags, null);
+    }
+    
+    private static int flagsOf(CaseQueryRequest filter) {
+        validateRange(filter.getDueFrom(), filter.getDueTo(), "due");
+        validateRange(filter.getCreatedFrom(), filter.getCreatedTo(), "created");
+        int shape = 0;
+        shape |= filter.getStatus() != null && !filter.getStatus().isEmpty() ? STATUS : 0;
+        shape |= filter.getPriority() != null && !filter.getPriority().isEmpty() ? PRIORITY : 0;
+        shape |= hasText(filter.getAssignedTo()) ? ASSIGNED_TO : 0;
+        shape |= hasText(filter.getCategory()) ? CATEGORY : 0;
+        shape |= filter.getDueFrom() != null ? DUE_FROM : 0;
+        shape |= filter.getDueTo() != null ? DUE_TO : 0;
+        shape |= filter.getCreatedFrom() != null ? CREATED_FROM : 0;
+        shape |= filter.getCreatedTo() != null ? CREATED_TO : 0;
+        shape |= hasText(filter.getKeyword()) ? KEYWORD : 0;
+        return shape;
+    }
+    
+    private static String whereClause(int shape) {
+        StringBuilder where = new StringBuilder("WHERE c.tenantId = :tenantId");
+        if ((shape & STATUS) != 0) {
+            where.append(" AND c.status IN :statuses");
+        }
+        if ((shape & PRIORITY) != 0) {
+            where.append(" AND c.priority IN :priorities");
+        }
+        if ((shape & ASSIGNED_TO) != 0) {
+            where.append(" AND c.assignedTo = :assignedTo");
+        }
+        if ((shape & CATEGORY) != 0) {
+            where.append(" AND c.category = :category");
+        }
+        if ((shape & DUE_FROM) != 0) {
+            where.append(" AND c.dueDate >= :dueFrom");
+        }
+        if ((shape & DUE_TO) != 0) {
+            where.append(" AND c.dueDate < :dueTo");
+        }
+        if ((shape & CREATED_FROM) != 0) {
+            where.append(" AND c.createdAt >= :createdFrom");
+        }
+        if ((shape & CREATED_TO) != 0) {
+            where.append(" AND c.createdAt < :createdTo");
+        }
+        if ((shape & KEYWORD) != 0) {
+            where.append(" AND (LOWER(c.title) LIKE :keyword ESCAPE '").append(LIKE_ESCAPE)
+                    .append("' OR LOWER(c.description) LIKE :keyword ESCAPE '").append(LIKE_ESCAPE).append("')");
+        }
+        if ((shape & KEYWORD_IDS) != 0) {
+            where.append(" AND c.id IN :keywordIds");
+        }
+        return where.append(' ').toString();
+    }
+    
+    private static void bind(TypedQuery<?> query, String tenantId, CaseQueryRequest filter, Shape filterShape) {
+        int shape = filterShape.flags;
+        query.setParameter("tenantId", tenantId);
+        if ((shape & STATUS) != 0) {
+            query.setParameter("statuses", filter.getStatus());
+        }
+        if ((shape & PRIORITY) != 0) {
+            query.setParameter("priorities", filter.getPriority());
+        }
+        if ((shape & ASSIGNED_TO) != 0) {
+            query.setParameter("assignedTo", filter.getAssignedTo());
+        }
+        if ((shape & CATEGORY) != 0) {
+            query.setParameter("category", filter.getCategory());
+        }
+        if ((shape & DUE_FROM) != 0) {
+            query.setParameter("dueFrom", filter.getDueFrom());
+        }
+        if ((shape & DUE_TO) != 0) {
+            query.setParameter("dueTo", filter.getDueTo());
+        }
+        if ((shape & CREATED_FROM) != 0) {
+            query.setParameter("createdFrom", filter.getCreatedFrom());
+        }
+        if ((shape & CREATED_TO) != 0) {
+            query.setParameter("createdTo", filter.getCreatedTo());
+        }
+        if ((shape & KEYWORD) != 0) {
+            query.setParameter("keyword", "%" + escapeLike(filter.getKeyword().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+        if ((shape & KEYWORD_IDS) != 0) {
+            query.setParameter("keywordIds", filterShape.keywordIds);
+        }
+    }
+    
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+    
+    private static void validateRange(LocalDateTime from, LocalDateTime to, String name) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ValidationException("Empty " + name + " range: " + from + " to " + to,
+                    "The start of the " + name + " date range must be before its end");
+        }
+    }
+    
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+    
+    /**
+     * The filters set on a request, and the ids of the cases matching its keyword when those
+     * come from the search index.
+     */
+    private static class Shape {
+        final int flags;
+        final Set<Long> keywordIds;
+        
+        Shape(int flags, Set<Long> keywordIds) {
+            this.flags = flags;
+            this.keywordIds = keywordIds;
+        }
+        
+        boolean matchesNothing() {
+            return keywordIds != null && keywordIds.isEmpty();
+        }
+    }
+    
+    private static class Statements {
+        final String slice;
+        final String summarySlice;
+        final String count;
+        
+        Statements(int shape) {
+            String where = whereClause(shape);
+            this.slice = "SELECT c FROM Case c " + where + "AND c.id < :afterId ORDER BY c.id DESC";
+            this.summarySlice = CaseRepository.SUMMARY_SELECT + where + "AND c.id < :afterId ORDER BY c.id DESC";
+            this.count = "SELECT COUNT(c) FROM Case c " + where;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.enterprise.ecm.cases.search;
+
+import lombok.Value;
+
+@Value
+public class CaseSearchHit {
+    long caseId;
+    double score;
+}
@@ -0,0 +1,321 @@
+package com.enterprise.ecm.cases.search;
+
+import com.enterprise.ecm.cases.Case;
+import com.enterprise.ecm.cases.CaseNote;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over case title, description, category and note content.
+ * Each tenant has its own term dictionary, so a search can never see another tenant's cases.
+ * Results are ranked by field-weighted term frequency times inverse document frequency;
+ * query terms of three or more characters also match as prefixes, at a reduced weight.
+ * <p>
+ * While {@link CaseSearchIndexLoader} builds the index, committed changes are not applied but
+ * buffered by case id; the loader then re-reads those cases, so that a change is neither counted
+ * twice nor overwritten by an older row read before it.
+ */
+@Component
+public class CaseSearchIndex {
+    
+    static final int TITLE_WEIGHT = 3;
+    static final int CATEGORY_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+    static final int NOTE_WEIGHT = 1;
+    
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final double PREFIX_MATCH_BOOST = 0.5;
+    
+    private static final Comparator<CaseSearchHit> RANKING = Comparator
+            .comparingDouble(CaseSearchHit::getScore).reversed()
+            .thenComparing(Comparator.comparingLong(CaseSearchHit::getCaseId).reversed());
+    
+    private final ConcurrentHashMap<String, TenantIndex> tenants = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    
+    // Changes take the read lock to check loading, starting and finishing the load the write lock
+    private final ReadWriteLock loadingLock = new ReentrantReadWriteLock();
+    private boolean loading;
+    private final ConcurrentMap<Long, String> changedWhileLoading = new ConcurrentHashMap<>();
+    
+    /**
+     * Whether the index has been fully built from the database and can serve searches.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+    
+    /**
+     * Starts buffering the changes of cases, until {@link #finishLoading} finds none left.
+     */
+    void startLoading() {
+        loadingLock.writeLock().lock();
+        try {
+            loading = true;
+        } finally {
+            loadingLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the cases changed since the last call, by id with their tenant, for the loader to
+     * re-read. When there are none, ends the load and marks the index ready.
+     */
+    Map<Long, String> finishLoading() {
+        loadingLock.writeLock().lock();
+        try {
+            Map<Long, String> changed = new HashMap<>(changedWhileLoading);
+            changedWhileLoading.clear();
+            if (changed.isEmpty()) {
+                loading = false;
+                ready = true;
+            }
+            return changed;
+        } finally {
+            loadingLock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Adds or replaces the title, description and category terms of a case. Note terms already
+     * indexed for the case are kept.
+     */
+    public void indexCase(Case caseEntity) {
+        loadingLock.readLock().lock();
+        try {
+            if (!deferWhileLoading(caseEntity.getTenantId(), caseEntity.getId())) {
+                loadCase(caseEntity);
+            }
+        } finally {
+            loadingLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Adds the terms of a newly saved note to its case.
+     */
+    public void indexNote(CaseNote note) {
+        loadingLock.readLock().lock();
+        try {
+            if (!deferWhileLoading(note.getTenantId(), note.getCaseEntity().getId())) {
+                loadNote(note);
+            }
+        } finally {
+            loadingLock.readLock().unlock();
+        }
+    }
+    
+    public void removeCase(String tenantId, Long caseId) {
+        loadingLock.readLock().lock();
+        try {
+            if (!deferWhileLoading(tenantId, caseId)) {
+                unloadCase(tenantId, caseId);
+            }
+        } finally {
+            loadingLock.readLock().unlock();
+        }
+    }
+    
+    void loadCase(Case caseEntity) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, caseEntity.getTitle(), TITLE_WEIGHT);
+        addTerms(terms, caseEntity.getCategory(), CATEGORY_WEIGHT);
+        addTerms(terms, caseEntity.getDescription(), DESCRIPTION_WEIGHT);
+        
+        TenantIndex index = tenantIndex(caseEntity.getTenantId());
+        long caseId = caseEntity.getId();
+        index.lock.writeLock().lock();
+        try {
+            Document document = index.documents.computeIfAbsent(caseId, id -> new Document());
+            index.adjust(caseId, document.caseTerms, -1);
+            document.caseTerms = terms;
+            index.adjust(caseId, terms, 1);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+    
+    void loadNote(CaseNote note) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, note.getContent(), NOTE_WEIGHT);
+        
+        TenantIndex index = tenantIndex(note.getTenantId());
+        long caseId = note.getCaseEntity().getId();
+        index.lock.writeLock().lock();
+        try {
+            Document document = index.documents.computeIfAbsent(caseId, id -> new Document());
+            terms.forEach((term, weight) -> document.noteTerms.merge(term, weight, Integer::sum));
+            index.adjust(caseId, terms, 1);
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Replaces everything indexed for a case with the case and all its notes, as re-read by the
+     * loader.
+     */
+    void reloadCase(Case caseEntity, List<CaseNote> notes) {
+        unloadCase(caseEntity.getTenantId(), caseEntity.getId());
+        loadCase(caseEntity);
+        notes.forEach(this::loadNote);
+    }
+    
+    void unloadCase(String tenantId, Long caseId) {
+        TenantIndex index = tenants.get(tenantId);
+        if (index == null) {
+            return;
+        }
+        index.lock.writeLock().lock();
+        try {
+            Document document = index.documents.remove(caseId);
+            if (document != null) {
+                index.adjust(caseId, document.caseTerms, -1);
+                index.adjust(caseId, document.noteTerms, -1);
+            }
+        } finally {
+            index.lock.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Returns the ranked hits for {@code query} in the given tenant. A case must match every
+     * query term to be returned.
+     */
+    public CaseSearchResult search(String tenantId, String query, int offset, int limit) {
+        Map<Long, Double> scores = score(tenantId, query);
+        List<CaseSearchHit> hits = new ArrayList<>(scores.size());
+        scores.forEach((caseId, score) -> hits.add(new CaseSearchHit(caseId, score)));
+        hits.sort(RANKING);
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(from + limit, hits.size());
+        return new CaseSearchResult(List.copyOf(hits.subList(from, to)), hits.size());
+    }
+    
+    /**
+     * The ids of the cases of the tenant matching every term of {@code query}, unranked, for
+     * combining a keyword with other filters in a query.
+     */
+    public Set<Long> findMatchingCaseIds(String tenantId, String query) {
+        return score(tenantId, query).keySet();
+    }
+    
+    private Map<Long, Double> score(String tenantId, String query) {
+        Set<String> queryTerms = new LinkedHashSet<>(CaseTextTokenizer.tokenize(query));
+        TenantIndex index = tenants.get(tenantId);
+        if (queryTerms.isEmpty() || index == null) {
+            return Map.of();
+        }
+        
+        Map<Long, Double> scores = null;
+        index.lock.readLock().lock();
+        try {
+            int documentCount = index.documents.size();
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = index.score(queryTerm, documentCount);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    retainAndSum(scores, termScores);
+                }
+                if (scores.isEmpty()) {
+                    break;
+                }
+            }
+        } finally {
+            index.lock.readLock().unlock();
+        }
+        return scores;
+    }
+    
+    void clear() {
+        tenants.clear();
+        ready = false;
+    }
+    
+    private boolean deferWhileLoading(String tenantId, Long caseId) {
+        if (loading) {
+            changedWhileLoading.put(caseId, tenantId);
+        }
+        return loading;
+    }
+    
+    private TenantIndex tenantIndex(String tenantId) {
+        return tenants.computeIfAbsent(tenantId, id -> new TenantIndex());
+    }
+    
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : CaseTextTokenizer.tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+    
+    private static void retainAndSum(Map<Long, Double> scores, Map<Long, Double> termScores) {
+        Iterator<Map.Entry<Long, Double>> iterator = scores.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Double> entry = iterator.next();
+            Double termScore = termScores.get(entry.getKey());
+            if (termScore == null) {
+                iterator.remove();
+            } else {
+                entry.setValue(entry.getValue() + termScore);
+            }
+        }
+    }
+    
+    private static final class TenantIndex {
+        
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final NavigableMap<String, Postings> postings = new TreeMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+        
+        private void adjust(long caseId, Map<String, Integer> terms, int sign) {
+            terms.forEach((term, weight) -> {
+                Postings list = postings.computeIfAbsent(term, t -> new Postings());
+                list.adjust(caseId, sign * weight);
+                if (list.size() == 0) {
+                    postings.remove(term);
+                }
+            });
+        }
+        
+        private Map<Long, Double> score(String queryTerm, int documentCount) {
+            Map<String, Postings> matches = queryTerm.length() >= MIN_PREFIX_LENGTH
+                    ? postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)
+                    : exactMatch(queryTerm);
+            Map<Long, Double> termScores = new HashMap<>();
+            matches.forEach((term, list) -> {
+                double idf = Math.log(1.0 + (double) documentCount / list.size());
+                double boost = term.equals(queryTerm) ? 1.0 : PREFIX_MATCH_BOOST;
+                for (int i = 0; i < list.size(); i++) {
+                    termScores.merge(list.caseIdAt(i), list.weightAt(i) * idf * boost, Double::sum);
+                }
+            });
+            return termScores;
+        }
+        
+        private Map<String, Postings> exactMatch(String queryTerm) {
+            Postings list = postings.get(queryTerm);
+            return list != null ? Map.of(queryTerm, list) : Map.of();
+        }
+    }
+    
+    private static final class Document {
+        private Map<String, Integer> caseTerms = Map.of();
+        private final Map<String, Integer> noteTerms = new HashMap<>();
+    }
+}
@@ -0,0 +1,73 @@
+package com.enterprise.ecm.cases.search;
+
+import com.enterprise.ecm.cases.Case;
+import com.enterprise.ecm.cases.CaseNote;
+import com.enterprise.ecm.cases.CaseNoteRepository;
+import com.enterprise.ecm.cases.CaseRepository;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Builds the {@link CaseSearchIndex} from the database once the application has started.
+ * Until it finishes, case search falls back to a database query. Cases changed while it reads
+ * are re-read once the scan is done, until none changed since the previous pass.
+ */
+@Component
+@RequiredArgsConstructor
+public class CaseSearchIndexLoader {
+    
+    private final CaseSearchIndex caseSearchIndex;
+    private final CaseRepository caseRepository;
+    private final CaseNoteRepository caseNoteRepository;
+    private final EntityManager entityManager;
+    private final LoggingService loggingService;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        long cases = 0;
+        long notes = 0;
+        
+        caseSearchIndex.startLoading();
+        try (Stream<Case> stream = caseRepository.streamAll()) {
+            Iterator<Case> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                caseSearchIndex.loadCase(iterator.next());
+                if (++cases % CaseRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        try (Stream<CaseNote> stream = caseNoteRepository.streamAll()) {
+            Iterator<CaseNote> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                caseSearchIndex.loadNote(iterator.next());
+                if (++notes % CaseRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        
+        long reloaded = 0;
+        Map<Long, String> changed;
+        while (!(changed = caseSearchIndex.finishLoading()).isEmpty()) {
+            entityManager.clear();
+            changed.forEach((caseId, tenantId) -> caseRepository.findById(caseId).ifPresentOrElse(
+                    caseEntity -> caseSearchIndex.reloadCase(caseEntity, caseNoteRepository.findAllByCase(caseId)),
+                    () -> caseSearchIndex.unloadCase(tenantId, caseId)));
+            reloaded += changed.size();
+        }
+        loggingService.logInfo("Case search index built from {} cases and {} notes in {}ms, {} cases re-read after changing",
+                cases, notes, System.currentTimeMillis() - startTime, reloaded);
+    }
+}
@@ -0,0 +1,14 @@
+package com.enterprise.ecm.cases.search;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of ranked search hits together with the total number of matching cases.
+ */
+@Value
+public class CaseSearchResult {
+    List<CaseSearchHit> hits;
+    long total;
+}
@@ -0,0 +1,61 @@
+package com.enterprise.ecm.cases.search;
+
+import java.util.Arrays;
+
+/**
+ * Posting list of a single term: case ids sorted ascending with a parallel array of weighted
+ * term frequencies. Primitive arrays keep the per-entry overhead to 12 bytes. Not thread-safe;
+ * guarded by the owning {@link CaseSearchIndex} tenant lock.
+ */
+final class Postings {
+    
+    private long[] caseIds = new long[4];
+    private int[] weights = new int[4];
+    private int size;
+    
+    int size() {
+        return size;
+    }
+    
+    long caseIdAt(int index) {
+        return caseIds[index];
+    }
+    
+    int weightAt(int index) {
+        return weights[index];
+    }
+    
+    /**
+     * Adds {@code delta} to the weight of {@code caseId}, inserting it if absent and dropping
+     * it once its weight reaches zero.
+     */
+    void adjust(long caseId, int delta) {
+        int index = Arrays.binarySearch(caseIds, 0, size, caseId);
+        if (index >= 0) {
+            weights[index] += delta;
+            if (weights[index] <= 0) {
+                removeAt(index);
+            }
+            return;
+        }
+        if (delta <= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == caseIds.length) {
+            caseIds = Arrays.copyOf(caseIds, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        System.arraycopy(caseIds, insertAt, caseIds, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        caseIds[insertAt] = caseId;
+        weights[insertAt] = delta;
+        size++;
+    }
+    
+    private void removeAt(int index) {
+        System.arraycopy(caseIds, index + 1, caseIds, index, size - index - 1);
+        System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+        size--;
+    }
+}
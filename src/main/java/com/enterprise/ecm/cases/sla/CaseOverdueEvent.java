@@ -0,0 +1,16 @@
+package com.enterprise.ecm.cases.sla;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published once when an open case passes its due date.
+ */
+@Value
+public class CaseOverdueEvent {
+    
+    String tenantId;
+    Long caseId;
+    LocalDateTime dueDate;
+}
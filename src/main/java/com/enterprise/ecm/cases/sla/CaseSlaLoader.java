@@ -0,0 +1,46 @@
+package com.enterprise.ecm.cases.sla;
+
+import com.enterprise.ecm.cases.CaseRepository;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Loads the due dates of all open cases into the {@link CaseSlaTracker} once the application has
+ * started. Until it finishes, the overdue endpoints fall back to a database query.
+ */
+@Component
+@RequiredArgsConstructor
+public class CaseSlaLoader {
+    
+    private final CaseSlaTracker caseSlaTracker;
+    private final CaseRepository caseRepository;
+    private final LoggingService loggingService;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        long cases = 0;
+        
+        try (Stream<SlaCaseRow> stream = caseRepository.streamOpenWithDueDate()) {
+            Iterator<SlaCaseRow> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                caseSlaTracker.load(iterator.next(), now);
+                cases++;
+            }
+        }
+        
+        caseSlaTracker.markReady();
+        loggingService.logInfo("SLA tracker loaded {} open cases with a due date in {}ms",
+                cases, System.currentTimeMillis() - startTime);
+    }
+}
@@ -0,0 +1,263 @@
+package com.enterprise.ecm.cases.sla;
+
+import com.enterprise.ecm.cases.CaseStatus;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Tracks the due dates of open cases in memory and publishes {@link CaseDueSoonEvent} and
+ * {@link CaseOverdueEvent} once per case and due date.
+ * <p>
+ * Upcoming deadlines sit in a priority queue ordered by firing time, which a scheduled tick
+ * drains, so the cost of a tick is proportional to the timers that fire. Changing a due date or
+ * closing a case leaves its queued timers behind as stale entries that are skipped when they
+ * come up, and purged once they outnumber the live ones. The overdue cases of each tenant are
+ * kept in id order, which serves the keyset-paged overdue endpoint without a query.
+ * <p>
+ * The tracker is loaded from the database by {@link CaseSlaLoader} at startup; deadlines that
+ * passed before that are marked without publishing events. Each node keeps its own tracker, so
+ * with several nodes every node publishes the events.
+ */
+@Component
+public class CaseSlaTracker {
+    
+    private static final int MIN_STALE_TIMERS_TO_PURGE = 1024;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    private final LoggingService loggingService;
+    private final Duration dueSoonWindow;
+    
+    private final Map<String, TenantSla> tenants = new ConcurrentHashMap<>();
+    
+    // Mutable state below is guarded by this
+    private final PriorityQueue<Timer> timers = new PriorityQueue<>(Comparator.comparing(timer -> timer.fireAt));
+    private int staleTimers;
+    private final Set<String> changedWhileLoading = new HashSet<>();
+    private volatile boolean ready;
+    
+    public CaseSlaTracker(ApplicationEventPublisher eventPublisher, LoggingService loggingService,
+                          @Value("${cases.sla.due-soon-window:PT24H}") Duration dueSoonWindow) {
+        this.eventPublisher = eventPublisher;
+        this.loggingService = loggingService;
+        this.dueSoonWindow = dueSoonWindow;
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public synchronized void markReady() {
+        changedWhileLoading.clear();
+        ready = true;
+    }
+    
+    /**
+     * Applies a committed change of a case. Closed cases and cases without a due date are dropped.
+     */
+    public void update(String tenantId, Long caseId, CaseStatus status, LocalDateTime dueDate) {
+        List<Object> events = new ArrayList<>();
+        synchronized (this) {
+            if (!ready) {
+                changedWhileLoading.add(tenantId + ":" + caseId);
+            }
+            apply(tenantId, caseId, status, dueDate, LocalDateTime.now(), events);
+        }
+        events.forEach(eventPublisher::publishEvent);
+    }
+    
+    public void remove(String tenantId, Long caseId) {
+        update(tenantId, caseId, null, null);
+    }
+    
+    /**
+     * Adds a case read at startup, unless a change of that case was applied while loading.
+     */
+    synchronized void load(SlaCaseRow row, LocalDateTime now) {
+        if (!changedWhileLoading.contains(row.getTenantId() + ":" + row.getCaseId())) {
+            apply(row.getTenantId(), row.getCaseId(), CaseStatus.OPEN, row.getDueDate(), now, null);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${cases.sla.tick-interval:PT1S}")
+    public void fireDueTimers() {
+        fireDueTimers(LocalDateTime.now());
+    }
+    
+    void fireDueTimers(LocalDateTime now) {
+        List<Object> events = new ArrayList<>();
+        synchronized (this) {
+            while (!timers.isEmpty() && !timers.peek().fireAt.isAfter(now)) {
+                Timer timer = timers.poll();
+                if (isStale(timer)) {
+                    staleTimers--;
+                    continue;
+                }
+                timer.entry.pendingTimers--;
+                if (timer.overdue) {
+                    markOverdue(timer.entry, events);
+                } else {
+                    markDueSoon(timer.entry, events);
+                }
+            }
+        }
+        events.forEach(eventPublisher::publishEvent);
+    }
+    
+    /**
+     * Ids of the tenant's overdue open cases below {@code afterId}, highest first.
+     */
+    public List<Long> getOverdueCaseIds(String tenantId, long afterId, int limit) {
+        TenantSla tenant = tenants.get(tenantId);
+        if (tenant == null) {
+            return Collections.emptyList();
+        }
+        return tenant.overdue.tailSet(afterId, false).stream().limit(limit).collect(Collectors.toList());
+    }
+    
+    public long getOverdueCount(String tenantId) {
+        TenantSla tenant = tenants.get(tenantId);
+        return tenant == null ? 0 : tenant.overdueCount;
+    }
+    
+    private void apply(String tenantId, Long caseId, CaseStatus status, LocalDateTime dueDate,
+                       LocalDateTime now, List<Object> events) {
+        TenantSla tenant = tenants.computeIfAbsent(tenantId, id -> new TenantSla());
+        SlaEntry existing = tenant.entries.get(caseId);
+        boolean tracked = status != null && !status.isClosed() && dueDate != null;
+        if (existing != null && tracked && existing.dueDate.equals(dueDate)) {
+            return;
+        }
+        if (existing != null) {
+            tenant.entries.remove(caseId);
+            tenant.removeOverdue(caseId);
+            discardTimers(existing);
+        }
+        if (!tracked) {
+            return;
+        }
+        
+        SlaEntry entry = new SlaEntry(tenantId, caseId, dueDate, tenant);
+        tenant.entries.put(caseId, entry);
+        LocalDateTime dueSoonAt = dueDate.minus(dueSoonWindow);
+        if (!dueDate.isAfter(now)) {
+            markOverdue(entry, events);
+            return;
+        }
+        if (!dueSoonAt.isAfter(now)) {
+            markDueSoon(entry, events);
+        } else {
+            schedule(new Timer(dueSoonAt, entry, false));
+        }
+        schedule(new Timer(dueDate, entry, true));
+    }
+    
+    private void markDueSoon(SlaEntry entry, List<Object> events) {
+        if (entry.dueSoonFired) {
+            return;
+        }
+        entry.dueSoonFired = true;
+        if (events != null) {
+            events.add(new CaseDueSoonEvent(entry.tenantId, entry.caseId, entry.dueDate));
+        }
+    }
+    
+    private void markOverdue(SlaEntry entry, List<Object> events) {
+        if (entry.overdueFired) {
+            return;
+        }
+        entry.dueSoonFired = true;
+        entry.overdueFired = true;
+        entry.tenant.addOverdue(entry.caseId);
+        if (events != null) {
+            loggingService.logDebug("Case {} of tenant {} is overdue (due {})", entry.caseId, entry.tenantId, entry.dueDate);
+            events.add(new CaseOverdueEvent(entry.tenantId, entry.caseId, entry.dueDate));
+        }
+    }
+    
+    private void schedule(Timer timer) {
+        timer.entry.pendingTimers++;
+        timers.add(timer);
+    }
+    
+    private void discardTimers(SlaEntry entry) {
+        staleTimers += entry.pendingTimers;
+        entry.pendingTimers = 0;
+        if (staleTimers >= MIN_STALE_TIMERS_TO_PURGE && staleTimers > timers.size() / 2) {
+            timers.removeIf(this::isStale);
+            staleTimers = 0;
+        }
+    }
+    
+    private boolean isStale(Timer timer) {
+        return timer.entry.tenant.entries.get(timer.entry.caseId) != timer.entry;
+    }
+    
+    private static final class TenantSla {
+        
+        private final Map<Long, SlaEntry> entries = new HashMap<>();
+        private final NavigableSet<Long> overdue = new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+        private volatile long overdueCount;
+        
+        void addOverdue(Long caseId) {
+            if (overdue.add(caseId)) {
+                overdueCount++;
+            }
+        }
+        
+        void removeOverdue(Long caseId) {
+            if (overdue.remove(caseId)) {
+                overdueCount--;
+            }
+        }
+    }
+    
+    private static final class SlaEntry {
+        
+        private final String tenantId;
+        private final Long caseId;
+        private final LocalDateTime dueDate;
+        private final TenantSla tenant;
+        private boolean dueSoonFired;
+        private boolean overdueFired;
+        private int pendingTimers;
+        
+        SlaEntry(String tenantId, Long caseId, LocalDateTime dueDate, TenantSla tenant) {
+            this.tenantId = tenantId;
+            this.caseId = caseId;
+            this.dueDate = dueDate;
+            this.tenant = tenant;
+        }
+    }
+    
+    private static final class Timer {
+        
+        private final LocalDateTime fireAt;
+        private final SlaEntry entry;
+        private final boolean overdue;
+        
+        Timer(LocalDateTime fireAt, SlaEntry entry, boolean overdue) {
+            this.fireAt = fireAt;
+            this.entry = entry;
+            this.overdue = overdue;
+        }
+    }
+}
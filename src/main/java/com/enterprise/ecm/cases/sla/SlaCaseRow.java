@@ -0,0 +1,16 @@
+package com.enterprise.ecm.cases.sla;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * An open case with a due date, as read when loading the {@link CaseSlaTracker}.
+ */
+@Value
+public class SlaCaseRow {
+    
+    String tenantId;
+    Long caseId;
+    LocalDateTime dueDate;
+}
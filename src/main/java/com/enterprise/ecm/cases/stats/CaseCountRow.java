@@ -0,0 +1,17 @@
+package com.enterprise.ecm.cases.stats;
+
+import com.enterprise.ecm.cases.CasePriority;
+import com.enterprise.ecm.cases.CaseStatus;
+import lombok.Value;
+
+/**
+ * One row of the {@code GROUP BY status, priority, assignedTo} reconciliation query.
+ */
+@Value
+public class CaseCountRow {
+    
+    CaseStatus status;
+    CasePriority priority;
+    String assignedTo;
+    Long count;
+}
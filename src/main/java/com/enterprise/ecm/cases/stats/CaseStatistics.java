@@ -0,0 +1,150 @@
+package com.enterprise.ecm.cases.stats;
+
+import com.enterprise.ecm.cases.CasePriority;
+import com.enterprise.ecm.cases.CaseRepository;
+import com.enterprise.ecm.cases.CaseStatus;
+import com.enterprise.ecm.cases.dto.CaseStatsSummaryDto;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-tenant case counters for the dashboard, kept in memory so that polling the summary does
+ * not touch the database.
+ * <p>
+ * A tenant's counters are loaded with a {@code GROUP BY} query on its first summary request,
+ * then maintained from the deltas {@code CaseService} reports after each commit, and periodically
+ * reloaded so that changes made outside the service (or lost to a race with a reload) heal.
+ */
+@Component
+@RequiredArgsConstructor
+public class CaseStatistics {
+    
+    private final CaseRepository caseRepository;
+    private final LoggingService loggingService;
+    
+    private final Map<String, TenantCounters> tenants = new ConcurrentHashMap<>();
+    
+    /**
+     * Applies the change of a single case. {@code before} is null for a created case and
+     * {@code after} is null for a deleted one. Tenants that have not been loaded yet are skipped;
+     * their first load reads the committed state anyway.
+     */
+    public void apply(String tenantId, CaseStatsKey before, CaseStatsKey after) {
+        TenantCounters counters = tenants.get(tenantId);
+        if (counters == null || Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null) {
+            counters.add(before, -1);
+        }
+        if (after != null) {
+            counters.add(after, 1);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public CaseStatsSummaryDto summary(String tenantId) {
+        TenantCounters counters = tenants.get(tenantId);
+        if (counters == null) {
+            counters = load(tenantId);
+            TenantCounters existing = tenants.putIfAbsent(tenantId, counters);
+            if (existing != null) {
+                counters = existing;
+            }
+        }
+        return counters.snapshot();
+    }
+    
+    @Scheduled(initialDelayString = "${cases.stats.reconcile-interval:PT5M}",
+               fixedDelayString = "${cases.stats.reconcile-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        for (String tenantId : tenants.keySet()) {
+            TenantCounters previous = tenants.get(tenantId);
+            TenantCounters reloaded = load(tenantId);
+            if (previous != null && previous.total.sum() != reloaded.total.sum()) {
+                loggingService.logWarn("Case statistics for tenant {} drifted: {} counted, {} stored",
+                        tenantId, previous.total.sum(), reloaded.total.sum());
+            }
+            tenants.put(tenantId, reloaded);
+        }
+    }
+    
+    public void clear() {
+        tenants.clear();
+    }
+    
+    private TenantCounters load(String tenantId) {
+        TenantCounters counters = new TenantCounters(LocalDateTime.now());
+        for (CaseCountRow row : caseRepository.countGroupedByTenant(tenantId)) {
+            counters.add(new CaseStatsKey(row.getStatus(), row.getPriority(), row.getAssignedTo()), row.getCount());
+        }
+        return counters;
+    }
+    
+    private static final class TenantCounters {
+        
+        private final LocalDateTime reconciledAt;
+        private final LongAdder total = new LongAdder();
+        private final LongAdder unassigned = new LongAdder();
+        private final Map<CaseStatus, LongAdder> byStatus = new EnumMap<>(CaseStatus.class);
+        private final Map<CasePriority, LongAdder> byPriority = new EnumMap<>(CasePriority.class);
+        private final Map<String, LongAdder> byAssignee = new ConcurrentHashMap<>();
+        
+        TenantCounters(LocalDateTime reconciledAt) {
+            this.reconciledAt = reconciledAt;
+            // Populated up front so the enum maps are never structurally modified after publication
+            for (CaseStatus status : CaseStatus.values()) {
+                byStatus.put(status, new LongAdder());
+            }
+            for (CasePriority priority : CasePriority.values()) {
+                byPriority.put(priority, new LongAdder());
+            }
+        }
+        
+        void add(CaseStatsKey key, long delta) {
+            total.add(delta);
+            if (key.getStatus() != null) {
+                byStatus.get(key.getStatus()).add(delta);
+            }
+            if (key.getPriority() != null) {
+                byPriority.get(key.getPriority()).add(delta);
+            }
+            if (key.getAssignedTo() == null) {
+                unassigned.add(delta);
+            } else {
+                byAssignee.computeIfAbsent(key.getAssignedTo(), assignee -> new LongAdder()).add(delta);
+            }
+        }
+        
+        /**
+         * The overdue count is not kept here; it comes from the SLA tracker.
+         */
+        CaseStatsSummaryDto snapshot() {
+            Map<CaseStatus, Long> statuses = new EnumMap<>(CaseStatus.class);
+            byStatus.forEach((status, count) -> statuses.put(status, count.sum()));
+            Map<CasePriority, Long> priorities = new EnumMap<>(CasePriority.class);
+            byPriority.forEach((priority, count) -> priorities.put(priority, count.sum()));
+            Map<String, Long> assignees = new TreeMap<>();
+            byAssignee.forEach((assignee, count) -> {
+                long sum = count.sum();
+                if (sum > 0) {
+                    assignees.put(assignee, sum);
+                }
+            });
+            return new CaseStatsSummaryDto(total.sum(), statuses, priorities, assignees,
+                    unassigned.sum(), 0, reconciledAt);
+        }
+    }
+}
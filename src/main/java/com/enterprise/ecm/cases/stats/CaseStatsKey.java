@@ -0,0 +1,21 @@
+package com.enterprise.ecm.cases.stats;
+
+import com.enterprise.ecm.cases.Case;
+import com.enterprise.ecm.cases.CasePriority;
+import com.enterprise.ecm.cases.CaseStatus;
+import lombok.Value;
+
+/**
+ * The attributes of a case that the dashboard counters are keyed on.
+ */
+@Value
+public class CaseStatsKey {
+    
+    CaseStatus status;
+    CasePriority priority;
+    String assignedTo;
+    
+    public static CaseStatsKey of(Case caseEntity) {
+        return new CaseStatsKey(caseEntity.getStatus(), caseEntity.getPriority(), caseEntity.getAssignedTo());
+    }
+}
@@ -0,0 +1,83 @@
+package com.enterprise.ecm.cases.storage;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored file in the {@link ContentBlobStore}, keyed by the SHA-256 of its content, with the
+ * number of attachments that reference it. {@code size} is the size of the content and
+ * {@code storedSize} that of the file, which differ when the file is stored with an encoding.
+ */
+@Entity
+@Table(name = "content_blobs")
+public class ContentBlob {
+    
+    @Id
+    @Column(name = "content_hash")
+    private String contentHash;
+    
+    @Column(name = "size", nullable = false)
+    private long size;
+    
+    // CRC-32 of the content, for archive entries; null when it was not computed on upload
+    @Column(name = "crc32")
+    private Long crc32;
+    
+    @Column(name = "stored_size", nullable = false)
+    private long storedSize;
+    
+    // HTTP content coding of the file (e.g. gzip), null when stored as is
+    @Column(name = "encoding")
+    private String encoding;
+    
+    @Column(name = "ref_count", nullable = false)
+    private long refCount;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    protected ContentBlob() {
+    }
+    
+    public ContentBlob(String contentHash, long size, Long crc32, long storedSize, String encoding, long refCount) {
+        this.contentHash = contentHash;
+        this.size = size;
+        this.crc32 = crc32;
+        this.storedSize = storedSize;
+        this.encoding = encoding;
+        this.refCount = refCount;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public String getContentHash() {
+        return contentHash;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public Long getCrc32() {
+        return crc32;
+    }
+    
+    public long getStoredSize() {
+        return storedSize;
+    }
+    
+    public String getEncoding() {
+        return encoding;
+    }
+    
+    public long getRefCount() {
+        return refCount;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
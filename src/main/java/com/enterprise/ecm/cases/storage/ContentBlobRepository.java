@@ -0,0 +1,28 @@
+package com.enterprise.ecm.cases.storage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+    
+    @Modifying
+    @Query("UPDATE ContentBlob b SET b.refCount = b.refCount + 1 WHERE b.contentHash = :contentHash")
+    int incrementRefCount(@Param("contentHash") String contentHash);
+    
+    @Modifying
+    @Query("UPDATE ContentBlob b SET b.refCount = b.refCount - 1 WHERE b.contentHash = :contentHash AND b.refCount > 0")
+    int decrementRefCount(@Param("contentHash") String contentHash);
+    
+    @Modifying
+    @Query("DELETE FROM ContentBlob b WHERE b.contentHash = :contentHash AND b.refCount = 0")
+    int deleteIfUnreferenced(@Param("contentHash") String contentHash);
+    
+    @Query("SELECT b.contentHash FROM ContentBlob b WHERE b.refCount = 0")
+    List<String> findUnreferencedHashes();
+}
@@ -0,0 +1,352 @@
+package com.enterprise.ecm.cases.storage;
+
+import com.enterprise.ecm.shared.exception.ValidationException;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.transaction.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Content-addressable file store for case attachments on the local disk.
+ * <p>
+ * Every file is stored once, under the SHA-256 of its content ({@code ab/cd/abcd...}), however
+ * many attachments share it; {@link ContentBlob} rows count the references. Uploads are streamed
+ * through a fixed-size buffer into a staging file and hashed on the way, so neither the upload
+ * nor a second copy of duplicate content is ever held in memory or on disk.
+ * <p>
+ * Content of a compressible type ({@code cases.attachments.compression.content-types}) is
+ * compressed by the configured {@link ContentCodec} in the same pass, so the file on disk is
+ * already in its HTTP content coding; the hash and size stay those of the original content.
+ * <p>
+ * Placing a file and taking a reference, and dropping the last reference and deleting the file,
+ * run under a per-hash lock. The store is local to this node, so the lock is too.
+ */
+@Component
+public class ContentBlobStore {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LOCK_STRIPES = 64;
+    
+    private final ContentBlobRepository contentBlobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate reclaimTransactionTemplate;
+    private final LoggingService loggingService;
+    private final Path root;
+    private final Path staging;
+    private final long maxSize;
+    private final Map<String, ContentCodec> codecs;
+    private final ContentCodec compressionCodec;
+    private final List<MediaType> compressibleTypes;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    
+    public ContentBlobStore(ContentBlobRepository contentBlobRepository,
+                            PlatformTransactionManager transactionManager,
+                            LoggingService loggingService,
+                            @Value("${cases.attachments.storage-root}") Path root,
+                            @Value("${cases.attachments.max-size:512MB}") DataSize maxSize,
+                            List<ContentCodec> codecs,
+                            @Value("${cases.attachments.compression.codec:gzip}") String compressionCodec,
+                            @Value("${cases.attachments.compression.content-types:}") List<String> compressibleTypes) {
+        this.contentBlobRepository = contentBlobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // reclaiming runs after the releasing transaction has committed, so it cannot join it
+        this.reclaimTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.reclaimTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loggingService = loggingService;
+        this.root = root.toAbsolutePath().normalize();
+        this.staging = this.root.resolve("staging");
+        this.maxSize = maxSize.toBytes();
+        this.codecs = codecs.stream().collect(Collectors.toMap(ContentCodec::getEncoding, Function.identity()));
+        this.compressionCodec = compressionCodec.isBlank() ? null : codec(compressionCodec);
+        this.compressibleTypes = compressibleTypes.stream().filter(type -> !type.isBlank()).map(MediaType::parseMediaType).toList();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+    
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(staging);
+        // staging files left behind by a crash were never committed
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(staging)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        loggingService.logInfo("Attachment store at {}", root);
+    }
+    
+    /**
+     * Streams {@code content} into a staging file, computing its hash, CRC-32 and size on the way and
+     * compressing it if {@code contentType} is compressible. Rejects content larger than the
+     * configured maximum without reading the rest of it.
+     */
+    public StagedContent stage(InputStream content, String contentType) {
+        ContentCodec codec = isCompressible(contentType) ? compressionCodec : null;
+        Path file = null;
+        try {
+            file = Files.createTempFile(staging, "upload-", ".tmp");
+            MessageDigest digest = sha256();
+            CRC32 crc = new CRC32();
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long size = 0;
+            try (ReadableByteChannel in = Channels.newChannel(content);
+                 FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                // the codec's stream is closed to finish the encoding, which must leave the channel open;
+                // closing it also releases its native state when staging fails
+                try (OutputStream encoder = codec != null ? codec.encode(StreamUtils.nonClosing(Channels.newOutputStream(out))) : null) {
+                    while (in.read(buffer) != -1) {
+                        buffer.flip();
+                        size += buffer.remaining();
+                        if (size > maxSize) {
+                            throw new ValidationException("Attachment exceeds " + maxSize + " bytes",
+                                    "The file is too large");
+                        }
+                        digest.update(buffer.array(), 0, buffer.limit());
+                        crc.update(buffer.array(), 0, buffer.limit());
+                        if (encoder != null) {
+                            encoder.write(buffer.array(), 0, buffer.limit());
+                        } else {
+                            while (buffer.hasRemaining()) {
+                                out.write(buffer);
+                            }
+                        }
+                        buffer.clear();
+                    }
+                }
+                out.force(false);
+                return new StagedContent(file, HexFormat.of().formatHex(digest.digest()), size, crc.getValue(),
+                        out.size(), codec != null ? codec.getEncoding() : null);
+            }
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw new UncheckedIOException("Could not stage attachment content", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+    
+    /**
+     * Creates a sparse staging file of {@code size} bytes, to be filled in at arbitrary offsets
+     * and then committed as a {@link StagedContent}.
+     */
+    public Path allocate(long size) {
+        if (size > maxSize) {
+            throw new ValidationException("Attachment exceeds " + maxSize + " bytes", "The file is too large");
+        }
+        Path file = null;
+        try {
+            file = staging.resolve("upload-" + UUID.randomUUID() + ".part");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                    StandardOpenOption.SPARSE)) {
+                if (size > 0) {
+                    channel.write(ByteBuffer.allocate(1), size - 1);
+                }
+            }
+            return file;
+        } catch (IOException e) {
+            discard(file);
+            throw new UncheckedIOException("Could not allocate attachment upload", e);
+        }
+    }
+    
+    /**
+     * Deletes a staging file that will not be committed.
+     */
+    public void discard(Path file) {
+        deleteQuietly(file);
+    }
+    
+    /**
+     * Adds the staged content to the store and takes a reference to it, in the same transaction
+     * as {@code registration}, which records whatever refers to it. Content the store already
+     * holds is not written again.
+     */
+    public <T> T commit(StagedContent staged, Supplier<T> registration) {
+        String contentHash = staged.getContentHash();
+        Path target = pathOf(contentHash);
+        ReentrantLock lock = lockFor(contentHash);
+        lock.lock();
+        try {
+            // rows only appear and disappear under this lock; a file without one is a leftover
+            boolean placed = !contentBlobRepository.existsById(contentHash) && place(staged.getFile(), target);
+            try {
+                return transactionTemplate.execute(status -> {
+                    if (contentBlobRepository.incrementRefCount(contentHash) == 0) {
+                        contentBlobRepository.save(new ContentBlob(contentHash, staged.getSize(), staged.getCrc32(),
+                                staged.getStoredSize(), staged.getEncoding(), 1));
+                    }
+                    return registration.get();
+                });
+            } catch (RuntimeException e) {
+                if (placed) {
+                    deleteQuietly(target);
+                }
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+            deleteQuietly(staged.getFile());
+        }
+    }
+    
+    /**
+     * Drops one reference to the content, as part of the current transaction. Once the
+     * transaction commits, content no longer referenced is deleted.
+     */
+    public void release(String contentHash) {
+        if (contentHash == null) {
+            return;
+        }
+        contentBlobRepository.decrementRefCount(contentHash);
+        TransactionCallbacks.afterCommit(() -> reclaim(contentHash));
+    }
+    
+    /**
+     * The stored content, or null if the store does not have it.
+     */
+    public StoredContent find(String contentHash) {
+        if (contentHash == null) {
+            return null;
+        }
+        Path path = pathOf(contentHash);
+        return contentBlobRepository.findById(contentHash)
+                .filter(blob -> Files.isRegularFile(path))
+                .map(blob -> new StoredContent(path, blob.getSize(), blob.getCrc32(), blob.getStoredSize(),
+                        blob.getEncoding() != null ? codec(blob.getEncoding()) : null))
+                .orElse(null);
+    }
+    
+    /**
+     * Deletes content whose last reference was dropped but not reclaimed, e.g. because the
+     * node stopped between the commit and the deletion.
+     */
+    @Scheduled(initialDelayString = "${cases.attachments.sweep-interval:PT1H}",
+               fixedDelayString = "${cases.attachments.sweep-interval:PT1H}")
+    public void sweep() {
+        for (String contentHash : contentBlobRepository.findUnreferencedHashes()) {
+            reclaim(contentHash);
+        }
+    }
+    
+    private void reclaim(String contentHash) {
+        ReentrantLock lock = lockFor(contentHash);
+        lock.lock();
+        try {
+            Integer deleted = reclaimTransactionTemplate.execute(status -> contentBlobRepository.deleteIfUnreferenced(contentHash));
+            if (deleted != null && deleted > 0) {
+                Files.deleteIfExists(pathOf(contentHash));
+                loggingService.logDebug("Deleted unreferenced attachment content {}", contentHash);
+            }
+        } catch (IOException | RuntimeException e) {
+            loggingService.logWarn("Could not delete attachment content {}: {}", contentHash, e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Moves the staged file into place, replacing any leftover file of the same content.
+     */
+    private boolean place(Path stagedFile, Path target) {
+        try {
+            Files.createDirectories(target.getParent());
+            Files.move(stagedFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store attachment content", e);
+        }
+    }
+    
+    private boolean isCompressible(String contentType) {
+        if (compressionCodec == null || contentType == null) {
+            return false;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return compressibleTypes.stream().anyMatch(type -> type.includes(mediaType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+    
+    private ContentCodec codec(String encoding) {
+        ContentCodec codec = codecs.get(encoding);
+        if (codec == null) {
+            throw new IllegalStateException("No attachment codec for encoding " + encoding);
+        }
+        return codec;
+    }
+    
+    /**
+     * Where the content lives, relative to the store root.
+     */
+    public String relativePath(String contentHash) {
+        if (!contentHash.matches("[0-9a-f]{64}")) {
+            throw new IllegalArgumentException("Not a SHA-256 content hash: " + contentHash);
+        }
+        return contentHash.substring(0, 2) + "/" + contentHash.substring(2, 4) + "/" + contentHash;
+    }
+    
+    private Path pathOf(String contentHash) {
+        return root.resolve(relativePath(contentHash));
+    }
+    
+    private ReentrantLock lockFor(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), LOCK_STRIPES)];
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            loggingService.logWarn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.enterprise.ecm.cases.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A compression format for stored attachment content. The stored bytes are a valid HTTP
+ * representation in {@link #getEncoding()}, so clients accepting it are sent them as they are.
+ */
+public interface ContentCodec {
+    
+    /**
+     * The HTTP content coding of the encoded bytes, e.g. {@code gzip}.
+     */
+    String getEncoding();
+    
+    /**
+     * Wraps {@code out} so that what is written to the result is written encoded to {@code out}.
+     * Closing the result finishes the encoding and closes {@code out}.
+     */
+    OutputStream encode(OutputStream out) throws IOException;
+    
+    InputStream decode(InputStream in) throws IOException;
+}
@@ -0,0 +1,44 @@
+package com.enterprise.ecm.cases.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@code gzip} with the JDK {@link java.util.zip.Deflater}, at a configurable level.
+ */
+@Component
+public class GzipContentCodec implements ContentCodec {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final int level;
+    
+    public GzipContentCodec(@Value("${cases.attachments.compression.level:6}") int level) {
+        this.level = level;
+    }
+    
+    @Override
+    public String getEncoding() {
+        return "gzip";
+    }
+    
+    @Override
+    public OutputStream encode(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+    
+    @Override
+    public InputStream decode(InputStream in) throws IOException {
+        return new GZIPInputStream(in, BUFFER_SIZE);
+    }
+}
@@ -0,0 +1,22 @@
+package com.enterprise.ecm.cases.storage;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * An upload written to the store's staging area, hashed and measured, but not yet part of the
+ * store. {@link ContentBlobStore#commit} moves it into place or discards it as a duplicate.
+ * {@code contentHash}, {@code size} and {@code crc32} (null if not computed) describe the
+ * original content; {@code storedSize} and {@code encoding} the file, which is compressed when
+ * {@code encoding} is set.
+ */
+@Value
+public class StagedContent {
+    Path file;
+    String contentHash;
+    long size;
+    Long crc32;
+    long storedSize;
+    String encoding;
+}
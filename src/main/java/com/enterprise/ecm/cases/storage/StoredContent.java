@@ -0,0 +1,36 @@
+package com.enterprise.ecm.cases.storage;
+
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Content held by the {@link ContentBlobStore}: the file, the original size and CRC-32 (null if
+ * not computed), and the codec it is stored with, if any.
+ */
+@Value
+public class StoredContent {
+    Path file;
+    long size;
+    Long crc32;
+    long storedSize;
+    ContentCodec codec;
+    
+    /**
+     * The content coding of the stored file, or null if it is stored as is.
+     */
+    public String getEncoding() {
+        return codec != null ? codec.getEncoding() : null;
+    }
+    
+    /**
+     * Reads the original content, decoding it as it is read.
+     */
+    public InputStream openDecoded() throws IOException {
+        InputStream in = Files.newInputStream(file);
+        return codec != null ? codec.decode(in) : in;
+    }
+}
@@ -0,0 +1,18 @@
+package com.enterprise.ecm.cases.stream;
+
+import com.enterprise.ecm.cases.dto.CaseSummaryDto;
+import lombok.Value;
+
+/**
+ * A committed change of a case as sent on the change feed. {@code version} is the version the
+ * case was left at, so a client can skip deltas older than what it already has; {@code summary}
+ * is null for a deleted case.
+ */
+@Value
+public class CaseChange {
+    
+    CaseChangeType type;
+    Long caseId;
+    Long version;
+    CaseSummaryDto summary;
+}
@@ -0,0 +1,279 @@
+package com.enterprise.ecm.cases.stream;
+
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans committed case changes out to the change feed subscribers of their tenant.
+ * <p>
+ * Subscribers hold an asynchronous request, not a thread. Each has a buffer of at most
+ * {@code cases.stream.buffer-size} events, which a small shared pool drains into its connection;
+ * a subscriber is queued on the pool at most once at a time. When a client reads too slowly for
+ * its buffer to keep up, the buffered events are dropped and replaced by a {@code resync} event,
+ * upon which the client reloads the cases it shows. A {@code resync} is also the first event of
+ * every subscription, so changes made before it are never missed.
+ * <p>
+ * Writes to a connection block while the client does not read. A subscriber whose write takes
+ * longer than {@code cases.stream.send-timeout} is dropped, and its sender thread interrupted and
+ * replaced in the pool until the write returns, so that a few stalled clients cannot hold up
+ * the others. The connection is completed once the write returns, and the client reconnects.
+ * <p>
+ * The hub is local to the node: it only sees changes made through this node.
+ */
+@Component
+public class CaseChangeHub {
+    
+    public static final String RESYNC_EVENT = "resync";
+    
+    private static final Set<DataWithMediaType> RESYNC = SseEmitter.event().name(RESYNC_EVENT).data("{}").build();
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+    
+    private final ObjectMapper objectMapper;
+    private final LoggingService loggingService;
+    private final int bufferSize;
+    private final Duration timeout;
+    private final Duration sendTimeout;
+    
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor senders;
+    
+    public CaseChangeHub(ObjectMapper objectMapper, LoggingService loggingService,
+                         @Value("${cases.stream.buffer-size:256}") int bufferSize,
+                         @Value("${cases.stream.timeout:PT30M}") Duration timeout,
+                         @Value("${cases.stream.sender-threads:4}") int senderThreads,
+                         @Value("${cases.stream.send-timeout:PT10S}") Duration sendTimeout) {
+        this.objectMapper = objectMapper;
+        this.loggingService = loggingService;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.sendTimeout = sendTimeout;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("case-stream-"));
+    }
+    
+    /**
+     * Subscribes to the changes of {@code tenantId}. The emitter completes after
+     * {@code cases.stream.timeout}, and the client reconnects.
+     */
+    public SseEmitter subscribe(String tenantId) {
+        return subscribe(tenantId, new SseEmitter(timeout.toMillis()));
+    }
+    
+    SseEmitter subscribe(String tenantId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(tenantId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> remove(subscriber));
+        subscribers.computeIfAbsent(tenantId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.offer(RESYNC);
+        return emitter;
+    }
+    
+    /**
+     * Pushes a committed change to the subscribers of {@code tenantId}. The event is serialized
+     * once for all of them.
+     */
+    public void publish(String tenantId, CaseChange change) {
+        Set<Subscriber> tenantSubscribers = subscribers.get(tenantId);
+        if (tenantSubscribers == null || tenantSubscribers.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> event;
+        try {
+            event = SseEmitter.event().name(change.getType().getEventName()).data(objectMapper.writeValueAsString(change)).build();
+        } catch (JsonProcessingException e) {
+            loggingService.logError("Could not serialize case change {}", change, e);
+            return;
+        }
+        tenantSubscribers.forEach(subscriber -> subscriber.offer(event));
+    }
+    
+    public int getSubscriberCount(String tenantId) {
+        Set<Subscriber> tenantSubscribers = subscribers.get(tenantId);
+        return tenantSubscribers == null ? 0 : tenantSubscribers.size();
+    }
+    
+    /**
+     * Keeps idle connections open through proxies, and finds those the client has left.
+     */
+    @Scheduled(fixedDelayString = "${cases.stream.heartbeat-interval:PT15S}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(tenantSubscribers -> tenantSubscribers.forEach(subscriber -> subscriber.offerIfIdle(HEARTBEAT)));
+    }
+    
+    @Scheduled(fixedDelayString = "${cases.stream.stall-check-interval:PT1S}")
+    public void dropStalledSubscribers() {
+        dropStalledSubscribers(System.nanoTime());
+    }
+    
+    /**
+     * Drops the subscribers whose current write started more than {@code cases.stream.send-timeout}
+     * before {@code now} (in {@link System#nanoTime} terms). Returns how many there were.
+     */
+    int dropStalledSubscribers(long now) {
+        long cutoff = now - sendTimeout.toNanos();
+        int dropped = 0;
+        for (Set<Subscriber> tenantSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : tenantSubscribers) {
+                if (subscriber.stallIfSendingSince(cutoff)) {
+                    remove(subscriber);
+                    addSenderThread();
+                    loggingService.logInfo("Dropped a case change subscriber of tenant {}: a write took longer than {}",
+                            subscriber.tenantId, sendTimeout);
+                    dropped++;
+                }
+            }
+        }
+        return dropped;
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        subscribers.values().forEach(tenantSubscribers -> tenantSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+    
+    // a stalled write keeps its thread until it returns; the pool gets another one meanwhile
+    private void addSenderThread() {
+        synchronized (senders) {
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() + 1);
+            senders.setCorePoolSize(senders.getCorePoolSize() + 1);
+        }
+    }
+    
+    private void removeSenderThread() {
+        synchronized (senders) {
+            senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() - 1);
+        }
+    }
+    
+    private void remove(Subscriber subscriber) {
+        subscriber.close();
+        subscribers.computeIfPresent(subscriber.tenantId, (tenantId, tenantSubscribers) -> {
+            tenantSubscribers.remove(subscriber);
+            return tenantSubscribers.isEmpty() ? null : tenantSubscribers;
+        });
+    }
+    
+    private final class Subscriber {
+        
+        private final String tenantId;
+        private final SseEmitter emitter;
+        
+        // Mutable state below is guarded by this
+        private final ArrayDeque<Set<DataWithMediaType>> buffer = new ArrayDeque<>();
+        private boolean sending;
+        private boolean closed;
+        private Thread sender;
+        private long sendingSince;
+        private boolean stalled;
+        
+        private Subscriber(String tenantId, SseEmitter emitter) {
+            this.tenantId = tenantId;
+            this.emitter = emitter;
+        }
+        
+        synchronized void offer(Set<DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (buffer.size() >= bufferSize) {
+                buffer.clear();
+                buffer.add(RESYNC);
+            }
+            buffer.add(event);
+            if (!sending) {
+                sending = true;
+                senders.execute(this::send);
+            }
+        }
+        
+        synchronized void offerIfIdle(Set<DataWithMediaType> event) {
+            if (!sending) {
+                offer(event);
+            }
+        }
+        
+        synchronized void close() {
+            closed = true;
+            buffer.clear();
+        }
+        
+        /**
+         * Marks the subscriber as stalled and closes it if its current write started before
+         * {@code cutoff}, interrupting the writing thread. Returns whether it did.
+         */
+        synchronized boolean stallIfSendingSince(long cutoff) {
+            if (sender == null || stalled || sendingSince - cutoff > 0) {
+                return false;
+            }
+            stalled = true;
+            close();
+            sender.interrupt();
+            return true;
+        }
+        
+        private void send() {
+            while (true) {
+                Set<DataWithMediaType> event;
+                synchronized (this) {
+                    event = buffer.poll();
+                    if (event == null || closed) {
+                        sending = false;
+                        return;
+                    }
+                    sender = Thread.currentThread();
+                    sendingSince = System.nanoTime();
+                }
+                Exception failure = null;
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // the client is gone, or the emitter has completed
+                    failure = e;
+                }
+                boolean wasStalled;
+                synchronized (this) {
+                    sender = null;
+                    wasStalled = stalled;
+                }
+                if (wasStalled) {
+                    // dropped while writing: the interrupt was meant for the write, not for the pool
+                    Thread.interrupted();
+                    removeSenderThread();
+                    if (failure != null) {
+                        emitter.completeWithError(failure);
+                    } else {
+                        emitter.complete();
+                    }
+                    return;
+                }
+                if (failure != null) {
+                    loggingService.logDebug("Case change subscriber of tenant {} disconnected: {}", tenantId, failure.getMessage());
+                    remove(this);
+                    emitter.completeWithError(failure);
+                    return;
+                }
+            }
+        }
+    }
+}
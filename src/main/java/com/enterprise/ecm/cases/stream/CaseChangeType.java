@@ -0,0 +1,17 @@
+package com.enterprise.ecm.cases.stream;
+
+import java.util.Locale;
+
+/**
+ * The kinds of case change pushed on the change feed; each is sent as an SSE event of the same
+ * name in lower case.
+ */
+public enum CaseChangeType {
+    CREATED,
+    UPDATED,
+    DELETED;
+    
+    public String getEventName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
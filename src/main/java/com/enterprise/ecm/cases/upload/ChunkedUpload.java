@@ -0,0 +1,251 @@
+package com.enterprise.ecm.cases.upload;
+
+import com.enterprise.ecm.shared.exception.BusinessException;
+
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * State of one resumable upload: its sparse staging file, which chunks have been written, and
+ * the SHA-256 and CRC-32 of the contiguous prefix hashed so far. Both only ever advance in chunk
+ * order; whoever holds the hashing claim advances them, so a chunk is hashed exactly once.
+ */
+public class ChunkedUpload {
+    
+    private final String id;
+    private final String tenantId;
+    private final Long caseId;
+    private final String createdBy;
+    private final String fileName;
+    private final String contentType;
+    private final String description;
+    private final long size;
+    private final long chunkSize;
+    private final int chunkCount;
+    private final Path file;
+    
+    private final BitSet received = new BitSet();
+    private final BitSet writing = new BitSet();
+    private MessageDigest digest;
+    private long crc32;
+    private int hashedChunks;
+    private boolean hashing;
+    private boolean completing;
+    private Instant lastActivity = Instant.now();
+    
+    ChunkedUpload(String id, String tenantId, Long caseId, String createdBy, String fileName, String contentType,
+                  String description, long size, long chunkSize, Path file, MessageDigest digest) {
+        this.id = id;
+        this.tenantId = tenantId;
+        this.caseId = caseId;
+        this.createdBy = createdBy;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.description = description;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+        this.file = file;
+        this.digest = digest;
+    }
+    
+    public long offsetOf(int chunk) {
+        return chunk * chunkSize;
+    }
+    
+    public long lengthOf(int chunk) {
+        return Math.min(chunkSize, size - offsetOf(chunk));
+    }
+    
+    /**
+     * Marks {@code chunk} as being written. Returns false if it was already received.
+     */
+    synchronized boolean startWriting(int chunk) {
+        lastActivity = Instant.now();
+        if (completing) {
+            throw completingAlready();
+        }
+        if (received.get(chunk)) {
+            return false;
+        }
+        if (writing.get(chunk)) {
+            throw new BusinessException("Chunk " + chunk + " of upload " + id + " is already being written",
+                    "This chunk is already being uploaded");
+        }
+        writing.set(chunk);
+        return true;
+    }
+    
+    /**
+     * Claims the digest for hashing {@code chunk} while it is written, if it is the next one to
+     * hash and nobody else is hashing. Returns a copy to update, or null.
+     */
+    synchronized MessageDigest claimForStreaming(int chunk) {
+        if (hashing || chunk != hashedChunks) {
+            return null;
+        }
+        hashing = true;
+        return copyOfDigest();
+    }
+    
+    /**
+     * Claims the digest for catching up on the next chunk, if it has been received but not
+     * hashed and nobody else is hashing. Returns the chunk, or -1.
+     */
+    synchronized int claimForCatchUp() {
+        if (hashing || hashedChunks >= chunkCount || !received.get(hashedChunks)) {
+            return -1;
+        }
+        hashing = true;
+        return hashedChunks;
+    }
+    
+    synchronized MessageDigest claimedDigest() {
+        return copyOfDigest();
+    }
+    
+    /**
+     * Records that {@code chunk} was written, and hashed into {@code hashed} if the writer held
+     * the claim, with {@code chunkCrc32} the CRC-32 of the chunk alone.
+     */
+    synchronized void finishWriting(int chunk, MessageDigest hashed, long chunkCrc32) {
+        writing.clear(chunk);
+        received.set(chunk);
+        if (hashed != null) {
+            finishHashing(hashed, chunkCrc32);
+        }
+        lastActivity = Instant.now();
+    }
+    
+    synchronized void abortWriting(int chunk, boolean claimed) {
+        writing.clear(chunk);
+        if (claimed) {
+            hashing = false;
+        }
+    }
+    
+    synchronized void finishHashing(MessageDigest hashed, long chunkCrc32) {
+        digest = hashed;
+        crc32 = Crc32Combiner.combine(crc32, chunkCrc32, lengthOf(hashedChunks));
+        hashedChunks++;
+        hashing = false;
+    }
+    
+    synchronized void abortHashing() {
+        hashing = false;
+    }
+    
+    /**
+     * Marks the upload as completing if every chunk is received and hashed, so no further
+     * chunks are accepted. Returns the content hash, or null if chunks are missing.
+     */
+    synchronized byte[] startCompleting() {
+        if (completing) {
+            throw completingAlready();
+        }
+        if (hashedChunks < chunkCount || !writing.isEmpty()) {
+            return null;
+        }
+        completing = true;
+        return copyOfDigest().digest();
+    }
+    
+    /**
+     * The CRC-32 of the file, once {@link #startCompleting} has returned its hash.
+     */
+    synchronized long getCrc32() {
+        return crc32;
+    }
+    
+    synchronized void abortCompleting() {
+        completing = false;
+    }
+    
+    synchronized List<Integer> getReceivedChunks() {
+        return received.stream().boxed().toList();
+    }
+    
+    synchronized List<Integer> getMissingChunks() {
+        return IntStream.range(0, chunkCount).filter(chunk -> !received.get(chunk)).boxed().toList();
+    }
+    
+    /**
+     * Closes the upload to further chunks, e.g. to abort it. Returns false if a chunk is being
+     * written or the upload is being completed.
+     */
+    synchronized boolean close() {
+        if (completing || !writing.isEmpty()) {
+            return false;
+        }
+        completing = true;
+        return true;
+    }
+    
+    synchronized boolean isIdleSince(Instant cutoff) {
+        return lastActivity.isBefore(cutoff);
+    }
+    
+    synchronized Instant getLastActivity() {
+        return lastActivity;
+    }
+    
+    private BusinessException completingAlready() {
+        return new BusinessException("Upload " + id + " is being completed", "The upload is already being completed");
+    }
+    
+    private MessageDigest copyOfDigest() {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be copied", e);
+        }
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getTenantId() {
+        return tenantId;
+    }
+    
+    public Long getCaseId() {
+        return caseId;
+    }
+    
+    public String getCreatedBy() {
+        return createdBy;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public long getSize() {
+        return size;
+    }
+    
+    public long getChunkSize() {
+        return chunkSize;
+    }
+    
+    public int getChunkCount() {
+        return chunkCount;
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,299 @@
+package com.enterprise.ecm.cases.upload;
+
+import com.enterprise.ecm.cases.CaseAttachment;
+import com.enterprise.ecm.cases.CaseAttachmentService;
+import com.enterprise.ecm.cases.dto.AttachmentUploadDto;
+import com.enterprise.ecm.cases.dto.CreateAttachmentUploadRequest;
+import com.enterprise.ecm.cases.storage.ContentBlobStore;
+import com.enterprise.ecm.cases.storage.StagedContent;
+import com.enterprise.ecm.shared.exception.BusinessException;
+import com.enterprise.ecm.shared.exception.ResourceNotFoundException;
+import com.enterprise.ecm.shared.exception.ValidationException;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.security.CurrentUser;
+import com.enterprise.ecm.shared.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.CRC32;
+
+/**
+ * Resumable uploads of large attachments in fixed-size chunks.
+ * <p>
+ * Starting an upload allocates a sparse staging file of the announced size. Chunks may then be
+ * written in any order and in parallel, each straight to its offset, and a chunk that was cut
+ * off is simply sent again. The SHA-256 and CRC-32 of the file are kept up to date as chunks arrive: a chunk
+ * that continues the hashed prefix is hashed while it is written, one that arrives early is
+ * hashed as soon as the gap before it is filled. Completing an upload therefore only checks
+ * that every chunk is there and moves the file into the {@link ContentBlobStore}.
+ * <p>
+ * Uploads are held in memory on the node that started them, like the staging area they write to.
+ */
+@Service
+public class ChunkedUploadService {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String SHA_256_DIGEST = "sha-256=";
+    
+    private final CaseAttachmentService caseAttachmentService;
+    private final ContentBlobStore contentBlobStore;
+    private final LoggingService loggingService;
+    private final long chunkSize;
+    private final Duration expiry;
+    private final ConcurrentMap<String, ChunkedUpload> uploads = new ConcurrentHashMap<>();
+    
+    public ChunkedUploadService(CaseAttachmentService caseAttachmentService,
+                                ContentBlobStore contentBlobStore,
+                                LoggingService loggingService,
+                                @Value("${cases.attachments.chunk-size:8MB}") DataSize chunkSize,
+                                @Value("${cases.attachments.upload-expiry:PT24H}") Duration expiry) {
+        this.caseAttachmentService = caseAttachmentService;
+        this.contentBlobStore = contentBlobStore;
+        this.loggingService = loggingService;
+        this.chunkSize = chunkSize.toBytes();
+        this.expiry = expiry;
+    }
+    
+    public ChunkedUpload startUpload(Long caseId, CreateAttachmentUploadRequest request) {
+        caseAttachmentService.validateFileName(request.getFileName());
+        String tenantId = TenantContext.getCurrentTenant();
+        caseAttachmentService.checkCase(caseId, tenantId);
+        String contentType = request.getContentType() != null ? request.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        ChunkedUpload upload = new ChunkedUpload(UUID.randomUUID().toString(), tenantId, caseId, CurrentUser.username(),
+                request.getFileName(), contentType, request.getDescription(), request.getSize(), chunkSize,
+                contentBlobStore.allocate(request.getSize()), sha256());
+        uploads.put(upload.getId(), upload);
+        loggingService.logInfo("Started upload {} of {} ({} bytes in {} chunks) for case {}",
+                upload.getId(), upload.getFileName(), upload.getSize(), upload.getChunkCount(), caseId);
+        return upload;
+    }
+    
+    public ChunkedUpload getUpload(Long caseId, String uploadId) {
+        ChunkedUpload upload = uploads.get(uploadId);
+        if (upload == null || !upload.getCaseId().equals(caseId) || !upload.getTenantId().equals(TenantContext.getCurrentTenant())) {
+            throw new ResourceNotFoundException("Upload", "id", uploadId);
+        }
+        return upload;
+    }
+    
+    /**
+     * Writes one chunk at its offset. A chunk received before is acknowledged without being
+     * written again. {@code contentDigest}, an RFC 9530 {@code Content-Digest} header, is
+     * verified when it carries a {@code sha-256} value.
+     */
+    public ChunkedUpload writeChunk(Long caseId, String uploadId, int chunk, InputStream content, String contentDigest) {
+        ChunkedUpload upload = getUpload(caseId, uploadId);
+        if (chunk < 0 || chunk >= upload.getChunkCount()) {
+            throw new ValidationException("Chunk " + chunk + " is out of range for upload " + uploadId,
+                    "The chunk number must be between 0 and " + (upload.getChunkCount() - 1));
+        }
+        byte[] expectedDigest = parseSha256(contentDigest);
+        if (!upload.startWriting(chunk)) {
+            return upload;
+        }
+        MessageDigest chunkDigest = expectedDigest != null ? sha256() : null;
+        MessageDigest fileDigest = upload.claimForStreaming(chunk);
+        CRC32 chunkCrc = new CRC32();
+        boolean written = false;
+        try {
+            long expected = upload.lengthOf(chunk);
+            long position = upload.offsetOf(chunk);
+            long length = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            try (ReadableByteChannel in = Channels.newChannel(content);
+                 FileChannel out = FileChannel.open(upload.getFile(), StandardOpenOption.WRITE)) {
+                while (in.read(buffer) != -1) {
+                    buffer.flip();
+                    length += buffer.remaining();
+                    if (length > expected) {
+                        break;
+                    }
+                    if (fileDigest != null) {
+                        fileDigest.update(buffer.array(), 0, buffer.limit());
+                        chunkCrc.update(buffer.array(), 0, buffer.limit());
+                    }
+                    if (chunkDigest != null) {
+                        chunkDigest.update(buffer.array(), 0, buffer.limit());
+                    }
+                    while (buffer.hasRemaining()) {
+                        position += out.write(buffer, position);
+                    }
+                    buffer.clear();
+                }
+            }
+            if (length != expected) {
+                throw new ValidationException("Chunk " + chunk + " of upload " + uploadId + " must be " + expected + " bytes",
+                        "Chunk " + chunk + " must be exactly " + expected + " bytes");
+            }
+            if (chunkDigest != null && !MessageDigest.isEqual(expectedDigest, chunkDigest.digest())) {
+                throw new ValidationException("Chunk " + chunk + " of upload " + uploadId + " does not match its Content-Digest",
+                        "Chunk " + chunk + " was corrupted in transit; send it again");
+            }
+            upload.finishWriting(chunk, fileDigest, chunkCrc.getValue());
+            written = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write chunk " + chunk + " of upload " + uploadId, e);
+        } finally {
+            if (!written) {
+                upload.abortWriting(chunk, fileDigest != null);
+            }
+        }
+        catchUp(upload);
+        return upload;
+    }
+    
+    /**
+     * Attaches the uploaded file to the case once every chunk has been received. When
+     * {@code expectedSha256} is given and does not match, the upload is discarded.
+     */
+    public CaseAttachment completeUpload(Long caseId, String uploadId, String expectedSha256) {
+        ChunkedUpload upload = getUpload(caseId, uploadId);
+        catchUp(upload);
+        byte[] hash = upload.startCompleting();
+        if (hash == null) {
+            throw new ValidationException("Upload " + uploadId + " is missing chunks " + upload.getMissingChunks(),
+                    "Not all chunks have been uploaded yet");
+        }
+        String contentHash = HexFormat.of().formatHex(hash);
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(contentHash)) {
+            discard(upload);
+            throw new ValidationException("Upload " + uploadId + " has SHA-256 " + contentHash + ", expected " + expectedSha256,
+                    "The uploaded file does not match its checksum and was discarded");
+        }
+        try (FileChannel channel = FileChannel.open(upload.getFile(), StandardOpenOption.WRITE)) {
+            channel.force(false);
+        } catch (IOException e) {
+            upload.abortCompleting();
+            throw new UncheckedIOException("Could not flush upload " + uploadId, e);
+        }
+        try {
+            return caseAttachmentService.attach(caseId, upload.getTenantId(), upload.getCreatedBy(), upload.getFileName(),
+                    upload.getContentType(), upload.getDescription(),
+                    // kept as is: compressing it would mean reading the whole file again here
+                    new StagedContent(upload.getFile(), contentHash, upload.getSize(), upload.getCrc32(), upload.getSize(), null));
+        } finally {
+            // the store has taken or deleted the staging file either way
+            uploads.remove(uploadId, upload);
+        }
+    }
+    
+    public void abortUpload(Long caseId, String uploadId) {
+        ChunkedUpload upload = getUpload(caseId, uploadId);
+        if (!upload.close()) {
+            throw new BusinessException("Upload " + uploadId + " is busy", "The upload cannot be cancelled while chunks are being written");
+        }
+        discard(upload);
+    }
+    
+    /**
+     * Discards uploads that have not received a chunk within the expiry.
+     */
+    @Scheduled(fixedDelayString = "${cases.attachments.upload-sweep-interval:PT5M}")
+    public void expireUploads() {
+        Instant cutoff = Instant.now().minus(expiry);
+        for (ChunkedUpload upload : uploads.values()) {
+            if (upload.isIdleSince(cutoff) && upload.close()) {
+                loggingService.logInfo("Upload {} of {} expired", upload.getId(), upload.getFileName());
+                discard(upload);
+            }
+        }
+    }
+    
+    public AttachmentUploadDto toDto(ChunkedUpload upload) {
+        AttachmentUploadDto dto = new AttachmentUploadDto();
+        dto.setUploadId(upload.getId());
+        dto.setFileName(upload.getFileName());
+        dto.setSize(upload.getSize());
+        dto.setChunkSize(upload.getChunkSize());
+        dto.setChunkCount(upload.getChunkCount());
+        dto.setReceivedChunks(upload.getReceivedChunks());
+        dto.setExpiresAt(upload.getLastActivity().plus(expiry));
+        return dto;
+    }
+    
+    /**
+     * Hashes received chunks that now continue the hashed prefix. Only the chunks that arrived
+     * ahead of a gap are read back, once, right after the gap is filled.
+     */
+    private void catchUp(ChunkedUpload upload) {
+        for (int chunk; (chunk = upload.claimForCatchUp()) >= 0; ) {
+            MessageDigest digest = upload.claimedDigest();
+            CRC32 chunkCrc = new CRC32();
+            boolean hashed = false;
+            try (FileChannel channel = FileChannel.open(upload.getFile(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long position = upload.offsetOf(chunk);
+                long end = position + upload.lengthOf(chunk);
+                while (position < end) {
+                    buffer.clear().limit((int) Math.min(BUFFER_SIZE, end - position));
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        throw new IOException("Unexpected end of upload file");
+                    }
+                    digest.update(buffer.array(), 0, read);
+                    chunkCrc.update(buffer.array(), 0, read);
+                    position += read;
+                }
+                upload.finishHashing(digest, chunkCrc.getValue());
+                hashed = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not hash upload " + upload.getId(), e);
+            } finally {
+                if (!hashed) {
+                    upload.abortHashing();
+                }
+            }
+        }
+    }
+    
+    private void discard(ChunkedUpload upload) {
+        uploads.remove(upload.getId(), upload);
+        contentBlobStore.discard(upload.getFile());
+    }
+    
+    private static byte[] parseSha256(String contentDigest) {
+        if (contentDigest == null) {
+            return null;
+        }
+        for (String member : contentDigest.split(",")) {
+            String value = member.trim();
+            if (value.regionMatches(true, 0, SHA_256_DIGEST, 0, SHA_256_DIGEST.length())) {
+                String encoded = value.substring(SHA_256_DIGEST.length());
+                try {
+                    return Base64.getDecoder().decode(encoded.replace(":", ""));
+                } catch (IllegalArgumentException e) {
+                    throw new ValidationException("Malformed Content-Digest: " + contentDigest, "The Content-Digest header is malformed");
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
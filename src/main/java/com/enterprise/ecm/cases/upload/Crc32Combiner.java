@@ -0,0 +1,69 @@
+package com.enterprise.ecm.cases.upload;
+
+/**
+ * Combines the CRC-32s of two consecutive pieces of data into the CRC-32 of both, as zlib's
+ * {@code crc32_combine} does, so that chunks can be checksummed separately with
+ * {@link java.util.zip.CRC32} and still yield the checksum of the whole file.
+ */
+final class Crc32Combiner {
+    
+    private static final long POLYNOMIAL = 0xedb88320L;
+    
+    private Crc32Combiner() {}
+    
+    /**
+     * The CRC-32 of {@code a} followed by {@code b}, given the CRC-32s of both and the length of {@code b}.
+     */
+    static long combine(long crcA, long crcB, long lengthB) {
+        if (lengthB <= 0) {
+            return crcA;
+        }
+        // operator for one zero bit, then squared into the operators for two and four zero bits
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        odd[0] = POLYNOMIAL;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = 1L << (n - 1);
+        }
+        square(even, odd);
+        square(odd, even);
+        // apply the operator for one zero byte, squared each step, for each set bit of lengthB
+        long crc = crcA;
+        long remaining = lengthB;
+        while (true) {
+            square(even, odd);
+            if ((remaining & 1) != 0) {
+                crc = times(even, crc);
+            }
+            remaining >>>= 1;
+            if (remaining == 0) {
+                break;
+            }
+            square(odd, even);
+            if ((remaining & 1) != 0) {
+                crc = times(odd, crc);
+            }
+            remaining >>>= 1;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return crc ^ crcB;
+    }
+    
+    private static long times(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+    
+    private static void square(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = times(matrix, matrix[n]);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.enterprise.ecm.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for asynchronous domain event listeners ({@code @Async(DomainEventConfig.EXECUTOR)}).
+ * <p>
+ * The pool and its queue are bounded. When both are full an event is dropped rather than
+ * blocking or failing the committing request: its publication stays incomplete in the
+ * {@code event_publication} table and is resubmitted later by {@code EventPublicationMaintenance}.
+ */
+@Slf4j
+@Configuration
+public class DomainEventConfig {
+    
+    public static final String EXECUTOR = "domainEventExecutor";
+    
+    @Value("${domain-events.executor.core-size:2}")
+    private int coreSize;
+    
+    @Value("${domain-events.executor.max-size:8}")
+    private int maxSize;
+    
+    @Value("${domain-events.executor.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Bean(EXECUTOR)
+    public ThreadPoolTaskExecutor domainEventExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("domain-event-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("Domain event executor saturated ({} queued); the event will be resubmitted", pool.getQueue().size()));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+    
+    /**
+     * Boot's executor for {@code @Async} and MVC async requests (streaming exports), which it no
+     * longer creates once another executor is defined.
+     */
+    @Primary
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
@@ -0,0 +1,83 @@
+package com.enterprise.ecm.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache on Caffeine (through JCache). Every region is declared here with
+ * a size and time bound; Hibernate is configured to fail on a region that is not. Entries are
+ * written through and evicted by Hibernate itself whenever the services change a cached entity,
+ * and query results are dropped whenever their table is written.
+ */
+@Configuration
+public class EntityCacheConfig {
+    
+    public static final String CASES = "cases";
+    public static final String CASES_BY_NUMBER = "cases.by-number";
+    public static final String USERS = "users";
+    public static final String USER_ROLES = "users.roles";
+    public static final String USERS_BY_USERNAME = "users.by-username";
+    
+    private static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+    private static final long UPDATE_TIMESTAMPS_SIZE = 1_000;
+    
+    @Value("${entity-cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    @Value("${entity-cache.time-to-live:PT10M}")
+    private Duration timeToLive;
+    
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager() {
+        // a manager of its own, so that several application contexts in one JVM do not share regions
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("dg-ecm-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : new String[] {CASES, CASES_BY_NUMBER, USERS, USER_ROLES, USERS_BY_USERNAME, DEFAULT_QUERY_RESULTS}) {
+            cacheManager.createCache(region, region(maximumSize, timeToLive));
+        }
+        // query results are only valid against these timestamps, so they must outlive every result
+        cacheManager.createCache(UPDATE_TIMESTAMPS, region(UPDATE_TIMESTAMPS_SIZE, null));
+        return cacheManager;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+    }
+    
+    /**
+     * Hit, miss, put and eviction counters per region ({@code cache.gets{cache=cases,result=hit}} etc.).
+     */
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        return registry -> entityCacheManager.getCacheNames()
+                .forEach(region -> JCacheMetrics.monitor(registry, entityCacheManager.getCache(region)));
+    }
+    
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration timeToLive) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        if (timeToLive != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(timeToLive.toNanos()));
+        }
+        // Hibernate stores immutable, disassembled entries; copying them on every access buys nothing
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
@@ -1,5 +1,9 @@
 package com.enterprise.ecm.config;
 
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
@@ -8,4 +12,17 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 @EnableJpaAuditing
 @EnableJpaRepositories(basePackages = "com.enterprise.ecm")
 public class JpaConfig {
-} 
\ No newline at end of file
+    
+    /**
+     * Per-query execution statistics for the index advisor ({@code /actuator/indexadvisor}),
+     * without Hibernate's per-session metrics log.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "query-advisor.enabled", havingValue = "true")
+    public HibernatePropertiesCustomizer queryStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.GENERATE_STATISTICS, "true");
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, "false");
+        };
+    }
+}
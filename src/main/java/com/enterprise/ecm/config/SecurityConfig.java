@@ -1,5 +1,6 @@
 package com.enterprise.ecm.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,8 +9,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class SecurityConfig {
     
+    /**
+     * BCrypt at {@code security.password.bcrypt-cost}. Hashes of a lower cost still match; they
+     * are re-encoded at this cost on the next successful login.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt-cost:10}") int bcryptCost) {
+        return new BCryptPasswordEncoder(bcryptCost);
     }
-} 
\ No newline at end of file
+} 
@@ -1,13 +1,13 @@
 package com.enterprise.ecm.security;
 
+import com.enterprise.ecm.security.revocation.TokenRevocationRegistry;
+import com.enterprise.ecm.shared.security.UserVersionRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
@@ -15,31 +15,37 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Authenticates requests bearing an access token from the token's claims. The user is not read:
+ * tokens of users changed since they were issued are rejected by the {@link UserVersionRegistry},
+ * and tokens revoked on logout by the {@link TokenRevocationRegistry}.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider tokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final UserVersionRegistry userVersionRegistry;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
     
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserVersionRegistry userVersionRegistry,
+                                   TokenRevocationRegistry tokenRevocationRegistry) {
         this.tokenProvider = tokenProvider;
-        this.userDetailsService = userDetailsService;
+        this.userVersionRegistry = userVersionRegistry;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
     }
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         try {
-            String jwt = getJwtFromRequest(request);
+            String jwt = tokenProvider.resolveToken(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+            VerifiedToken token = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt) : null;
+            
+            if (token != null && userVersionRegistry.isCurrent(token.getUserId(), token.getUserVersion())
+                    && !tokenRevocationRegistry.isRevoked(token.getTokenId())) {
+                UsernamePasswordAuthenticationToken authentication = token.toAuthentication();
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (Exception ex) {
@@ -48,12 +54,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
-    
-    private String getJwtFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
-        }
-        return null;
-    }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,75 +1,192 @@
 package com.enterprise.ecm.security;
 
+import com.enterprise.ecm.shared.security.AuthenticatedUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
+/**
+ * Issues and reads the access tokens. Besides its id ({@code jti}, by which it can be revoked)
+ * and the username (subject) a token carries the roles, and the id,
+ * the tenant and the version of the user it was issued to, so that the request can be
+ * authenticated from the token alone (see {@link JwtAuthenticationFilter}).
+ * <p>
+ * The signing key and the parser are built once. A token is parsed and its signature checked
+ * once into a {@link VerifiedToken}, which is then kept until the token expires in a cache of
+ * at most {@code jwt.verified-cache-size} tokens, keyed by the SHA-256 of the token: further
+ * requests with the same token skip the HMAC and the JSON parsing.
+ */
 @Component
 public class JwtTokenProvider {
     
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    static final String ROLES_CLAIM = "roles";
+    static final String USER_ID_CLAIM = "uid";
+    static final String TENANT_CLAIM = "tenant";
+    static final String USER_VERSION_CLAIM = "ver";
     
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final String BEARER_PREFIX = "Bearer ";
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    
+    public JwtTokenProvider(@Value("${jwt.secret}") String jwtSecret,
+                            @Value("${jwt.expiration}") long jwtExpiration,
+                            @Value("${jwt.verified-cache-size:10000}") long verifiedCacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.jwtExpiration = jwtExpiration;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new UntilTokenExpiry())
+                .build();
     }
     
+    /**
+     * Issues a token for a user authenticated by {@code UserService}, whose principal is an
+     * {@link AuthenticatedUser}.
+     */
     public String generateToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        return generateToken((AuthenticatedUser) authentication.getPrincipal());
+    }
+    
+    public String generateToken(AuthenticatedUser user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
         
         return Jwts.builder()
-                .setSubject(userDetails.getUsername())
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(ROLES_CLAIM, user.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .map(authority -> authority.startsWith(ROLE_PREFIX) ? authority.substring(ROLE_PREFIX.length()) : authority)
+                        .collect(Collectors.toList()))
+                .claim(USER_ID_CLAIM, user.getUserId())
+                .claim(TENANT_CLAIM, user.getTenantId())
+                .claim(USER_VERSION_CLAIM, user.getUserVersion())
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
     
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getSubject();
+    public Duration getTokenLifetime() {
+        return Duration.ofMillis(jwtExpiration);
     }
     
-    public boolean validateToken(String token) {
+    /**
+     * The verified claims of {@code token}, or null when it is not a valid, unexpired access token.
+     */
+    public VerifiedToken verify(String token) {
+        String key = hash(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified != null && !verified.isExpired(Instant.now())) {
+            return verified;
+        }
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            verified = parse(token);
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
+        }
+        verifiedTokens.put(key, verified);
+        return verified;
+    }
+    
+    /**
+     * The bearer token of the request, or null when it has none.
+     */
+    public String resolveToken(HttpServletRequest request) {
+        String bearerToken = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith(BEARER_PREFIX)) {
+            return bearerToken.substring(BEARER_PREFIX.length());
         }
+        return null;
+    }
+    
+    public String getUsernameFromToken(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.getUsername() : null;
+    }
+    
+    public boolean validateToken(String token) {
+        return verify(token) != null;
     }
     
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        
-        return claims.getExpiration();
+        VerifiedToken verified = verify(token);
+        return verified != null ? Date.from(verified.getExpiration()) : null;
     }
     
     public boolean isTokenExpired(String token) {
-        Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+        return verify(token) == null;
+    }
+    
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        Number userVersion = claims.get(USER_VERSION_CLAIM, Number.class);
+        if (claims.getId() == null || roles == null || userId == null || userVersion == null || claims.getExpiration() == null) {
+            throw new MalformedJwtException("Token without id, roles, user id, user version or expiry");
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> new SimpleGrantedAuthority(ROLE_PREFIX + role))
+                .collect(Collectors.toUnmodifiableList());
+        return new VerifiedToken(claims.getId(), claims.getSubject(), authorities, userId.longValue(),
+                claims.get(TENANT_CLAIM, String.class), userVersion.longValue(), claims.getExpiration().toInstant());
+    }
+    
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Keeps a verified token until it expires.
+     */
+    private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+        
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), token.getExpiration()).toNanos());
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.enterprise.ecm.security;
+
+import com.enterprise.ecm.shared.security.AuthenticatedUser;
+import lombok.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The claims of an access token whose signature and expiry have been checked. Immutable, so one
+ * instance is shared by all requests bearing the same token.
+ */
+@Value
+public class VerifiedToken {
+    
+    String tokenId;
+    String username;
+    List<GrantedAuthority> authorities;
+    Long userId;
+    String tenantId;
+    long userVersion;
+    Instant expiration;
+    
+    public boolean isExpired(Instant now) {
+        return !expiration.isAfter(now);
+    }
+    
+    /**
+     * A new authentication for one request; it is mutable, so it is not shared.
+     */
+    public UsernamePasswordAuthenticationToken toAuthentication() {
+        AuthenticatedUser user = new AuthenticatedUser(username, "", true, authorities, userId, tenantId, userVersion);
+        return new UsernamePasswordAuthenticationToken(user, null, authorities);
+    }
+}
@@ -40,7 +40,7 @@ public class WebSecurityConfig implements WebMvcConfigurer {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
                 // Public endpoints
-                .requestMatchers("/auth/login", "/auth/register", "/auth/test").permitAll()
+                .requestMatchers("/auth/login", "/auth/refresh", "/auth/register", "/auth/test").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 
@@ -48,6 +48,7 @@ public class WebSecurityConfig implements WebMvcConfigurer {
                 .requestMatchers("/users/**").hasRole("ADMIN")
                 .requestMatchers("/cases/stats/**").hasRole("ADMIN")
                 .requestMatchers("/users/stats/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/indexadvisor").hasRole("ADMIN")
                 
                 // Authenticated user endpoints
                 .requestMatchers("/auth/me").authenticated()
@@ -66,10 +67,11 @@ public class WebSecurityConfig implements WebMvcConfigurer {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(Arrays.asList("http://localhost:4200", "http://localhost:3000"));
-        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
         configuration.setAllowCredentials(true);
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "ETag",
+                "Accept-Ranges", "Content-Range", "Content-Disposition"));
         
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -0,0 +1,75 @@
+package com.enterprise.ecm.security.revocation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size Bloom filter of strings. {@link #mightContain} is false for every string never
+ * added; for one that was not added it is true with a probability of about the false positive
+ * rate the filter was sized for, as long as at most {@code expectedInsertions} strings are added.
+ * Safe for concurrent use.
+ */
+final class BloomFilter {
+    
+    private final int expectedInsertions;
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    
+    BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.expectedInsertions = expectedInsertions;
+        this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * ln2));
+    }
+    
+    int getExpectedInsertions() {
+        return expectedInsertions;
+    }
+    
+    void put(String value) {
+        long hash = hash(value);
+        long step = mix(hash ^ 0x9e3779b97f4a7c15L);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((hash + i * step) & Long.MAX_VALUE) % bitCount;
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, added) -> current | added);
+            }
+        }
+    }
+    
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        long step = mix(hash ^ 0x9e3779b97f4a7c15L);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((hash + i * step) & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // 64-bit FNV-1a, finished with the MurmurHash3 mixer so that every bit depends on every byte
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+    
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
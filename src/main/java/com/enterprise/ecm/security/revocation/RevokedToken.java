@@ -0,0 +1,47 @@
+package com.enterprise.ecm.security.revocation;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * An access token revoked before it expired, by its id ({@code jti}); kept until it expires.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+    
+    @Id
+    @Column(name = "token_id")
+    private String tokenId;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+    
+    protected RevokedToken() {
+    }
+    
+    public RevokedToken(String tokenId, LocalDateTime expiresAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+        this.revokedAt = LocalDateTime.now();
+    }
+    
+    public String getTokenId() {
+        return tokenId;
+    }
+    
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+}
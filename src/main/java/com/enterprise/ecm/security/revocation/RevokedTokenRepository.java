@@ -0,0 +1,25 @@
+package com.enterprise.ecm.security.revocation;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    
+    @Query("SELECT t FROM RevokedToken t WHERE t.expiresAt >= :now")
+    List<RevokedToken> findUnexpired(@Param("now") LocalDateTime now);
+    
+    @Query("SELECT t.tokenId FROM RevokedToken t WHERE t.expiresAt < :now ORDER BY t.expiresAt")
+    List<String> findExpiredIds(@Param("now") LocalDateTime now, Pageable limit);
+    
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.tokenId IN :tokenIds")
+    int deleteByTokenIds(@Param("tokenIds") List<String> tokenIds);
+}
@@ -0,0 +1,129 @@
+package com.enterprise.ecm.security.revocation;
+
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.transaction.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Access tokens revoked before they expire (on logout), by token id ({@code jti}), so that
+ * {@code JwtAuthenticationFilter} can reject them without a query per request.
+ * <p>
+ * Revocations are stored in {@code revoked_tokens}, and each node holds the unexpired ones in
+ * memory: a Bloom filter, which rules out almost every token that was not revoked with a few bit
+ * lookups, and the exact set of ids, which decides for the few the filter lets through. The
+ * filter is rebuilt from the table every {@code jwt.revocation-refresh-interval}, sized for twice
+ * the revocations held, which also brings in the revocations made on other nodes and drops the
+ * expired ones. Rows are deleted once their token has expired.
+ */
+@Component
+public class TokenRevocationRegistry {
+    
+    private static final int MIN_CAPACITY = 1024;
+    
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final LoggingService loggingService;
+    private final double falsePositiveRate;
+    private final int cleanupBatchSize;
+    
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    
+    public TokenRevocationRegistry(RevokedTokenRepository revokedTokenRepository,
+                                   PlatformTransactionManager transactionManager, LoggingService loggingService,
+                                   @Value("${jwt.revocation-false-positive-rate:0.01}") double falsePositiveRate,
+                                   @Value("${jwt.revocation-cleanup-batch-size:1000}") int cleanupBatchSize) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loggingService = loggingService;
+        this.falsePositiveRate = falsePositiveRate;
+        this.cleanupBatchSize = cleanupBatchSize;
+        this.filter = new BloomFilter(MIN_CAPACITY, falsePositiveRate);
+    }
+    
+    public boolean isRevoked(String tokenId) {
+        return filter.mightContain(tokenId) && revoked.containsKey(tokenId);
+    }
+    
+    /**
+     * Revokes the token {@code tokenId}, which expires at {@code expiresAt}. It is rejected on this
+     * node once the transaction commits, and on the others after their next refresh.
+     */
+    @Transactional
+    public void revoke(String tokenId, Instant expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault())));
+        TransactionCallbacks.afterCommit(() -> add(tokenId, expiresAt));
+    }
+    
+    /**
+     * Reloads the unexpired revocations, made on any node, and rebuilds the filter from them.
+     * Runs at startup and then every {@code jwt.revocation-refresh-interval}.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-refresh-interval:PT1M}")
+    public void refresh() {
+        Instant now = Instant.now();
+        List<RevokedToken> persisted = revokedTokenRepository.findUnexpired(LocalDateTime.ofInstant(now, ZoneId.systemDefault()));
+        synchronized (this) {
+            persisted.forEach(token -> revoked.putIfAbsent(token.getTokenId(),
+                    token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant()));
+            revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+            rebuildFilter();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.revocation-cleanup-interval:PT1H}")
+    public void pruneExpiredRevocations() {
+        pruneExpiredBefore(LocalDateTime.now());
+    }
+    
+    /**
+     * Deletes the revocations of tokens expired before {@code cutoff}, a batch per transaction, and
+     * returns how many there were.
+     */
+    public long pruneExpiredBefore(LocalDateTime cutoff) {
+        long deleted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<String> tokenIds = revokedTokenRepository.findExpiredIds(cutoff, PageRequest.ofSize(cleanupBatchSize));
+                if (!tokenIds.isEmpty()) {
+                    revokedTokenRepository.deleteByTokenIds(tokenIds);
+                }
+                return tokenIds.size();
+            });
+            deleted += batch;
+        } while (batch == cleanupBatchSize);
+        if (deleted > 0) {
+            loggingService.logInfo("Pruned {} expired token revocations", deleted);
+        }
+        return deleted;
+    }
+    
+    // adding and rebuilding are serialized so that no id is added to a filter about to be replaced
+    private synchronized void add(String tokenId, Instant expiresAt) {
+        revoked.put(tokenId, expiresAt);
+        filter.put(tokenId);
+        if (revoked.size() > filter.getExpectedInsertions()) {
+            rebuildFilter();
+        }
+    }
+    
+    private synchronized void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(MIN_CAPACITY, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+}
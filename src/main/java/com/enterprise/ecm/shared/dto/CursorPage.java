@@ -0,0 +1,33 @@
+package com.enterprise.ecm.shared.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A keyset-paged slice of results. Unlike {@link org.springframework.data.domain.Page} it carries an
+ * opaque cursor for the next slice instead of a page number, and the total count is only present
+ * when the client asked for it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalElements;
+    
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        List<R> mapped = content.stream().map(converter).collect(Collectors.toList());
+        return new CursorPage<>(mapped, size, nextCursor, hasNext, totalElements);
+    }
+}
@@ -0,0 +1,179 @@
+package com.enterprise.ecm.shared.event;
+
+import com.enterprise.ecm.shared.logging.LoggingService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.modulith.events.core.EventPublicationRepository;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.modulith.events.core.PublicationTargetIdentifier;
+import org.springframework.modulith.events.core.TargetEventPublication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * The event publication table, with completions written in batches.
+ * <p>
+ * Spring Modulith marks each publication completed with its own UPDATE, matched on the
+ * serialized event. Here completions are queued and written every
+ * {@code domain-events.completion-flush-interval}, or as soon as
+ * {@code domain-events.completion-batch-size} are queued: one UPDATE per listener and batch.
+ * Completions still queued when the node stops are lost, so those events are delivered again;
+ * listeners are at-least-once either way.
+ */
+@Primary
+@Component
+public class BatchingEventPublicationRepository implements EventPublicationRepository {
+    
+    // bound on the IN list of one UPDATE
+    private static final int MAX_STATEMENT_SIZE = 100;
+    
+    private static final String MARK_COMPLETED = "UPDATE JpaEventPublication p SET p.completionDate = :completionDate " +
+            "WHERE p.listenerId = :listenerId AND p.serializedEvent IN :serializedEvents AND p.completionDate IS NULL";
+    
+    // Spring Modulith's JPA repository, which this one replaces as the primary
+    private final EventPublicationRepository delegate;
+    private final EventSerializer serializer;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final LoggingService loggingService;
+    private final int batchSize;
+    
+    private final Queue<Completion> completions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    
+    public BatchingEventPublicationRepository(@Qualifier("jpaEventPublicationRepository") EventPublicationRepository delegate, EventSerializer serializer,
+                                              EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                              LoggingService loggingService,
+                                              @Value("${domain-events.completion-batch-size:100}") int batchSize) {
+        this.delegate = delegate;
+        this.serializer = serializer;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // completions are written on listener threads, whatever transaction those are in
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loggingService = loggingService;
+        this.batchSize = batchSize;
+    }
+    
+    @Override
+    public TargetEventPublication create(TargetEventPublication publication) {
+        return delegate.create(publication);
+    }
+    
+    @Override
+    public void markCompleted(Object event, PublicationTargetIdentifier identifier, Instant completionDate) {
+        completions.add(new Completion(serializer.serialize(event).toString(), identifier.getValue(), completionDate));
+        if (queued.incrementAndGet() >= batchSize) {
+            flush();
+        }
+    }
+    
+    /**
+     * Writes the queued completions.
+     */
+    @Scheduled(fixedDelayString = "${domain-events.completion-flush-interval:PT1S}")
+    public void flush() {
+        List<Completion> batch = new ArrayList<>();
+        for (Completion completion; (completion = completions.poll()) != null; ) {
+            batch.add(completion);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        queued.addAndGet(-batch.size());
+        Map<String, List<Completion>> byListener = batch.stream().collect(Collectors.groupingBy(completion -> completion.listenerId));
+        try {
+            transactionTemplate.executeWithoutResult(status -> byListener.forEach((listenerId, listenerCompletions) -> {
+                for (int from = 0; from < listenerCompletions.size(); from += MAX_STATEMENT_SIZE) {
+                    List<Completion> chunk = listenerCompletions.subList(from, Math.min(from + MAX_STATEMENT_SIZE, listenerCompletions.size()));
+                    Instant completionDate = chunk.stream().map(completion -> completion.completionDate)
+                            .max(Comparator.naturalOrder()).orElseThrow();
+                    entityManager.createQuery(MARK_COMPLETED)
+                            .setParameter("completionDate", completionDate)
+                            .setParameter("listenerId", listenerId)
+                            .setParameter("serializedEvents", chunk.stream().map(completion -> completion.serializedEvent).distinct().toList())
+                            .executeUpdate();
+                }
+            }));
+        } catch (RuntimeException e) {
+            loggingService.logWarn("Could not mark {} event publications completed; they will be delivered again: {}",
+                    batch.size(), e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+    
+    // lookups of incomplete publications see every completion written so far
+    
+    @Override
+    public List<TargetEventPublication> findIncompletePublications() {
+        flush();
+        return delegate.findIncompletePublications();
+    }
+    
+    @Override
+    public List<TargetEventPublication> findIncompletePublicationsPublishedBefore(Instant instant) {
+        flush();
+        return delegate.findIncompletePublicationsPublishedBefore(instant);
+    }
+    
+    @Override
+    public Optional<TargetEventPublication> findIncompletePublicationsByEventAndTargetIdentifier(Object event, PublicationTargetIdentifier targetIdentifier) {
+        flush();
+        return delegate.findIncompletePublicationsByEventAndTargetIdentifier(event, targetIdentifier);
+    }
+    
+    @Override
+    public List<TargetEventPublication> findCompletedPublications() {
+        flush();
+        return delegate.findCompletedPublications();
+    }
+    
+    @Override
+    public void deletePublications(List<UUID> identifiers) {
+        delegate.deletePublications(identifiers);
+    }
+    
+    @Override
+    public void deleteCompletedPublications() {
+        delegate.deleteCompletedPublications();
+    }
+    
+    @Override
+    public void deleteCompletedPublicationsBefore(Instant instant) {
+        delegate.deleteCompletedPublicationsBefore(instant);
+    }
+    
+    private static class Completion {
+        final String serializedEvent;
+        final String listenerId;
+        final Instant completionDate;
+        
+        Completion(String serializedEvent, String listenerId, Instant completionDate) {
+            this.serializedEvent = serializedEvent;
+            this.listenerId = listenerId;
+            this.completionDate = completionDate;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.enterprise.ecm.shared.event;
+
+import com.enterprise.ecm.shared.logging.LoggingService;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.modulith.events.IncompleteEventPublications;
+import org.springframework.modulith.events.core.EventPublicationRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps the event publication table small: completed publications are deleted once older than
+ * {@code domain-events.retention}, a batch per transaction so no run holds many row locks, and
+ * publications still incomplete after {@code domain-events.resubmit-after} (their listener
+ * failed, or the executor was saturated) are delivered again.
+ * <p>
+ * Like the rest of the event setup this assumes a single node; with several, each would
+ * resubmit the others' incomplete publications.
+ */
+@Component
+public class EventPublicationMaintenance {
+    
+    private static final String COMPLETED_BEFORE = "SELECT p.id FROM JpaEventPublication p " +
+            "WHERE p.completionDate < :cutoff ORDER BY p.completionDate";
+    
+    private final EventPublicationRepository eventPublicationRepository;
+    private final IncompleteEventPublications incompleteEventPublications;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final LoggingService loggingService;
+    private final Duration retention;
+    private final Duration resubmitAfter;
+    private final int pruneBatchSize;
+    
+    public EventPublicationMaintenance(EventPublicationRepository eventPublicationRepository,
+                                       IncompleteEventPublications incompleteEventPublications,
+                                       EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                       LoggingService loggingService,
+                                       @Value("${domain-events.retention:P7D}") Duration retention,
+                                       @Value("${domain-events.resubmit-after:PT5M}") Duration resubmitAfter,
+                                       @Value("${domain-events.prune-batch-size:1000}") int pruneBatchSize) {
+        this.eventPublicationRepository = eventPublicationRepository;
+        this.incompleteEventPublications = incompleteEventPublications;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loggingService = loggingService;
+        this.retention = retention;
+        this.resubmitAfter = resubmitAfter;
+        this.pruneBatchSize = pruneBatchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${domain-events.prune-interval:PT1H}")
+    public void pruneCompletedPublications() {
+        pruneCompletedBefore(Instant.now().minus(retention));
+    }
+    
+    /**
+     * Deletes the publications completed before {@code cutoff} and returns how many there were.
+     */
+    public long pruneCompletedBefore(Instant cutoff) {
+        long deleted = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> {
+                List<UUID> ids = entityManager.createQuery(COMPLETED_BEFORE, UUID.class)
+                        .setParameter("cutoff", cutoff)
+                        .setMaxResults(pruneBatchSize)
+                        .getResultList();
+                if (!ids.isEmpty()) {
+                    eventPublicationRepository.deletePublications(ids);
+                }
+                return ids.size();
+            });
+            deleted += batch;
+        } while (batch == pruneBatchSize);
+        if (deleted > 0) {
+            loggingService.logInfo("Pruned {} completed event publications", deleted);
+        }
+        return deleted;
+    }
+    
+    @Scheduled(fixedDelayString = "${domain-events.resubmit-interval:PT5M}",
+            initialDelayString = "${domain-events.resubmit-interval:PT5M}")
+    public void resubmitIncompletePublications() {
+        incompleteEventPublications.resubmitIncompletePublicationsOlderThan(resubmitAfter);
+    }
+}
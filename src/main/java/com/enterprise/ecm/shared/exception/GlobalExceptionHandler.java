@@ -8,6 +8,8 @@ import jakarta.validation.ConstraintViolationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -75,7 +77,7 @@ public class GlobalExceptionHandler {
         }
         
         loggingService.logWarn("Validation error: {}", ex.getMessage(),
-                Map.of("path", request.getRequestURI(), "fieldErrors", ex.getFieldErrors()));
+                Map.of("path", request.getRequestURI(), "fieldErrors", ex.hasFieldErrors() ? ex.getFieldErrors() : Map.of()));
         
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorBuilder.build());
     }
@@ -98,6 +100,43 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
     
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+            PreconditionFailedException ex, HttpServletRequest request) {
+        
+        ErrorResponse errorResponse = buildErrorResponse(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                ex.getFormattedUserMessage(),
+                request,
+                null
+        );
+        
+        loggingService.logInfo("Precondition failed: {}", ex.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+    
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequestsException(
+            TooManyRequestsException ex, HttpServletRequest request) {
+        
+        ErrorResponse errorResponse = buildErrorResponse(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                ex.getFormattedUserMessage(),
+                request,
+                null
+        );
+        
+        loggingService.logWarn("Request shed: {}", ex.getMessage(),
+                Map.of("path", request.getRequestURI(), "method", request.getMethod()));
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+                .body(errorResponse);
+    }
+    
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ErrorResponse> handleAuthenticationException(
             AuthenticationException ex, HttpServletRequest request) {
@@ -314,6 +353,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
     
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleObjectOptimisticLockingFailureException(
+            ObjectOptimisticLockingFailureException ex, HttpServletRequest request) {
+        
+        ErrorResponse errorResponse = buildErrorResponse(
+                "CONCURRENT_MODIFICATION",
+                "Concurrent modification of " + ex.getPersistentClassName() + " " + ex.getIdentifier(),
+                "The resource was modified by someone else. Reload it and try again.",
+                request,
+                null
+        );
+        
+        loggingService.logWarn("Concurrent modification: {}", ex.getMessage(),
+                Map.of("path", request.getRequestURI(), "method", request.getMethod()));
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+    
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex, HttpServletRequest request) {
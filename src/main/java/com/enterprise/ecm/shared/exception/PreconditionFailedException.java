@@ -0,0 +1,16 @@
+package com.enterprise.ecm.shared.exception;
+
+/**
+ * Exception thrown when a conditional request ({@code If-Match}) does not match the current
+ * version of the resource.
+ */
+public class PreconditionFailedException extends BaseException {
+    
+    public PreconditionFailedException(String message, String userMessage) {
+        super(message, "PRECONDITION_FAILED", userMessage);
+    }
+    
+    public PreconditionFailedException(String message, Throwable cause, String userMessage) {
+        super(message, cause, "PRECONDITION_FAILED", userMessage);
+    }
+}
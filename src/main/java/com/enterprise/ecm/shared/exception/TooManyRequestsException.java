@@ -0,0 +1,20 @@
+package com.enterprise.ecm.shared.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a request is shed because the server, or the caller, has too many such
+ * requests in progress. The client may retry after {@link #getRetryAfter()}.
+ */
+@Getter
+public class TooManyRequestsException extends BaseException {
+    
+    private final Duration retryAfter;
+    
+    public TooManyRequestsException(String message, String userMessage, Duration retryAfter) {
+        super(message, "TOO_MANY_REQUESTS", userMessage);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,159 @@
+package com.enterprise.ecm.shared.http;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes a file as the response body, honouring a single {@code Range} (and {@code If-Range}).
+ * On Tomcat the file is handed to the connector, which sends it with {@code sendfile} without
+ * copying it through the heap. Elsewhere it is written with {@link FileChannel#transferTo} to a
+ * channel over the servlet stream, which is not a socket channel, so the bytes are copied through
+ * a buffer as by any stream copy. Requests for several ranges are answered with the whole file,
+ * which RFC 9110 allows.
+ */
+public final class FileResponses {
+    
+    // Tomcat's sendfile contract, as used by its DefaultServlet
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    private FileResponses() {}
+    
+    /**
+     * Writes {@code file} with status 200, 206 or 416. Content type, disposition and
+     * validators are the caller's to set beforehand; {@code eTag} is only compared to
+     * {@code If-Range}.
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response, Path file, String eTag) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] range = prepare(request, response, channel.size(), eTag);
+            if (range == null) {
+                return;
+            }
+            long start = range[0];
+            long end = range[1];
+            
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+            // not zero-copy: the servlet stream is wrapped, so transferTo copies through a buffer
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start, remaining = end - start + 1; remaining > 0; ) {
+                long written = channel.transferTo(position, remaining, out);
+                position += written;
+                remaining -= written;
+            }
+            response.flushBuffer();
+        }
+    }
+    
+    /**
+     * Writes {@code length} bytes read from {@code content} in the same way, for content that
+     * is produced as it is read (e.g. decompressed) and so cannot be handed to the connector.
+     * A range is served by skipping to its start.
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response, long length, String eTag,
+                             InputStreamSource content) throws IOException {
+        long[] range = prepare(request, response, length, eTag);
+        if (range == null) {
+            return;
+        }
+        try (InputStream in = content.getInputStream()) {
+            StreamUtils.copyRange(in, response.getOutputStream(), range[0], range[1]);
+        }
+        response.flushBuffer();
+    }
+    
+    /**
+     * Whether the request's {@code Accept-Encoding} allows {@code coding}, explicitly or by
+     * {@code *}, with a non-zero quality.
+     */
+    public static boolean acceptsEncoding(HttpServletRequest request, String coding) {
+        Double wildcard = null;
+        for (String header : StringUtils.commaDelimitedListToStringArray(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            String[] parts = header.split(";");
+            String name = parts[0].trim();
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(coding)) {
+                return quality > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return wildcard != null && wildcard > 0;
+    }
+    
+    /**
+     * Sets the status and headers for the requested part of {@code length} bytes. Returns its
+     * first and last position, or null if there is no body to write.
+     */
+    private static long[] prepare(HttpServletRequest request, HttpServletResponse response, long length, String eTag) {
+        long start = 0;
+        long end = length - 1;
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        
+        HttpRange range = requestedRange(request, eTag);
+        if (range != null) {
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return null;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return null;
+        }
+        return new long[] {start, end};
+    }
+    
+    private static HttpRange requestedRange(HttpServletRequest request, String eTag) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(eTag)) {
+            // the client's partial copy is stale: send the whole file
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(request.getHeader(HttpHeaders.RANGE));
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            // an unparseable Range is ignored
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.enterprise.ecm.shared.http;
+
+import com.enterprise.ecm.shared.exception.PreconditionFailedException;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Entity tags derived from the {@code @Version} of an entity, e.g. {@code "3"}.
+ */
+public final class VersionETag {
+    
+    private VersionETag() {}
+    
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+    
+    /**
+     * Returns the versions an {@code If-Match} header accepts, or null when the header is absent
+     * or {@code *}. The header may list several tags, and matches when any of them names the
+     * current version. If-Match compares strongly (RFC 9110), so weak tags never match; a header
+     * without any strong version tag is rejected as a failed precondition.
+     */
+    public static Set<Long> parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String entry : ifMatch.split(",")) {
+            String tag = entry.trim();
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // not one of our tags, so it cannot match
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match names no strong version tag: " + ifMatch,
+                    "The If-Match header does not match the current version");
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,135 @@
+package com.enterprise.ecm.shared.logging;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Response wrapper that writes straight through to the client while keeping a copy of at most
+ * {@code limit} bytes for logging. Unlike {@link org.springframework.web.util.ContentCachingResponseWrapper}
+ * it never buffers the whole body, so streamed and large responses are not held in memory.
+ */
+class BodyCapturingResponseWrapper extends HttpServletResponseWrapper {
+    
+    private final byte[] captured;
+    private int capturedLength;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+    
+    BodyCapturingResponseWrapper(HttpServletResponse response, int limit) {
+        super(response);
+        this.captured = new byte[limit];
+    }
+    
+    byte[] getCapturedContent() {
+        return Arrays.copyOf(captured, capturedLength);
+    }
+    
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CapturingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+    
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new CapturingWriter(super.getWriter()));
+        }
+        return writer;
+    }
+    
+    private void capture(byte[] bytes, int offset, int length) {
+        int count = Math.min(length, captured.length - capturedLength);
+        if (count > 0) {
+            System.arraycopy(bytes, offset, captured, capturedLength, count);
+            capturedLength += count;
+        }
+    }
+    
+    private Charset responseCharset() {
+        String encoding = getCharacterEncoding();
+        return encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+    }
+    
+    private final class CapturingOutputStream extends ServletOutputStream {
+        
+        private final ServletOutputStream delegate;
+        
+        private CapturingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            if (capturedLength < captured.length) {
+                captured[capturedLength++] = (byte) b;
+            }
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            capture(b, off, len);
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+        
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+        
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+    
+    private final class CapturingWriter extends Writer {
+        
+        private final Writer delegate;
+        
+        private CapturingWriter(Writer delegate) {
+            this.delegate = delegate;
+        }
+        
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            delegate.write(cbuf, off, len);
+            if (capturedLength < captured.length) {
+                byte[] bytes = new String(cbuf, off, len).getBytes(responseCharset());
+                capture(bytes, 0, bytes.length);
+            }
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -7,7 +7,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -33,8 +32,9 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
         request.setAttribute("traceId", traceId);
         long startTime = System.currentTimeMillis();
 
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
-        ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper(response);
+        // Both wrappers keep at most MAX_BODY_LENGTH bytes so uploads and streamed downloads are not buffered in memory
+        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request, MAX_BODY_LENGTH);
+        BodyCapturingResponseWrapper wrappedResponse = new BodyCapturingResponseWrapper(response, MAX_BODY_LENGTH);
 
         try {
             loggingService.logInfo("Incoming request: {} {}?{} [traceId={}]", wrappedRequest.getMethod(), wrappedRequest.getRequestURI(), wrappedRequest.getQueryString(), traceId);
@@ -42,11 +42,10 @@ public class RequestResponseLoggingFilter extends OncePerRequestFilter {
         } finally {
             long duration = System.currentTimeMillis() - startTime;
             String requestBody = getContentAsString(wrappedRequest.getContentAsByteArray(), wrappedRequest.getContentType());
-            String responseBody = getContentAsString(wrappedResponse.getContentAsByteArray(), wrappedResponse.getContentType());
+            String responseBody = getContentAsString(wrappedResponse.getCapturedContent(), wrappedResponse.getContentType());
             loggingService.logInfo("Request body: {}", maskSensitive(requestBody));
             loggingService.logInfo("Response: {} {} [status={}, traceId={}, duration={}ms]", wrappedRequest.getMethod(), wrappedRequest.getRequestURI(), wrappedResponse.getStatus(), traceId, duration);
             loggingService.logInfo("Response body: {}", maskSensitive(responseBody));
-            wrappedResponse.copyBodyToResponse();
         }
     }
 
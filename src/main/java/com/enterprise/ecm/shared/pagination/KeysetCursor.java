@@ -0,0 +1,68 @@
+package com.enterprise.ecm.shared.pagination;
+
+import com.enterprise.ecm.shared.dto.CursorPage;
+import com.enterprise.ecm.shared.exception.ValidationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Encodes and decodes the opaque cursors used for keyset (seek) pagination.
+ * A cursor identifies the last row of the previous slice by its id; the next slice
+ * continues strictly below it in {@code id DESC} order.
+ */
+public final class KeysetCursor {
+    
+    private static final String PREFIX = "id:";
+    
+    private KeysetCursor() {}
+    
+    public static String encode(Long lastId) {
+        String raw = PREFIX + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Returns the id to seek below, or {@link Long#MAX_VALUE} for the first slice
+     * (a {@code null} or blank cursor).
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw invalid(cursor);
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw invalid(cursor);
+        }
+    }
+    
+    /**
+     * Fetches one slice of at most {@code limit} rows below {@code cursor} with an extra look-ahead
+     * row; the extra row only signals that another slice exists and is not returned.
+     * {@code query} receives the id to seek below and a {@code PageRequest.of(0, limit + 1)}.
+     */
+    public static <T> CursorPage<T> slice(String cursor, int limit, BiFunction<Long, Pageable, List<T>> query,
+                                          Function<T, Long> idOf, LongSupplier totalSupplier) {
+        List<T> rows = query.apply(decode(cursor), PageRequest.of(0, limit + 1));
+        boolean hasNext = rows.size() > limit;
+        List<T> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? encode(idOf.apply(content.get(content.size() - 1))) : null;
+        Long total = totalSupplier != null ? totalSupplier.getAsLong() : null;
+        return new CursorPage<>(content, content.size(), nextCursor, hasNext, total);
+    }
+    
+    private static ValidationException invalid(String cursor) {
+        return new ValidationException("Invalid pagination cursor: " + cursor, "The pagination cursor is invalid or has expired");
+    }
+}
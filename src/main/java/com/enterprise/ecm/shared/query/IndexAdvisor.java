@@ -0,0 +1,283 @@
+package com.enterprise.ecm.shared.query;
+
+import com.enterprise.ecm.shared.logging.LoggingService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.model.domain.EntityDomainType;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Recommends composite indexes from the queries the application actually runs.
+ * <p>
+ * Hibernate's query statistics record every executed JPQL query with its execution count and
+ * time. Each query is reduced to its {@link QueryShape} and turned into the index that serves
+ * it: the equality columns first, then the sort columns, or the first range column when the
+ * query is not sorted. Shapes an existing index already serves (by leftmost prefix) are dropped,
+ * as are lookups by primary key; the rest are merged per index and ranked by total time.
+ */
+@Component
+@ConditionalOnProperty(name = "query-advisor.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class IndexAdvisor {
+    
+    private static final int MAX_QUERIES_PER_RECOMMENDATION = 5;
+    
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSource dataSource;
+    private final LoggingService loggingService;
+    
+    public IndexAdvisorReport report() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        List<ObservedQuery> observed = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            if (queryStatistics.getExecutionCount() > 0) {
+                observed.add(new ObservedQuery(query, queryStatistics.getExecutionCount(),
+                        queryStatistics.getExecutionTotalTime(), queryStatistics.getExecutionMaxTime()));
+            }
+        }
+        return new IndexAdvisorReport(statistics.isStatisticsEnabled(), observed.size(),
+                recommend(observed, new DatabaseSchema(sessionFactory)));
+    }
+    
+    static List<IndexRecommendation> recommend(List<ObservedQuery> queries, Schema schema) {
+        Map<List<String>, Candidate> candidates = new LinkedHashMap<>();
+        for (ObservedQuery query : queries) {
+            QueryShape shape = QueryShape.parse(query.getQuery());
+            String table = shape != null ? schema.tableOf(shape.getEntityName()) : null;
+            if (table == null) {
+                continue;
+            }
+            List<String> equality = columns(schema, shape.getEntityName(), shape.getEqualityAttributes());
+            if (equality.contains(schema.primaryKeyOf(shape.getEntityName()))) {
+                continue;
+            }
+            List<String> columns = new ArrayList<>(equality);
+            List<String> tail = shape.getSortAttributes().isEmpty()
+                    ? columns(schema, shape.getEntityName(), shape.getRangeAttributes()).stream().limit(1).toList()
+                    : columns(schema, shape.getEntityName(), shape.getSortAttributes());
+            tail.stream().filter(column -> !columns.contains(column)).forEach(columns::add);
+            if (columns.isEmpty() || columns.equals(List.of(schema.primaryKeyOf(shape.getEntityName())))
+                    || schema.indexesOf(table).stream().anyMatch(index -> serves(index, columns, equality.size()))) {
+                continue;
+            }
+            List<String> key = new ArrayList<>(columns);
+            key.add(0, table);
+            candidates.computeIfAbsent(key, k -> new Candidate(table, columns, equality.size())).add(query);
+        }
+        
+        // a longer index serves every candidate that is its prefix
+        List<Candidate> merged = new ArrayList<>(candidates.values());
+        merged.sort(Comparator.comparingInt((Candidate candidate) -> candidate.columns.size()).reversed());
+        List<Candidate> kept = new ArrayList<>();
+        for (Candidate candidate : merged) {
+            Candidate wider = kept.stream()
+                    .filter(other -> other.table.equals(candidate.table) && serves(other.columns, candidate.columns, candidate.equalityColumns))
+                    .findFirst().orElse(null);
+            if (wider != null) {
+                wider.addAll(candidate);
+            } else {
+                kept.add(candidate);
+            }
+        }
+        return kept.stream()
+                .sorted(Comparator.comparingLong((Candidate candidate) -> candidate.totalTimeMs)
+                        .thenComparingLong(candidate -> candidate.executions).reversed())
+                .map(Candidate::toRecommendation)
+                .toList();
+    }
+    
+    /**
+     * Whether {@code index} can serve a query needing {@code columns}, whose first
+     * {@code equalityColumns} may appear in any order.
+     */
+    static boolean serves(List<String> index, List<String> columns, int equalityColumns) {
+        if (index.size() < columns.size()) {
+            return false;
+        }
+        return new HashSet<>(index.subList(0, equalityColumns)).equals(new HashSet<>(columns.subList(0, equalityColumns)))
+                && index.subList(equalityColumns, columns.size()).equals(columns.subList(equalityColumns, columns.size()));
+    }
+    
+    private static List<String> columns(Schema schema, String entityName, List<String> attributes) {
+        List<String> columns = new ArrayList<>();
+        for (String attribute : attributes) {
+            String column = schema.columnOf(entityName, attribute);
+            if (column == null) {
+                // an index can only deliver the attributes before an unmapped one
+                break;
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+    
+    /**
+     * What the advisor needs to know about the mapping and the database.
+     */
+    interface Schema {
+        
+        String tableOf(String entityName);
+        
+        String primaryKeyOf(String entityName);
+        
+        /** The single column mapped to {@code attribute}, or null. */
+        String columnOf(String entityName, String attribute);
+        
+        /** The columns of each index on {@code table}, in index order. */
+        List<List<String>> indexesOf(String table);
+    }
+    
+    @Value
+    static class ObservedQuery {
+        String query;
+        long executions;
+        long totalTimeMs;
+        long maxTimeMs;
+    }
+    
+    private static class Candidate {
+        
+        private final String table;
+        private final List<String> columns;
+        private final int equalityColumns;
+        private final List<String> queries = new ArrayList<>();
+        private long executions;
+        private long totalTimeMs;
+        private long maxTimeMs;
+        
+        Candidate(String table, List<String> columns, int equalityColumns) {
+            this.table = table;
+            this.columns = List.copyOf(columns);
+            this.equalityColumns = equalityColumns;
+        }
+        
+        void add(ObservedQuery query) {
+            queries.add(query.getQuery());
+            executions += query.getExecutions();
+            totalTimeMs += query.getTotalTimeMs();
+            maxTimeMs = Math.max(maxTimeMs, query.getMaxTimeMs());
+        }
+        
+        void addAll(Candidate other) {
+            queries.addAll(other.queries);
+            executions += other.executions;
+            totalTimeMs += other.totalTimeMs;
+            maxTimeMs = Math.max(maxTimeMs, other.maxTimeMs);
+        }
+        
+        IndexRecommendation toRecommendation() {
+            String indexName = "idx_" + table + "_" + String.join("_", columns);
+            StringBuilder changeSet = new StringBuilder()
+                    .append("<createIndex tableName=\"").append(table).append("\" indexName=\"").append(indexName).append("\">\n");
+            columns.forEach(column -> changeSet.append("    <column name=\"").append(column).append("\"/>\n"));
+            changeSet.append("</createIndex>");
+            return new IndexRecommendation(table, columns, indexName, executions, totalTimeMs, maxTimeMs,
+                    queries.stream().limit(MAX_QUERIES_PER_RECOMMENDATION).toList(), changeSet.toString());
+        }
+    }
+    
+    /**
+     * Resolves entities through the Hibernate mapping and indexes through JDBC metadata.
+     */
+    private class DatabaseSchema implements Schema {
+        
+        private final SessionFactoryImplementor sessionFactory;
+        private final Map<String, List<List<String>>> indexes = new HashMap<>();
+        
+        DatabaseSchema(SessionFactoryImplementor sessionFactory) {
+            this.sessionFactory = sessionFactory;
+        }
+        
+        @Override
+        public String tableOf(String entityName) {
+            AbstractEntityPersister persister = persister(entityName);
+            if (persister == null) {
+                return null;
+            }
+            String table = persister.getRootTableName();
+            return table.substring(table.lastIndexOf('.') + 1).replace("\"", "").toLowerCase(Locale.ROOT);
+        }
+        
+        @Override
+        public String primaryKeyOf(String entityName) {
+            AbstractEntityPersister persister = persister(entityName);
+            String[] columns = persister != null ? persister.getIdentifierColumnNames() : null;
+            return columns != null && columns.length == 1 ? columns[0].toLowerCase(Locale.ROOT) : null;
+        }
+        
+        @Override
+        public String columnOf(String entityName, String attribute) {
+            AbstractEntityPersister persister = persister(entityName);
+            if (persister == null) {
+                return null;
+            }
+            try {
+                String[] columns = attribute.equals(persister.getIdentifierPropertyName())
+                        ? persister.getIdentifierColumnNames()
+                        : persister.toColumns(attribute);
+                return columns.length == 1 ? columns[0].toLowerCase(Locale.ROOT) : null;
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+        
+        @Override
+        public List<List<String>> indexesOf(String table) {
+            return indexes.computeIfAbsent(table, this::readIndexes);
+        }
+        
+        private List<List<String>> readIndexes(String table) {
+            Map<String, TreeMap<Short, String>> columnsByIndex = new HashMap<>();
+            try (Connection connection = dataSource.getConnection()) {
+                DatabaseMetaData metaData = connection.getMetaData();
+                String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+                try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), name, false, true)) {
+                    while (rows.next()) {
+                        String indexName = rows.getString("INDEX_NAME");
+                        String column = rows.getString("COLUMN_NAME");
+                        if (indexName != null && column != null) {
+                            columnsByIndex.computeIfAbsent(indexName, k -> new TreeMap<>())
+                                    .put(rows.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                loggingService.logError("Could not read the indexes of table " + table, e);
+            }
+            return columnsByIndex.values().stream().map(columns -> List.copyOf(columns.values())).toList();
+        }
+        
+        private AbstractEntityPersister persister(String entityName) {
+            EntityDomainType<?> entityType = sessionFactory.getJpaMetamodel().entity(entityName);
+            if (entityType == null) {
+                return null;
+            }
+            EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityType.getJavaType());
+            return persister instanceof AbstractEntityPersister entityPersister ? entityPersister : null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.enterprise.ecm.shared.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code GET /actuator/indexadvisor}: missing composite indexes, most expensive first.
+ */
+@Component
+@ConditionalOnProperty(name = "query-advisor.enabled", havingValue = "true")
+@Endpoint(id = "indexadvisor")
+@RequiredArgsConstructor
+public class IndexAdvisorEndpoint {
+    
+    private final IndexAdvisor indexAdvisor;
+    
+    @ReadOperation
+    public IndexAdvisorReport report() {
+        return indexAdvisor.report();
+    }
+}
@@ -0,0 +1,13 @@
+package com.enterprise.ecm.shared.query;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class IndexAdvisorReport {
+    
+    boolean statisticsEnabled;
+    int observedQueries;
+    List<IndexRecommendation> recommendations;
+}
@@ -0,0 +1,22 @@
+package com.enterprise.ecm.shared.query;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A composite index that no existing index can stand in for, with the cost of the observed
+ * queries it would serve and the Liquibase change that creates it.
+ */
+@Value
+public class IndexRecommendation {
+    
+    String table;
+    List<String> columns;
+    String indexName;
+    long executions;
+    long totalTimeMs;
+    long maxTimeMs;
+    List<String> queries;
+    String changeSet;
+}
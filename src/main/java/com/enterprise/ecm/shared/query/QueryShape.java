@@ -0,0 +1,120 @@
+package com.enterprise.ecm.shared.query;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The parts of a JPQL query an index can serve: the root entity, the attributes of the root
+ * compared for equality ({@code =}, {@code IN}, {@code IS NULL}), compared as a range
+ * ({@code <}, {@code <=}, {@code >}, {@code >=}, {@code BETWEEN}) and sorted on. Predicates no
+ * B-tree index can seek on (functions, {@code LIKE}, {@code OR}, {@code NOT IN}, {@code MEMBER OF},
+ * {@code IS NOT NULL}) are left out.
+ */
+@Value
+public class QueryShape {
+    
+    private static final Pattern FROM = Pattern.compile("\\bfrom\\s+(\\w+)\\s+(?:as\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern CLAUSE_END = Pattern.compile("\\b(group\\s+by|having|order\\s+by)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern ORDER_BY = Pattern.compile("\\border\\s+by\\s+(.+)$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern AND = Pattern.compile("\\s+and\\s+", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COMPARISON = Pattern.compile("^(\\S+?)\\s*(=|<>|!=|<=|>=|<|>|\\bin\\b)\\s*(.+)$", Pattern.CASE_INSENSITIVE);
+    
+    String entityName;
+    List<String> equalityAttributes;
+    List<String> rangeAttributes;
+    List<String> sortAttributes;
+    
+    /**
+     * Parses the shape of a JPQL query, or returns null for statements that are not a single
+     * entity query (inserts, updates, native SQL).
+     */
+    public static QueryShape parse(String jpql) {
+        String query = jpql.replaceAll("\\s+", " ").trim();
+        if (!query.toLowerCase(Locale.ROOT).startsWith("select ") && !query.toLowerCase(Locale.ROOT).startsWith("from ")) {
+            return null;
+        }
+        Matcher from = FROM.matcher(query);
+        if (!from.find()) {
+            return null;
+        }
+        String entityName = from.group(1);
+        Pattern attribute = Pattern.compile("^" + Pattern.quote(from.group(2)) + "\\.(\\w+(?:\\.\\w+)*)$");
+        
+        List<String> equality = new ArrayList<>();
+        List<String> range = new ArrayList<>();
+        int where = indexOfWord(query, "where", from.end());
+        if (where >= 0) {
+            Matcher end = CLAUSE_END.matcher(query);
+            String condition = end.find(where) ? query.substring(where + 5, end.start()) : query.substring(where + 5);
+            for (String predicate : AND.split(condition.trim())) {
+                classify(predicate.trim(), attribute, equality, range);
+            }
+        }
+        
+        List<String> sort = new ArrayList<>();
+        Matcher orderBy = ORDER_BY.matcher(query);
+        if (orderBy.find()) {
+            for (String item : orderBy.group(1).split(",")) {
+                String expression = item.trim().split(" ")[0];
+                Matcher matcher = attribute.matcher(expression);
+                if (!matcher.matches()) {
+                    // a sort on an expression ends what an index can deliver in order
+                    break;
+                }
+                sort.add(matcher.group(1));
+            }
+        }
+        return new QueryShape(entityName, List.copyOf(equality), List.copyOf(range), List.copyOf(sort));
+    }
+    
+    private static void classify(String predicate, Pattern attribute, List<String> equality, List<String> range) {
+        String lower = predicate.toLowerCase(Locale.ROOT);
+        if (predicate.startsWith("(") || lower.contains(" or ") || lower.contains(" not ")
+                || lower.contains(" like ") || lower.contains(" member of ")) {
+            return;
+        }
+        String[] tokens = predicate.split(" ");
+        if (lower.endsWith(" is null") && tokens.length == 3) {
+            add(tokens[0], attribute, equality);
+            return;
+        }
+        if (lower.contains(" between ")) {
+            add(tokens[0], attribute, range);
+            return;
+        }
+        Matcher comparison = COMPARISON.matcher(predicate);
+        if (!comparison.matches()) {
+            return;
+        }
+        String left = comparison.group(1);
+        String operator = comparison.group(2).toLowerCase(Locale.ROOT);
+        String right = comparison.group(3).trim();
+        if (!attribute.matcher(left).matches() && attribute.matcher(right).matches() && !operator.equals("in")) {
+            // ":value = c.attribute"
+            String swapped = left;
+            left = right;
+            right = swapped;
+        }
+        if (attribute.matcher(right).matches() || operator.equals("<>") || operator.equals("!=")) {
+            return;
+        }
+        add(left, attribute, operator.equals("=") || operator.equals("in") ? equality : range);
+    }
+    
+    private static void add(String expression, Pattern attribute, List<String> target) {
+        Matcher matcher = attribute.matcher(expression);
+        if (matcher.matches() && !target.contains(matcher.group(1))) {
+            target.add(matcher.group(1));
+        }
+    }
+    
+    private static int indexOfWord(String query, String word, int from) {
+        Matcher matcher = Pattern.compile("\\b" + word + "\\b", Pattern.CASE_INSENSITIVE).matcher(query);
+        return matcher.find(from) ? matcher.start() : -1;
+    }
+}
@@ -0,0 +1,38 @@
+package com.enterprise.ecm.shared.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * An authenticated user together with their id, their tenant and the version of the user record
+ * the credentials were checked against. Tokens carry all three, so requests bearing a token are
+ * authenticated without reading the user.
+ */
+public class AuthenticatedUser extends User {
+    
+    private final Long userId;
+    private final String tenantId;
+    private final long userVersion;
+    
+    public AuthenticatedUser(String username, String password, boolean enabled, Collection<? extends GrantedAuthority> authorities,
+                             Long userId, String tenantId, long userVersion) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.userId = userId;
+        this.tenantId = tenantId;
+        this.userVersion = userVersion;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getTenantId() {
+        return tenantId;
+    }
+    
+    public long getUserVersion() {
+        return userVersion;
+    }
+}
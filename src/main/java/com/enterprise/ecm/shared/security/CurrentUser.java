@@ -0,0 +1,20 @@
+package com.enterprise.ecm.shared.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * The authenticated user of the current request, for audit fields.
+ */
+public final class CurrentUser {
+    
+    private CurrentUser() {}
+    
+    /**
+     * The current username, or null when nobody is authenticated.
+     */
+    public static String username() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
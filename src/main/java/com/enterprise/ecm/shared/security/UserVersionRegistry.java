@@ -0,0 +1,75 @@
+package com.enterprise.ecm.shared.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The current version of the users changed within the lifetime of a token, so that tokens
+ * issued before a user was changed, deactivated or deleted are rejected without reading the user.
+ * <p>
+ * Users are held by id, which is never reused, so a user registered under the username of a
+ * deleted one is not affected by the deletion, and the deleted user's tokens stay rejected.
+ * Only changed users are held, each until every token issued before its change has expired.
+ * The registry is fed by {@code UserService} when a change commits and loaded at startup with the
+ * users changed or deleted within a token lifetime. Like the entity cache it is local to the node,
+ * so a change made on another node is not seen.
+ */
+@Component
+public class UserVersionRegistry {
+    
+    private final Duration tokenLifetime;
+    
+    private final Map<Long, ChangedUser> users = new ConcurrentHashMap<>();
+    
+    public UserVersionRegistry(@Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.tokenLifetime = Duration.ofMillis(tokenLifetimeMillis);
+    }
+    
+    /**
+     * Records a committed change of a user, which left it at {@code version}.
+     */
+    public void changed(Long userId, long version, boolean active) {
+        ChangedUser changedUser = new ChangedUser(version, active, Instant.now());
+        // changes may be reported out of order; the latest version wins
+        users.merge(userId, changedUser, (previous, current) -> previous.version > current.version ? previous : current);
+    }
+    
+    /**
+     * Records the deletion of a user at {@code deletedAt}; none of its tokens is good any more.
+     */
+    public void deleted(Long userId, Instant deletedAt) {
+        users.put(userId, new ChangedUser(Long.MAX_VALUE, false, deletedAt));
+    }
+    
+    /**
+     * Whether a token issued for the user {@code userId} at {@code userVersion} is still good.
+     */
+    public boolean isCurrent(Long userId, long userVersion) {
+        ChangedUser changedUser = users.get(userId);
+        return changedUser == null || (changedUser.active && userVersion >= changedUser.version);
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.user-version-prune-interval:PT10M}")
+    public void pruneExpired() {
+        Instant expired = Instant.now().minus(tokenLifetime);
+        users.values().removeIf(changedUser -> changedUser.changedAt.isBefore(expired));
+    }
+    
+    private static class ChangedUser {
+        final long version;
+        final boolean active;
+        final Instant changedAt;
+        
+        ChangedUser(long version, boolean active, Instant changedAt) {
+            this.version = version;
+            this.active = active;
+            this.changedAt = changedAt;
+        }
+    }
+}
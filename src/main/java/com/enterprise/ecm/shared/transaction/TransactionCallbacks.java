@@ -0,0 +1,30 @@
+package com.enterprise.ecm.shared.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for running in-memory side effects only once the surrounding transaction has committed,
+ * so caches and indexes never see changes that were rolled back.
+ */
+public final class TransactionCallbacks {
+    
+    private TransactionCallbacks() {}
+    
+    /**
+     * Runs {@code action} after the current transaction commits, or immediately when no
+     * transaction is active.
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.enterprise.ecm.users;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A deleted user, by id; kept until every token issued to it has expired.
+ */
+@Entity
+@Table(name = "deleted_users")
+public class DeletedUser {
+    
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+    
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+    
+    protected DeletedUser() {
+    }
+    
+    public DeletedUser(Long userId, LocalDateTime deletedAt) {
+        this.userId = userId;
+        this.deletedAt = deletedAt;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.enterprise.ecm.users;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface DeletedUserRepository extends JpaRepository<DeletedUser, Long> {
+    
+    @Query("SELECT d FROM DeletedUser d WHERE d.deletedAt >= :since")
+    List<DeletedUser> findDeletedSince(@Param("since") LocalDateTime since);
+    
+    @Modifying
+    @Query("DELETE FROM DeletedUser d WHERE d.deletedAt < :cutoff")
+    int deleteDeletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,7 +1,10 @@
 package com.enterprise.ecm.users;
 
+import com.enterprise.ecm.config.EntityCacheConfig;
 import com.enterprise.ecm.shared.entity.BaseEntity;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 
@@ -11,6 +14,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.USERS)
 public class User extends BaseEntity {
     
     @NotBlank
@@ -50,6 +55,7 @@ public class User extends BaseEntity {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.USER_ROLES)
     private Set<String> roles = new HashSet<>();
     
     public User() {}
@@ -1,13 +1,18 @@
 package com.enterprise.ecm.users;
 
+import com.enterprise.ecm.config.EntityCacheConfig;
 import com.enterprise.ecm.shared.tenant.TenantContext;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +26,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findAllByTenant(@Param("tenantId") String tenantId, Pageable pageable);
     
     @Query("SELECT u FROM User u WHERE u.tenantId = :tenantId AND u.username = :username")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheConfig.USERS_BY_USERNAME)
+    })
     Optional<User> findByTenantAndUsername(@Param("tenantId") String tenantId, @Param("username") String username);
     
     @Query("SELECT u FROM User u WHERE u.tenantId = :tenantId AND u.email = :email")
@@ -47,6 +56,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.username = :username")
     Optional<User> findByUsernameIgnoreTenant(@Param("username") String username);
     
+    @Query("SELECT u FROM User u WHERE u.updatedAt >= :since")
+    List<User> findUpdatedSince(@Param("since") LocalDateTime since);
+    
     // Default methods that use current tenant
     default List<User> findAllByCurrentTenant() {
         return findAllByTenant(TenantContext.getCurrentTenant());
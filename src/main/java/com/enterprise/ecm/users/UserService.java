@@ -2,7 +2,12 @@ package com.enterprise.ecm.users;
 
 import com.enterprise.ecm.auth.RegisterRequest;
 import com.enterprise.ecm.users.dto.CreateUserRequest;
+import com.enterprise.ecm.users.event.UserLoginsRevokedEvent;
+import com.enterprise.ecm.shared.security.AuthenticatedUser;
+import com.enterprise.ecm.shared.security.UserVersionRegistry;
 import com.enterprise.ecm.shared.tenant.TenantContext;
+import com.enterprise.ecm.shared.transaction.TransactionCallbacks;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -14,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -24,11 +30,18 @@ import java.util.HashSet;
 public class UserService implements UserDetailsService {
     
     private final UserRepository userRepository;
+    private final DeletedUserRepository deletedUserRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserVersionRegistry userVersionRegistry;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, DeletedUserRepository deletedUserRepository, PasswordEncoder passwordEncoder,
+                       UserVersionRegistry userVersionRegistry, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.deletedUserRepository = deletedUserRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userVersionRegistry = userVersionRegistry;
+        this.eventPublisher = eventPublisher;
     }
     
     @Override
@@ -40,22 +53,30 @@ public class UserService implements UserDetailsService {
             throw new UsernameNotFoundException("User not found with username: " + username);
         }
         
-        User userEntity = user.get();
-        
-        // The roles should be loaded automatically due to @ElementCollection(fetch = FetchType.EAGER)
-        // If roles are still empty, we'll use a default role
-        if (userEntity.getRoles().isEmpty()) {
-            userEntity.addRole("USER");
-        }
-        
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(userEntity.getUsername())
-                .password(userEntity.getPassword())
-                .authorities(userEntity.getRoles().stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
-                        .collect(Collectors.toList()))
-                .disabled(!userEntity.isActive())
-                .build();
+        return toAuthenticatedUser(user.get());
+    }
+    
+    /**
+     * The user as {@link #loadUserByUsername} returns it, or empty when there is none.
+     */
+    public Optional<AuthenticatedUser> findAuthenticatedUser(String username) {
+        return userRepository.findByUsernameIgnoreTenant(username).map(UserService::toAuthenticatedUser);
+    }
+    
+    /**
+     * Re-encodes the password of a user who has just logged in with it, when its hash has a lower
+     * BCrypt cost than the configured one. The change increments the user version, so the returned
+     * user, which carries the new version, is the one to issue the token for.
+     */
+    public Optional<AuthenticatedUser> upgradePasswordEncoding(String username, String rawPassword) {
+        return userRepository.findByUsernameIgnoreTenant(username)
+                .filter(user -> passwordEncoder.upgradeEncoding(user.getPassword()))
+                .map(user -> {
+                    user.setPassword(passwordEncoder.encode(rawPassword));
+                    userRepository.saveAndFlush(user);
+                    recordChange(user);
+                    return toAuthenticatedUser(user);
+                });
     }
     
     public User createUser(RegisterRequest registerRequest) {
@@ -165,6 +186,7 @@ public class UserService implements UserDetailsService {
                     existingUser.setPosition(updatedUser.getPosition());
                     existingUser.setActive(updatedUser.isActive());
                     existingUser.setRoles(updatedUser.getRoles());
+                    recordChange(existingUser);
                     return userRepository.save(existingUser);
                 })
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -174,6 +196,8 @@ public class UserService implements UserDetailsService {
         return userRepository.findById(id)
                 .map(user -> {
                     user.setPassword(passwordEncoder.encode(newPassword));
+                    recordChange(user);
+                    eventPublisher.publishEvent(new UserLoginsRevokedEvent(user.getId(), user.getUsername()));
                     return userRepository.save(user);
                 })
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -189,13 +213,22 @@ public class UserService implements UserDetailsService {
     }
     
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
+        userRepository.findById(id).ifPresent(user -> {
+            userRepository.delete(user);
+            eventPublisher.publishEvent(new UserLoginsRevokedEvent(id, user.getUsername()));
+            // persisted, so that the user's tokens are still rejected after a restart
+            LocalDateTime deletedAt = LocalDateTime.now();
+            deletedUserRepository.save(new DeletedUser(id, deletedAt));
+            TransactionCallbacks.afterCommit(() -> userVersionRegistry.deleted(id, deletedAt.atZone(ZoneId.systemDefault()).toInstant()));
+        });
     }
     
     public void deactivateUser(Long id) {
         userRepository.findById(id)
                 .ifPresent(user -> {
                     user.setActive(false);
+                    recordChange(user);
+                    eventPublisher.publishEvent(new UserLoginsRevokedEvent(user.getId(), user.getUsername()));
                     userRepository.save(user);
                 });
     }
@@ -204,6 +237,7 @@ public class UserService implements UserDetailsService {
         userRepository.findById(id)
                 .ifPresent(user -> {
                     user.setActive(true);
+                    recordChange(user);
                     userRepository.save(user);
                 });
     }
@@ -215,4 +249,27 @@ public class UserService implements UserDetailsService {
     public long getActiveUserCount() {
         return userRepository.countByCurrentTenantAndActive(true);
     }
-} 
\ No newline at end of file
+    
+    private static AuthenticatedUser toAuthenticatedUser(User userEntity) {
+        // The roles should be loaded automatically due to @ElementCollection(fetch = FetchType.EAGER)
+        // If roles are still empty, we'll use a default role
+        if (userEntity.getRoles().isEmpty()) {
+            userEntity.addRole("USER");
+        }
+        
+        return new AuthenticatedUser(userEntity.getUsername(), userEntity.getPassword(), userEntity.isActive(),
+                userEntity.getRoles().stream()
+                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role))
+                        .collect(Collectors.toList()),
+                userEntity.getId(), userEntity.getTenantId(), userEntity.getVersion());
+    }
+    
+    /**
+     * Tells the {@link UserVersionRegistry} about the change once it commits, so that tokens issued
+     * before it are no longer accepted.
+     */
+    private void recordChange(User user) {
+        // read after commit: the version is incremented when the change is flushed
+        TransactionCallbacks.afterCommit(() -> userVersionRegistry.changed(user.getId(), user.getVersion(), user.isActive()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.enterprise.ecm.users;
+
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.security.UserVersionRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Loads the users changed or deleted within the lifetime of a token into the
+ * {@link UserVersionRegistry} once the application has started, so that tokens issued before a
+ * change made before a restart are still rejected. Deleted users older than a token lifetime are
+ * no longer needed and are pruned.
+ */
+@Component
+public class UserVersionLoader {
+    
+    private final UserVersionRegistry userVersionRegistry;
+    private final UserRepository userRepository;
+    private final DeletedUserRepository deletedUserRepository;
+    private final LoggingService loggingService;
+    private final long tokenLifetimeMillis;
+    
+    public UserVersionLoader(UserVersionRegistry userVersionRegistry, UserRepository userRepository,
+                             DeletedUserRepository deletedUserRepository, LoggingService loggingService,
+                             @Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.userVersionRegistry = userVersionRegistry;
+        this.userRepository = userRepository;
+        this.deletedUserRepository = deletedUserRepository;
+        this.loggingService = loggingService;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        LocalDateTime since = LocalDateTime.now().minus(Duration.ofMillis(tokenLifetimeMillis));
+        List<User> users = userRepository.findUpdatedSince(since);
+        users.forEach(user -> userVersionRegistry.changed(user.getId(), user.getVersion(), user.isActive()));
+        List<DeletedUser> deletedUsers = deletedUserRepository.findDeletedSince(since);
+        deletedUsers.forEach(deletedUser -> userVersionRegistry.deleted(deletedUser.getUserId(),
+                deletedUser.getDeletedAt().atZone(ZoneId.systemDefault()).toInstant()));
+        loggingService.logInfo("User version registry loaded {} recently changed and {} recently deleted users",
+                users.size(), deletedUsers.size());
+    }
+    
+    @Scheduled(fixedDelayString = "${jwt.user-version-prune-interval:PT10M}")
+    @Transactional
+    public void pruneDeletedUsers() {
+        int pruned = deletedUserRepository.deleteDeletedBefore(LocalDateTime.now().minus(Duration.ofMillis(tokenLifetimeMillis)));
+        if (pruned > 0) {
+            loggingService.logInfo("Pruned {} deleted users older than a token lifetime", pruned);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.enterprise.ecm.users.event;
+
+import lombok.Value;
+
+/**
+ * Published, within the changing transaction, when a user's password is changed or the user is
+ * deactivated or deleted: the logins made before are no longer to be renewed.
+ */
+@Value
+public class UserLoginsRevokedEvent {
+    
+    Long userId;
+    String username;
+}
@@ -0,0 +1,86 @@
+package com.enterprise.ecm.auth;
+
+import com.enterprise.ecm.shared.security.AuthenticatedUser;
+import com.enterprise.ecm.shared.tenant.TenantContext;
+import com.enterprise.ecm.support.AuthClient;
+import com.enterprise.ecm.users.User;
+import com.enterprise.ecm.users.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "security.password.bcrypt-cost=5")
+@AutoConfigureMockMvc
+class LoginServiceTest {
+    
+    private static final String TENANT = "login";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private LoginService loginService;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private AuthClient authClient;
+    
+    @BeforeEach
+    void setUp() {
+        authClient = new AuthClient(mockMvc, objectMapper, TENANT);
+    }
+    
+    @Test
+    void testLoginUpgradesAWeakerPasswordHashAndIssuesATokenForTheNewVersion() throws Exception {
+        authClient.register("login-user", "USER");
+        User user = userRepository.findByUsernameIgnoreTenant("login-user").orElseThrow();
+        user.setPassword(new BCryptPasswordEncoder(4).encode(AuthClient.PASSWORD));
+        TenantContext.setCurrentTenant(TENANT);
+        try {
+            userRepository.saveAndFlush(user);
+        } finally {
+            TenantContext.clear();
+        }
+        
+        String token = authClient.token("login-user", AuthClient.PASSWORD);
+        
+        User upgraded = userRepository.findByUsernameIgnoreTenant("login-user").orElseThrow();
+        assertTrue(upgraded.getPassword().startsWith("$2a$05$"), upgraded.getPassword());
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token).header("X-TenantID", TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("login-user"));
+        
+        AuthenticatedUser again = loginService.authenticate("login-user", AuthClient.PASSWORD).get();
+        assertEquals(upgraded.getVersion().longValue(), again.getUserVersion(), "a current hash is not re-encoded");
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> loginService.authenticate("login-user", "wrong").get());
+        assertInstanceOf(BadCredentialsException.class, failure.getCause());
+        assertTrue(meterRegistry.get("auth.login.verification").tag("outcome", "success").timer().count() >= 2);
+        assertTrue(meterRegistry.get("auth.login.verification").tag("outcome", "failure").timer().count() >= 1);
+    }
+}
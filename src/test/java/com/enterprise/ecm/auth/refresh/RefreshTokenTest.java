@@ -0,0 +1,117 @@
+package com.enterprise.ecm.auth.refresh;
+
+import com.enterprise.ecm.support.AuthClient;
+import com.enterprise.ecm.users.User;
+import com.enterprise.ecm.users.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RefreshTokenTest {
+    
+    private static final String TENANT = "refresh";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    
+    @Autowired
+    private UserService userService;
+    
+    private AuthClient authClient;
+    
+    @BeforeEach
+    void setUp() {
+        authClient = new AuthClient(mockMvc, objectMapper, TENANT);
+    }
+    
+    @Test
+    void testRefreshTokensRotateAndAReusedTokenRevokesTheLogin() throws Exception {
+        authClient.register("refresh-user", "USER");
+        JsonNode login = authClient.login("refresh-user", AuthClient.PASSWORD);
+        assertEquals(900, login.get("expiresIn").asLong());
+        
+        JsonNode refreshed = refresh(login.get("refreshToken").asText(), status().isOk());
+        assertNotEquals(login.get("refreshToken").asText(), refreshed.get("refreshToken").asText());
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshed.get("token").asText())
+                        .header("X-TenantID", TENANT))
+                .andExpect(status().isOk());
+        
+        // the first token again: both it and the one it was exchanged for are revoked
+        refresh(login.get("refreshToken").asText(), status().isUnauthorized());
+        refresh(refreshed.get("refreshToken").asText(), status().isUnauthorized());
+        
+        JsonNode next = authClient.login("refresh-user", AuthClient.PASSWORD);
+        mockMvc.perform(post("/auth/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + next.get("token").asText())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + next.get("refreshToken").asText() + "\"}"))
+                .andExpect(status().isOk());
+        refresh(next.get("refreshToken").asText(), status().isUnauthorized());
+        
+        refreshTokenService.issue(userService.findAuthenticatedUser("refresh-user").orElseThrow());
+        assertTrue(refreshTokenService.pruneExpiredBefore(LocalDateTime.now().plusDays(15)) >= 1);
+        assertEquals(0, refreshTokenRepository.findExpiredHashes(LocalDateTime.now().plusDays(15),
+                PageRequest.ofSize(1)).size());
+    }
+    
+    @Test
+    void testRefreshTokensAreRevokedWhenTheirUserChanges() throws Exception {
+        long userId = authClient.register("refresh-changed", "USER").get("id").asLong();
+        JsonNode beforeReset = authClient.login("refresh-changed", AuthClient.PASSWORD);
+        userService.updatePassword(userId, "secret456");
+        refresh(beforeReset.get("refreshToken").asText(), status().isUnauthorized());
+        
+        JsonNode beforeDeactivation = authClient.login("refresh-changed", "secret456");
+        userService.deactivateUser(userId);
+        userService.activateUser(userId);
+        refresh(beforeDeactivation.get("refreshToken").asText(), status().isUnauthorized());
+        
+        // bound to the version of the user, also when its tokens were not deleted
+        JsonNode beforeUpdate = authClient.login("refresh-changed", "secret456");
+        User user = userService.getUserById(userId).orElseThrow();
+        user.setDepartment("Claims");
+        userService.updateUser(userId, user);
+        refresh(beforeUpdate.get("refreshToken").asText(), status().isUnauthorized());
+        
+        JsonNode beforeDeletion = authClient.login("refresh-changed", "secret456");
+        userService.deleteUser(userId);
+        authClient.register("refresh-changed", "USER");
+        refresh(beforeDeletion.get("refreshToken").asText(), status().isUnauthorized());
+        refresh(authClient.login("refresh-changed", AuthClient.PASSWORD).get("refreshToken").asText(), status().isOk());
+    }
+    
+    private JsonNode refresh(String refreshToken, ResultMatcher expectedStatus) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(expectedStatus)
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,258 @@
+package com.enterprise.ecm.cases;
+
+import com.enterprise.ecm.cases.storage.ContentBlobRepository;
+import com.enterprise.ecm.cases.storage.ContentBlobStore;
+import com.enterprise.ecm.cases.storage.StoredContent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class CaseAttachmentTest {
+    
+    private static final String TENANT = "attachments";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CaseRepository caseRepository;
+    
+    @Autowired
+    private ContentBlobRepository contentBlobRepository;
+    
+    @Autowired
+    private ContentBlobStore contentBlobStore;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private String text;
+    
+    @BeforeEach
+    void setUp() {
+        text = "0123456789 evidence " + System.nanoTime();
+    }
+    
+    @Test
+    void testIdenticalContentIsStoredOnceAndDeletedWithItsLastReference() throws Exception {
+        Long firstCase = createCase();
+        Long secondCase = createCase();
+        JsonNode first = upload(firstCase, "scan.txt");
+        JsonNode second = upload(secondCase, "copy.txt");
+        String contentHash = first.get("contentHash").asText();
+        assertEquals(contentHash, second.get("contentHash").asText());
+        assertEquals(2, contentBlobRepository.findById(contentHash).orElseThrow().getRefCount());
+        StoredContent storedContent = contentBlobStore.find(contentHash);
+        Path stored = storedContent.getFile();
+        try (InputStream in = storedContent.openDecoded()) {
+            assertEquals(text, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        
+        mockMvc.perform(delete("/cases/" + firstCase + "/attachments/" + first.get("id").asLong()).header("X-TenantID", TENANT))
+                .andExpect(status().isNoContent());
+        assertEquals(1, contentBlobRepository.findById(contentHash).orElseThrow().getRefCount());
+        assertTrue(Files.exists(stored));
+        
+        mockMvc.perform(delete("/cases/" + secondCase).header("X-TenantID", TENANT))
+                .andExpect(status().isNoContent());
+        assertFalse(contentBlobRepository.existsById(contentHash));
+        assertFalse(Files.exists(stored));
+        assertNull(contentBlobStore.find(contentHash));
+    }
+    
+    @Test
+    void testDownloadHonoursRangeAndConditionalRequests() throws Exception {
+        Long caseId = createCase();
+        JsonNode attachment = upload(caseId, "report.txt");
+        String url = "/cases/" + caseId + "/attachments/" + attachment.get("id").asLong() + "/content";
+        String eTag = "\"" + attachment.get("contentHash").asText() + "\"";
+        int length = text.getBytes(StandardCharsets.UTF_8).length;
+        
+        mockMvc.perform(get(url).header("X-TenantID", TENANT))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/plain"))
+                .andExpect(content().string(text));
+        
+        mockMvc.perform(get(url).header("X-TenantID", TENANT).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/" + length))
+                .andExpect(content().string("2345"));
+        // readable by browser clients on the allowed origins
+        mockMvc.perform(get(url).header("X-TenantID", TENANT).header(HttpHeaders.ORIGIN, "http://localhost:4200")
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS,
+                        allOf(containsString(HttpHeaders.CONTENT_RANGE), containsString(HttpHeaders.ACCEPT_RANGES),
+                                containsString(HttpHeaders.CONTENT_DISPOSITION))));
+        
+        mockMvc.perform(get(url).header("X-TenantID", TENANT).header(HttpHeaders.RANGE, "bytes=" + length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + length));
+        
+        // a stale If-Range gets the whole file
+        mockMvc.perform(get(url).header("X-TenantID", TENANT).header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(text));
+        
+        mockMvc.perform(get(url).header("X-TenantID", TENANT).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+    
+    @Test
+    void testCompressibleContentIsStoredCompressedAndSentAsStoredWhenAccepted() throws Exception {
+        Long caseId = createCase();
+        text = (text + " lorem ipsum dolor sit amet\n").repeat(200);
+        JsonNode attachment = upload(caseId, "audit.log");
+        String url = "/cases/" + caseId + "/attachments/" + attachment.get("id").asLong() + "/content";
+        String contentHash = attachment.get("contentHash").asText();
+        int length = text.getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(length, attachment.get("fileSize").asLong());
+        
+        StoredContent stored = contentBlobStore.find(contentHash);
+        byte[] storedBytes = Files.readAllBytes(stored.getFile());
+        assertEquals("gzip", stored.getEncoding());
+        assertEquals(storedBytes.length, stored.getStoredSize());
+        assertTrue(storedBytes.length < length / 10);
+        
+        mockMvc.perform(get(url).header("X-TenantID", TENANT).header(HttpHeaders.ACCEPT_ENCODING, "br;q=1, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + contentHash + "-gzip\""))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, storedBytes.length))
+                .andExpect(content().bytes(storedBytes));
+        
+        mockMvc.perform(get(url).header("X-TenantID", TENANT).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + contentHash + "\""))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, length))
+                .andExpect(content().string(text));
+        
+        mockMvc.perform(get(url).header("X-TenantID", TENANT).header(HttpHeaders.RANGE, "bytes=" + (length - 6) + "-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes " + (length - 6) + "-" + (length - 1) + "/" + length))
+                .andExpect(content().string(" amet\n"));
+        
+        // content that is not of a compressible type is stored as is
+        JsonNode binary = objectMapper.readTree(mockMvc.perform(post("/cases/" + caseId + "/attachments").param("fileName", "audit.bin")
+                        .header("X-TenantID", TENANT).contentType(MediaType.APPLICATION_OCTET_STREAM).content(text + "bin"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+        assertNull(contentBlobStore.find(binary.get("contentHash").asText()).getEncoding());
+    }
+    
+    @Test
+    void testAttachmentsAreStreamedAsOneZipArchive() throws Exception {
+        Long caseId = createCase();
+        text = (text + " statement\n").repeat(100);
+        upload(caseId, "statement.txt");
+        upload(caseId, "statement.txt");
+        byte[] photo = new byte[5000];
+        new Random(42).nextBytes(photo);
+        mockMvc.perform(post("/cases/" + caseId + "/attachments").param("fileName", "damage/photo.jpg")
+                        .header("X-TenantID", TENANT).contentType(MediaType.IMAGE_JPEG).content(photo))
+                .andExpect(status().isCreated());
+        upload(caseId, "..");
+        
+        byte[] archive = mockMvc.perform(get("/cases/" + caseId + "/attachments.zip").header("X-TenantID", TENANT))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/zip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        Map<String, ZipEntry> entries = new LinkedHashMap<>();
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+                entries.put(entry.getName(), entry);
+                contents.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        assertEquals(List.of("statement.txt", "statement (2).txt", "damage_photo.jpg", "attachment"), List.copyOf(entries.keySet()));
+        assertEquals(text, new String(contents.get("statement (2).txt"), StandardCharsets.UTF_8));
+        assertEquals(ZipEntry.DEFLATED, entries.get("statement.txt").getMethod());
+        assertEquals(ZipEntry.STORED, entries.get("damage_photo.jpg").getMethod());
+        assertArrayEquals(photo, contents.get("damage_photo.jpg"));
+        
+        mockMvc.perform(get("/cases/" + caseId + "/attachments.zip").header("X-TenantID", "other"))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void testAttachmentsOfAnotherTenantAreNotFound() throws Exception {
+        Long caseId = createCase();
+        JsonNode attachment = upload(caseId, "private.txt");
+        
+        mockMvc.perform(get("/cases/" + caseId + "/attachments").header("X-TenantID", TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].fileName").value("private.txt"))
+                .andExpect(jsonPath("$[0].fileSize").value(text.length()));
+        mockMvc.perform(get("/cases/" + caseId + "/attachments/" + attachment.get("id").asLong() + "/content")
+                        .header("X-TenantID", "other"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/cases/" + caseId + "/attachments").param("fileName", "intruder.txt")
+                        .header("X-TenantID", "other").contentType(MediaType.TEXT_PLAIN).content("x"))
+                .andExpect(status().isNotFound());
+    }
+    
+    private Long createCase() {
+        return transactionTemplate.execute(status -> {
+            Case caseEntity = new Case("ATT-" + System.nanoTime(), "Water damage", "Claim evidence");
+            caseEntity.setTenantId(TENANT);
+            caseEntity.setStatus(CaseStatus.OPEN);
+            return caseRepository.save(caseEntity).getId();
+        });
+    }
+    
+    private JsonNode upload(Long caseId, String fileName) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/cases/" + caseId + "/attachments").param("fileName", fileName)
+                        .header("X-TenantID", TENANT).contentType(MediaType.TEXT_PLAIN).content(text))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
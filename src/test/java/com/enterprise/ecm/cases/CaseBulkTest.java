@@ -0,0 +1,116 @@
+package com.enterprise.ecm.cases;
+
+import com.enterprise.ecm.support.StatementCounter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// completions of domain events are held back, so that their batched writes do not land among the counted statements
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "domain-events.completion-flush-interval=PT1H", "domain-events.completion-batch-size=100000"})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class CaseBulkTest {
+    
+    private static final String TENANT = "bulk";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CaseRepository caseRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private StatementCounter statementCounter;
+    
+    @BeforeEach
+    void setUp() {
+        statementCounter = new StatementCounter(entityManagerFactory);
+    }
+    
+    @Test
+    void testBulkCreateBatchesInserts() throws Exception {
+        List<Map<String, Object>> cases = new ArrayList<>();
+        for (int i = 0; i < CaseBulkService.CHUNK_SIZE; i++) {
+            cases.add(Map.of("title", "Imported case " + i, "priority", "LOW"));
+        }
+        
+        statementCounter.reset();
+        JsonNode response = perform(post("/cases/bulk"), cases);
+        
+        assertEquals(CaseBulkService.CHUNK_SIZE, response.get("succeeded").asInt());
+        assertTrue(statementCounter.count() <= 10, "SQL statements for bulk create: " + statementCounter.count());
+    }
+    
+    @Test
+    void testBulkCreateReportsFailingItemsWithoutFailingTheRest() throws Exception {
+        List<Map<String, Object>> cases = List.of(
+                Map.of("title", "Valid case"),
+                Map.of("description", "Missing title"),
+                Map.of("title", "x".repeat(300)),
+                Map.of("title", "Another valid case"));
+        
+        JsonNode response = perform(post("/cases/bulk"), cases);
+        
+        assertEquals(2, response.get("succeeded").asInt());
+        assertEquals(List.of("SUCCEEDED", "FAILED", "FAILED", "SUCCEEDED"), outcomes(response));
+        assertTrue(caseRepository.existsById(response.get("results").get(3).get("id").asLong()));
+    }
+    
+    @Test
+    void testBulkStatusAndAssignReportMissingCases() throws Exception {
+        JsonNode created = perform(post("/cases/bulk"), List.of(Map.of("title", "First"), Map.of("title", "Second")));
+        long first = created.get("results").get(0).get("id").asLong();
+        long second = created.get("results").get(1).get("id").asLong();
+        
+        JsonNode statusResponse = perform(patch("/cases/bulk/status"),
+                Map.of("ids", List.of(first, Long.MAX_VALUE, second), "status", "RESOLVED"));
+        JsonNode assignResponse = perform(patch("/cases/bulk/assign"),
+                Map.of("ids", List.of(second), "assignedTo", "user2"));
+        
+        assertEquals(List.of("SUCCEEDED", "NOT_FOUND", "SUCCEEDED"), outcomes(statusResponse));
+        assertEquals(List.of("SUCCEEDED"), outcomes(assignResponse));
+        Case updated = caseRepository.findById(second).orElseThrow();
+        assertEquals(CaseStatus.RESOLVED, updated.getStatus());
+        assertEquals("user2", updated.getAssignedTo());
+    }
+    
+    private JsonNode perform(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        String content = mockMvc.perform(request.header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(content);
+    }
+    
+    private List<String> outcomes(JsonNode response) {
+        List<String> outcomes = new ArrayList<>();
+        response.get("results").forEach(result -> outcomes.add(result.get("outcome").asText()));
+        return outcomes;
+    }
+}
@@ -0,0 +1,134 @@
+package com.enterprise.ecm.cases;
+
+import com.enterprise.ecm.support.StatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// completions of domain events are held back, so that their batched writes do not land among the counted statements
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "domain-events.completion-flush-interval=PT1H", "domain-events.completion-batch-size=100000"})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class CaseConditionalRequestTest {
+    
+    private static final String TENANT = "conditional";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private CaseRepository caseRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private StatementCounter statementCounter;
+    private Long caseId;
+    
+    @BeforeEach
+    void setUp() {
+        statementCounter = new StatementCounter(entityManagerFactory);
+        caseId = transactionTemplate.execute(status -> {
+            Case caseEntity = new Case("COND-" + System.nanoTime(), "Printer offline", "Tray 2 jammed");
+            caseEntity.setTenantId(TENANT);
+            caseEntity.setStatus(CaseStatus.OPEN);
+            return caseRepository.save(caseEntity).getId();
+        });
+    }
+    
+    @Test
+    void testMatchingIfNoneMatchReturnsNotModifiedWithoutLoadingChildren() throws Exception {
+        String eTag = mockMvc.perform(get("/cases/" + caseId).header("X-TenantID", TENANT))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals("\"0\"", eTag);
+        
+        statementCounter.reset();
+        mockMvc.perform(get("/cases/" + caseId).header("X-TenantID", TENANT).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+        // the case comes from the entity cache
+        assertEquals(0, statementCounter.count());
+    }
+    
+    @Test
+    void testUpdateWithCurrentVersionIsOneVersionedUpdate() throws Exception {
+        statementCounter.reset();
+        mockMvc.perform(put("/cases/" + caseId).header("X-TenantID", TENANT).header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Printer back online\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.title").value("Printer back online"))
+                .andExpect(jsonPath("$.description").value("Tray 2 jammed"));
+        // versioned update (the case itself comes from the entity cache), then notes + attachments for the response body
+        assertEquals(3, statementCounter.count());
+    }
+    
+    @Test
+    void testStaleIfMatchIsRejected() throws Exception {
+        mockMvc.perform(patch("/cases/" + caseId + "/assign").param("assignedTo", "user1")
+                        .header("X-TenantID", TENANT).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        
+        mockMvc.perform(patch("/cases/" + caseId + "/status").param("status", "CLOSED")
+                        .header("X-TenantID", TENANT).header(HttpHeaders.IF_MATCH, "\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals(CaseStatus.OPEN, caseRepository.findById(caseId).orElseThrow().getStatus());
+    }
+    
+    @Test
+    void testIfMatchComparesStronglyAndAcceptsAList() throws Exception {
+        mockMvc.perform(patch("/cases/" + caseId + "/assign").param("assignedTo", "user1")
+                        .header("X-TenantID", TENANT).header(HttpHeaders.IF_MATCH, "W/\"0\""))
+                .andExpect(status().isPreconditionFailed());
+        
+        mockMvc.perform(patch("/cases/" + caseId + "/assign").param("assignedTo", "user1")
+                        .header("X-TenantID", TENANT).header(HttpHeaders.IF_MATCH, "\"7\", W/\"3\", \"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+    
+    @Test
+    void testBrowserClientsCanReadTheETagAndSendIfMatch() throws Exception {
+        mockMvc.perform(get("/cases/" + caseId).header("X-TenantID", TENANT).header(HttpHeaders.ORIGIN, "http://localhost:4200"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsString(HttpHeaders.ETAG)));
+        
+        mockMvc.perform(options("/cases/" + caseId + "/status").header(HttpHeaders.ORIGIN, "http://localhost:4200")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "PATCH")
+                        .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "if-match"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, containsString("PATCH")))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, containsString("if-match")));
+    }
+    
+    @Test
+    void testUnknownCaseIsNotFound() throws Exception {
+        mockMvc.perform(patch("/cases/" + Long.MAX_VALUE + "/status").param("status", "CLOSED")
+                        .header("X-TenantID", TENANT))
+                .andExpect(status().isNotFound());
+    }
+}
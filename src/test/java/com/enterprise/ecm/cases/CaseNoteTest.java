@@ -0,0 +1,186 @@
+package com.enterprise.ecm.cases;
+
+import com.enterprise.ecm.shared.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "notes-user", roles = "ADMIN")
+class CaseNoteTest {
+    
+    private static final String TENANT = "notes";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CaseRepository caseRepository;
+    
+    @Autowired
+    private CaseNoteRepository caseNoteRepository;
+    
+    @Autowired
+    private CaseNoteService caseNoteService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private EntityManager entityManager;
+    
+    private Long caseId;
+    
+    @BeforeEach
+    void setUp() {
+        caseId = transactionTemplate.execute(status -> {
+            Case caseEntity = new Case("NOTE-" + System.nanoTime(), "Laptop replacement", "Screen cracked");
+            caseEntity.setTenantId(TENANT);
+            caseEntity.setStatus(CaseStatus.OPEN);
+            return caseRepository.save(caseEntity).getId();
+        });
+    }
+    
+    @Test
+    void testTimelineIsPagedNewestFirst() throws Exception {
+        for (int i = 1; i <= 5; i++) {
+            mockMvc.perform(post("/cases/" + caseId + "/notes").header("X-TenantID", TENANT)
+                            .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"note " + i + "\"}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.createdBy").value("notes-user"));
+        }
+        
+        JsonNode first = readTimeline(null);
+        assertEquals(List.of("note 5", "note 4", "note 3"), contents(first));
+        assertTrue(first.get("hasNext").asBoolean());
+        JsonNode second = readTimeline(first.get("nextCursor").asText());
+        assertEquals(List.of("note 2", "note 1"), contents(second));
+        assertFalse(second.get("hasNext").asBoolean());
+    }
+    
+    @Test
+    void testNotesOfAnotherTenantAreNotFound() throws Exception {
+        mockMvc.perform(post("/cases/" + caseId + "/notes").header("X-TenantID", "other")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"not mine\"}"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/cases/" + caseId + "/notes").header("X-TenantID", "other"))
+                .andExpect(status().isNotFound());
+        assertEquals(0, caseNoteRepository.findSliceByCase(caseId, Long.MAX_VALUE, Pageable.unpaged()).size());
+    }
+    
+    @Test
+    void testAppendingChangesTheCaseETag() throws Exception {
+        String before = mockMvc.perform(get("/cases/" + caseId).header("X-TenantID", TENANT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(post("/cases/" + caseId + "/notes").header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"called the vendor\"}"))
+                .andExpect(status().isCreated());
+        
+        mockMvc.perform(get("/cases/" + caseId).header("X-TenantID", TENANT).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notes[0].content").value("called the vendor"));
+    }
+    
+    @Test
+    void testConcurrentAppendsAreGroupCommitted() throws Exception {
+        int writers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            // holds the case row, so the first batch cannot commit until every writer has queued its note
+            Future<?> lockHolder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                entityManager.find(Case.class, caseId, LockModeType.PESSIMISTIC_WRITE);
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            locked.await();
+            List<Future<CaseNote>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                String content = "concurrent " + i;
+                results.add(executor.submit(() -> {
+                    TenantContext.setCurrentTenant(TENANT);
+                    try {
+                        start.await();
+                        return caseNoteService.appendNote(caseId, new CaseNote(content));
+                    } finally {
+                        TenantContext.clear();
+                    }
+                }));
+            }
+            start.countDown();
+            // the first writer is blocked on the case row, every other one is queued behind it
+            await().atMost(Duration.ofSeconds(10)).until(() -> caseNoteService.waitingAppends(caseId) == writers - 1);
+            release.countDown();
+            lockHolder.get();
+            Set<Long> ids = new HashSet<>();
+            for (Future<CaseNote> result : results) {
+                ids.add(result.get().getId());
+            }
+            assertEquals(writers, ids.size());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        
+        assertEquals(writers, caseNoteRepository.findSliceByCase(caseId, Long.MAX_VALUE, Pageable.unpaged()).size());
+        // one version bump per committed batch: the notes queued behind the first batch share a transaction
+        long version = caseRepository.findById(caseId).orElseThrow().getVersion();
+        assertTrue(version == 1 || version == 2, "version " + version);
+    }
+    
+    private JsonNode readTimeline(String cursor) throws Exception {
+        var request = get("/cases/" + caseId + "/notes").header("X-TenantID", TENANT).param("size", "3");
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        return objectMapper.readTree(mockMvc.perform(request).andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+    
+    private static List<String> contents(JsonNode page) {
+        List<String> contents = new ArrayList<>();
+        page.get("content").forEach(note -> contents.add(note.get("content").asText()));
+        return contents;
+    }
+}
@@ -0,0 +1,138 @@
+package com.enterprise.ecm.cases;
+
+import com.enterprise.ecm.cases.search.CaseSearchIndex;
+import com.enterprise.ecm.support.StatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements issued by the case list endpoints, so that per-case
+ * loading of notes and attachments (N+1) cannot silently come back.
+ */
+// completions of domain events are held back, so that their batched writes do not land among the counted statements
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "domain-events.completion-flush-interval=PT1H", "domain-events.completion-batch-size=100000"})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class CaseQueryCountTest {
+    
+    private static final String TENANT = "query-count";
+    private static final int CASES = 12;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private CaseRepository caseRepository;
+    
+    @Autowired
+    private CaseSearchIndex caseSearchIndex;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private StatementCounter statementCounter;
+    private Long firstCaseId;
+    
+    @BeforeEach
+    void setUp() {
+        statementCounter = new StatementCounter(entityManagerFactory);
+        firstCaseId = transactionTemplate.execute(status -> {
+            if (caseRepository.countByTenant(TENANT) > 0) {
+                return caseRepository.findSliceByTenant(TENANT, Long.MAX_VALUE, PageRequest.of(0, 1)).get(0).getId();
+            }
+            Long id = null;
+            for (int i = 0; i < CASES; i++) {
+                Case caseEntity = new Case("QC-" + i, "Network outage " + i, "Switch failure");
+                caseEntity.setTenantId(TENANT);
+                caseEntity.setStatus(CaseStatus.OPEN);
+                caseEntity.setAssignedTo("user1");
+                for (int n = 0; n < 2; n++) {
+                    CaseNote note = new CaseNote("Investigating " + n);
+                    note.setTenantId(TENANT);
+                    caseEntity.addNote(note);
+                }
+                CaseAttachment attachment = new CaseAttachment("log.txt", "/tmp/log.txt", 10L, "text/plain");
+                attachment.setTenantId(TENANT);
+                caseEntity.addAttachment(attachment);
+                Case savedCase = caseRepository.save(caseEntity);
+                caseSearchIndex.indexCase(savedCase);
+                id = savedCase.getId();
+            }
+            return id;
+        });
+    }
+    
+    @Test
+    void testCursorListLoadsChildrenInBatches() throws Exception {
+        // cases + notes batch + attachments batch
+        assertStatements(3, "/cases?cursor=&size=" + CASES);
+    }
+    
+    @Test
+    void testOffsetListLoadsChildrenInBatches() throws Exception {
+        // cases + count + notes batch + attachments batch
+        assertStatements(4, "/cases?page=0&size=" + CASES);
+    }
+    
+    @Test
+    void testOffsetPagesAreClampedToTheChildBatchSize() throws Exception {
+        mockMvc.perform(get("/cases").header("X-TenantID", TENANT).param("page", "0").param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(CaseService.MAX_PAGE_SIZE));
+        mockMvc.perform(get("/cases/search").header("X-TenantID", TENANT).param("keyword", "network").param("size", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(CaseService.MAX_PAGE_SIZE));
+    }
+    
+    @Test
+    void testFilteredListsLoadChildrenInBatches() throws Exception {
+        assertStatements(3, "/cases/status/OPEN?size=" + CASES);
+        assertStatements(3, "/cases/assignee/user1?size=" + CASES);
+        assertStatements(3, "/cases/query?status=OPEN,IN_PROGRESS&assignedTo=user1&keyword=outage&size=" + CASES);
+    }
+    
+    @Test
+    void testSearchLoadsChildrenInBatches() throws Exception {
+        // findAllById + notes batch + attachments batch
+        assertStatements(3, "/cases/search?keyword=network&size=" + CASES);
+    }
+    
+    @Test
+    void testSummaryViewsSkipChildren() throws Exception {
+        assertStatements(1, "/cases?view=summary&cursor=&size=" + CASES);
+        assertStatements(2, "/cases?view=summary&page=0&size=" + CASES);
+        assertStatements(1, "/cases/status/OPEN?view=summary&size=" + CASES);
+        assertStatements(2, "/cases/query?view=summary&status=OPEN&keyword=outage&includeTotal=true&size=" + CASES);
+        assertStatements(1, "/cases/search?view=summary&keyword=network&size=" + CASES);
+    }
+    
+    @Test
+    void testSingleCase() throws Exception {
+        mockMvc.perform(get("/cases/" + firstCaseId).header("X-TenantID", TENANT)).andExpect(status().isOk());
+        // the case itself comes from the entity cache; notes + attachments
+        assertStatements(2, "/cases/" + firstCaseId);
+    }
+    
+    private void assertStatements(long expected, String url) throws Exception {
+        statementCounter.reset();
+        mockMvc.perform(get(url).header("X-TenantID", TENANT)).andExpect(status().isOk());
+        assertEquals(expected, statementCounter.count(), "SQL statements for GET " + url);
+    }
+}
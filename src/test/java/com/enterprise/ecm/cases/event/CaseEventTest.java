@@ -0,0 +1,108 @@
+package com.enterprise.ecm.cases.event;
+
+import com.enterprise.ecm.cases.CasePriority;
+import com.enterprise.ecm.cases.CaseStatus;
+import com.enterprise.ecm.shared.event.EventPublicationMaintenance;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.modulith.events.core.EventSerializer;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "events-user", roles = "ADMIN")
+class CaseEventTest {
+    
+    private static final String TENANT = "events";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EventSerializer eventSerializer;
+    
+    @Autowired
+    private EventPublicationMaintenance eventPublicationMaintenance;
+    
+    @Test
+    void testCaseChangesArePublishedWithTheirTransactionAndCompletedByTheListener() throws Exception {
+        Long caseId = objectMapper.readTree(mockMvc.perform(post("/cases").header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Flooded basement\",\"priority\":\"HIGH\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        mockMvc.perform(patch("/cases/" + caseId + "/status").param("status", "IN_PROGRESS").header("X-TenantID", TENANT))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/cases/" + caseId + "/assign").param("assignedTo", "adjuster").header("X-TenantID", TENANT))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/cases/" + caseId + "/notes").header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"Site visit booked\"}"))
+                .andExpect(status().isCreated());
+        // a failing change publishes nothing
+        mockMvc.perform(patch("/cases/" + caseId + "/status").param("status", "CLOSED").header("X-TenantID", TENANT)
+                        .header("If-Match", "\"999\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/cases/" + caseId).header("X-TenantID", TENANT))
+                .andExpect(status().isNoContent());
+        
+        Map<String, Object> events = awaitCompleted(caseId, 5);
+        assertEquals(Set.of(CaseCreatedEvent.class.getName(), CaseStatusChangedEvent.class.getName(), CaseAssignedEvent.class.getName(),
+                CaseNoteAddedEvent.class.getName(), CaseDeletedEvent.class.getName()), events.keySet());
+        
+        CaseCreatedEvent created = eventSerializer.deserialize(events.get(CaseCreatedEvent.class.getName()), CaseCreatedEvent.class);
+        assertEquals(new CaseCreatedEvent(TENANT, caseId, created.getCaseNumber(), CaseStatus.OPEN, CasePriority.HIGH, null), created);
+        assertEquals(new CaseStatusChangedEvent(TENANT, caseId, CaseStatus.OPEN, CaseStatus.IN_PROGRESS),
+                eventSerializer.deserialize(events.get(CaseStatusChangedEvent.class.getName()), CaseStatusChangedEvent.class));
+        assertEquals(new CaseAssignedEvent(TENANT, caseId, null, "adjuster"),
+                eventSerializer.deserialize(events.get(CaseAssignedEvent.class.getName()), CaseAssignedEvent.class));
+        CaseNoteAddedEvent noteAdded = eventSerializer.deserialize(events.get(CaseNoteAddedEvent.class.getName()), CaseNoteAddedEvent.class);
+        assertEquals("events-user", noteAdded.getCreatedBy());
+        
+        assertTrue(eventPublicationMaintenance.pruneCompletedBefore(Instant.now().plusSeconds(1)) >= 5);
+        assertTrue(publicationsOf(caseId).isEmpty());
+    }
+    
+    /**
+     * Waits for {@code count} completed publications of the case, and returns their serialized
+     * events by type.
+     */
+    private Map<String, Object> awaitCompleted(Long caseId, int count) {
+        List<Map<String, Object>> publications = await().atMost(Duration.ofSeconds(10)).until(() -> publicationsOf(caseId),
+                found -> found.size() == count && found.stream().allMatch(publication -> publication.get("completion_date") != null));
+        return publications.stream().collect(Collectors.toMap(publication -> (String) publication.get("event_type"),
+                publication -> publication.get("serialized_event")));
+    }
+    
+    private List<Map<String, Object>> publicationsOf(Long caseId) {
+        return jdbcTemplate.queryForList("SELECT event_type, serialized_event, completion_date FROM event_publication " +
+                        "WHERE serialized_event LIKE ? AND serialized_event LIKE ?",
+                "%\"tenantId\":\"" + TENANT + "\"%", "%\"caseId\":" + caseId + ",%");
+    }
+}
@@ -0,0 +1,102 @@
+package com.enterprise.ecm.cases.numbering;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HiLoCaseNumberAllocatorTest {
+    
+    private static final int BLOCK_SIZE = 10;
+    
+    private final Map<String, CaseNumberCounter> counters = new HashMap<>();
+    private final ReentrantLock rowLock = new ReentrantLock();
+    private final AtomicInteger reservations = new AtomicInteger();
+    private final HiLoCaseNumberAllocator allocator = newAllocator();
+    
+    @Test
+    void testNumbersIncreasePerTenant() {
+        assertEquals("CASE-ACME-1", allocator.allocate("acme"));
+        assertEquals("CASE-ACME-2", allocator.allocate("acme"));
+        assertEquals("CASE-GLOBEX-1", allocator.allocate("globex"));
+        assertEquals("CASE-ACME-3", allocator.allocate("acme"));
+    }
+    
+    @Test
+    void testReservesOneBlockPerBlockSizeAllocations() {
+        for (int i = 0; i < BLOCK_SIZE * 3; i++) {
+            allocator.allocate("acme");
+        }
+        
+        assertEquals(3, reservations.get());
+        assertEquals(BLOCK_SIZE * 3 + 1, counters.get("ACME").getNextValue());
+    }
+    
+    @Test
+    void testTenantIdsDifferingInCaseShareTheirSequence() {
+        assertEquals("CASE-ACME-1", allocator.allocate("acme"));
+        assertEquals("CASE-ACME-2", allocator.allocate("ACME"));
+        assertEquals("CASE-ACME-3", allocator.allocate("Acme"));
+        assertEquals(Set.of("ACME"), counters.keySet());
+    }
+    
+    @Test
+    void testAllocatorsSharingTheCounterNeverCollide() throws Exception {
+        HiLoCaseNumberAllocator otherNode = newAllocator();
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                HiLoCaseNumberAllocator node = thread % 2 == 0 ? allocator : otherNode;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        assertTrue(numbers.add(node.allocate("acme")));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        
+        assertEquals(4000, numbers.size());
+    }
+    
+    // Both "nodes" share one in-memory counter table; the lock taken by findForUpdate and released
+    // by saveAndFlush stands in for the row lock held until the reserving transaction commits
+    private HiLoCaseNumberAllocator newAllocator() {
+        CaseNumberCounterRepository repository = mock(CaseNumberCounterRepository.class);
+        when(repository.findForUpdate(anyString())).thenAnswer(invocation -> {
+            rowLock.lock();
+            return Optional.ofNullable(counters.get(invocation.<String>getArgument(0)));
+        });
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+            CaseNumberCounter counter = invocation.getArgument(0);
+            counters.put(counter.getTenantId(), counter);
+            reservations.incrementAndGet();
+            rowLock.unlock();
+            return counter;
+        });
+        return new HiLoCaseNumberAllocator(repository, mock(PlatformTransactionManager.class), BLOCK_SIZE);
+    }
+}
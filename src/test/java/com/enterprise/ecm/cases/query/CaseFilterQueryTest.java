@@ -0,0 +1,91 @@
+package com.enterprise.ecm.cases.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class CaseFilterQueryTest {
+    
+    private static final String TENANT = "filter";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Test
+    void testFiltersCombineIntoOnePagedQuery() throws Exception {
+        long roofLeak = createCase("Roof leak", "OPEN", "HIGH", "Claims", "alice", "2030-01-10T09:00:00");
+        long roofTiles = createCase("Roof_tiles", "IN_PROGRESS", "MEDIUM", "Claims", "bob", "2030-02-10T09:00:00");
+        long windowCrack = createCase("Window crack", "RESOLVED", "HIGH", "Repairs", "alice", "2030-01-20T09:00:00");
+        long roofGutter = createCase("Roof gutter", "OPEN", "LOW", "Claims", null, null);
+        
+        JsonNode page = query(get("/cases/query").param("status", "OPEN,IN_PROGRESS").param("category", "Claims")
+                .param("keyword", "ROOF").param("includeTotal", "true"));
+        assertEquals(List.of(roofGutter, roofTiles, roofLeak), ids(page));
+        assertEquals(3, page.get("totalElements").asLong());
+        
+        assertEquals(List.of(windowCrack), ids(query(get("/cases/query").param("priority", "HIGH").param("assignedTo", "alice")
+                .param("dueFrom", "2030-01-15T00:00:00").param("dueTo", "2030-02-01T00:00:00"))));
+        // the keyword is matched by the search index: by term prefix, and in any field
+        assertEquals(List.of(roofTiles), ids(query(get("/cases/query").param("keyword", "til").param("category", "Claims"))));
+        assertEquals(List.of(windowCrack), ids(query(get("/cases/query").param("keyword", "repairs"))));
+        JsonNode none = query(get("/cases/query").param("keyword", "hailstorm").param("includeTotal", "true"));
+        assertEquals(List.of(), ids(none));
+        assertEquals(0, none.get("totalElements").asLong());
+        
+        JsonNode first = query(get("/cases/query").param("status", "OPEN").param("size", "1").param("view", "summary"));
+        assertEquals(List.of(roofGutter), ids(first));
+        JsonNode second = query(get("/cases/query").param("status", "OPEN").param("size", "1").param("view", "summary")
+                .param("cursor", first.get("nextCursor").asText()));
+        assertEquals(List.of(roofLeak), ids(second));
+        assertEquals(false, second.get("hasNext").asBoolean());
+        
+        mockMvc.perform(get("/cases/query").header("X-TenantID", TENANT)
+                        .param("createdFrom", "2030-01-01T00:00:00").param("createdTo", "2029-01-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+    }
+    
+    private long createCase(String title, String status, String priority, String category, String assignedTo, String dueDate) throws Exception {
+        String body = "{\"title\":\"" + title + "\",\"status\":\"" + status + "\",\"priority\":\"" + priority + "\",\"category\":\"" + category + "\""
+                + (assignedTo != null ? ",\"assignedTo\":\"" + assignedTo + "\"" : "")
+                + (dueDate != null ? ",\"dueDate\":\"" + dueDate + "\"" : "") + "}";
+        return objectMapper.readTree(mockMvc.perform(post("/cases").header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+    }
+    
+    private JsonNode query(MockHttpServletRequestBuilder request) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(request.header("X-TenantID", TENANT))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+    
+    private static List<Long> ids(JsonNode page) {
+        List<Long> ids = new ArrayList<>();
+        page.get("content").forEach(row -> ids.add(row.get("id").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,117 @@
+package com.enterprise.ecm.cases.search;
+
+import com.enterprise.ecm.cases.Case;
+import com.enterprise.ecm.cases.CaseNote;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaseSearchIndexTest {
+    
+    private final CaseSearchIndex index = new CaseSearchIndex();
+    
+    @Test
+    void testSearchRanksTitleMatchesFirst() {
+        index.indexCase(newCase("tenant-a", 1L, "Printer offline", "The login page shows an error"));
+        index.indexCase(newCase("tenant-a", 2L, "Login failure", "User cannot login"));
+        
+        CaseSearchResult result = index.search("tenant-a", "login", 0, 10);
+        
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of(2L, 1L), caseIds(result));
+    }
+    
+    @Test
+    void testSearchIsScopedToTenant() {
+        index.indexCase(newCase("tenant-a", 1L, "Login failure", null));
+        index.indexCase(newCase("tenant-b", 2L, "Login failure", null));
+        
+        assertEquals(List.of(1L), caseIds(index.search("tenant-a", "login", 0, 10)));
+        assertEquals(0, index.search("tenant-c", "login", 0, 10).getTotal());
+    }
+    
+    @Test
+    void testAllTermsMustMatchAndPrefixesMatch() {
+        index.indexCase(newCase("tenant-a", 1L, "Password reset request", null));
+        index.indexCase(newCase("tenant-a", 2L, "Password expired", null));
+        
+        assertEquals(List.of(1L), caseIds(index.search("tenant-a", "password reset", 0, 10)));
+        assertEquals(List.of(2L), caseIds(index.search("tenant-a", "pass expir", 0, 10)));
+    }
+    
+    @Test
+    void testReindexAndNotesAndRemoval() {
+        Case caseEntity = newCase("tenant-a", 1L, "Printer offline", null);
+        index.indexCase(caseEntity);
+        CaseNote note = new CaseNote("Replaced the toner cartridge");
+        note.setTenantId("tenant-a");
+        caseEntity.addNote(note);
+        index.indexNote(note);
+        
+        caseEntity.setTitle("Scanner offline");
+        index.indexCase(caseEntity);
+        
+        assertEquals(0, index.search("tenant-a", "printer", 0, 10).getTotal());
+        assertEquals(List.of(1L), caseIds(index.search("tenant-a", "scanner toner", 0, 10)));
+        
+        index.removeCase("tenant-a", 1L);
+        assertEquals(0, index.search("tenant-a", "toner", 0, 10).getTotal());
+    }
+    
+    @Test
+    void testChangesWhileLoadingAreBufferedUntilReread() {
+        Case caseEntity = newCase("tenant-a", 1L, "Printer offline", null);
+        CaseNote note = new CaseNote("Replaced the toner cartridge");
+        note.setTenantId("tenant-a");
+        caseEntity.addNote(note);
+        
+        index.startLoading();
+        index.loadCase(caseEntity);
+        index.loadNote(note);
+        // committed while the loader was reading: the loader already saw the note, and the new title
+        caseEntity.setTitle("Scanner offline");
+        index.indexCase(caseEntity);
+        index.indexNote(note);
+        assertEquals(1, index.search("tenant-a", "printer", 0, 10).getTotal());
+        
+        assertEquals(Map.of(1L, "tenant-a"), index.finishLoading());
+        assertFalse(index.isReady());
+        index.reloadCase(caseEntity, List.of(note));
+        assertTrue(index.finishLoading().isEmpty());
+        assertTrue(index.isReady());
+        
+        assertEquals(0, index.search("tenant-a", "printer", 0, 10).getTotal());
+        // the note counted once, as in an index built without concurrent changes
+        CaseSearchIndex expected = new CaseSearchIndex();
+        expected.indexCase(caseEntity);
+        expected.indexNote(note);
+        assertEquals(expected.search("tenant-a", "toner", 0, 10).getHits(), index.search("tenant-a", "toner", 0, 10).getHits());
+    }
+    
+    @Test
+    void testPaging() {
+        for (long id = 1; id <= 5; id++) {
+            index.indexCase(newCase("tenant-a", id, "Network outage", null));
+        }
+        
+        CaseSearchResult page = index.search("tenant-a", "network", 2, 2);
+        
+        assertEquals(5, page.getTotal());
+        assertEquals(List.of(3L, 2L), caseIds(page));
+    }
+    
+    private static Case newCase(String tenantId, Long id, String title, String description) {
+        Case caseEntity = new Case(null, title, description);
+        caseEntity.setId(id);
+        caseEntity.setTenantId(tenantId);
+        return caseEntity;
+    }
+    
+    private static List<Long> caseIds(CaseSearchResult result) {
+        return result.getHits().stream().map(CaseSearchHit::getCaseId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,85 @@
+package com.enterprise.ecm.cases.sla;
+
+import com.enterprise.ecm.cases.CaseStatus;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CaseSlaTrackerTest {
+    
+    private static final String TENANT = "tenant-a";
+    
+    private final List<Object> events = new ArrayList<>();
+    private final CaseSlaTracker tracker = new CaseSlaTracker(events::add, mock(LoggingService.class), Duration.ofHours(1));
+    private final LocalDateTime now = LocalDateTime.now();
+    
+    @Test
+    void testEventsFireOnceWhenTimersComeDue() {
+        tracker.update(TENANT, 1L, CaseStatus.OPEN, now.plusHours(3));
+        
+        tracker.fireDueTimers(now.plusHours(2).plusMinutes(30));
+        tracker.fireDueTimers(now.plusHours(2).plusMinutes(45));
+        assertEquals(List.of(new CaseDueSoonEvent(TENANT, 1L, now.plusHours(3))), events);
+        assertEquals(0, tracker.getOverdueCount(TENANT));
+        
+        tracker.fireDueTimers(now.plusHours(4));
+        tracker.fireDueTimers(now.plusHours(5));
+        assertEquals(2, events.size());
+        assertEquals(new CaseOverdueEvent(TENANT, 1L, now.plusHours(3)), events.get(1));
+        assertEquals(List.of(1L), tracker.getOverdueCaseIds(TENANT, Long.MAX_VALUE, 10));
+    }
+    
+    @Test
+    void testClosingOrMovingTheDueDateCancelsPendingTimers() {
+        tracker.update(TENANT, 1L, CaseStatus.OPEN, now.plusHours(3));
+        tracker.update(TENANT, 2L, CaseStatus.OPEN, now.plusHours(3));
+        tracker.update(TENANT, 1L, CaseStatus.RESOLVED, now.plusHours(3));
+        tracker.update(TENANT, 2L, CaseStatus.IN_PROGRESS, now.plusDays(2));
+        
+        tracker.fireDueTimers(now.plusHours(4));
+        
+        assertTrue(events.isEmpty());
+        assertEquals(0, tracker.getOverdueCount(TENANT));
+    }
+    
+    @Test
+    void testCaseThatIsAlreadyLateFiresImmediately() {
+        tracker.update(TENANT, 1L, CaseStatus.OPEN, now.minusMinutes(5));
+        tracker.update(TENANT, 2L, CaseStatus.OPEN, now.plusMinutes(30));
+        
+        assertEquals(List.of(new CaseOverdueEvent(TENANT, 1L, now.minusMinutes(5)),
+                new CaseDueSoonEvent(TENANT, 2L, now.plusMinutes(30))), events);
+        assertEquals(1, tracker.getOverdueCount(TENANT));
+    }
+    
+    @Test
+    void testOverdueIdsArePagedHighestFirst() {
+        for (long id = 1; id <= 5; id++) {
+            tracker.update(TENANT, id, CaseStatus.OPEN, now.minusDays(1));
+        }
+        tracker.remove(TENANT, 4L);
+        
+        assertEquals(List.of(5L, 3L), tracker.getOverdueCaseIds(TENANT, Long.MAX_VALUE, 2));
+        assertEquals(List.of(2L, 1L), tracker.getOverdueCaseIds(TENANT, 3L, 2));
+        assertEquals(4, tracker.getOverdueCount(TENANT));
+        assertTrue(tracker.getOverdueCaseIds("tenant-b", Long.MAX_VALUE, 2).isEmpty());
+    }
+    
+    @Test
+    void testLoadingDoesNotReplayPastDeadlinesOrOverrideNewerChanges() {
+        tracker.update(TENANT, 2L, CaseStatus.CLOSED, now.minusDays(1));
+        tracker.load(new SlaCaseRow(TENANT, 1L, now.minusDays(1)), now);
+        tracker.load(new SlaCaseRow(TENANT, 2L, now.minusDays(1)), now);
+        tracker.markReady();
+        
+        assertTrue(events.isEmpty());
+        assertEquals(List.of(1L), tracker.getOverdueCaseIds(TENANT, Long.MAX_VALUE, 10));
+    }
+}
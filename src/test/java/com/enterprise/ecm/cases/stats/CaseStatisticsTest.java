@@ -0,0 +1,68 @@
+package com.enterprise.ecm.cases.stats;
+
+import com.enterprise.ecm.cases.CasePriority;
+import com.enterprise.ecm.cases.CaseRepository;
+import com.enterprise.ecm.cases.CaseStatus;
+import com.enterprise.ecm.cases.dto.CaseStatsSummaryDto;
+import com.enterprise.ecm.shared.logging.LoggingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CaseStatisticsTest {
+    
+    private static final String TENANT = "tenant-a";
+    
+    private final CaseRepository caseRepository = mock(CaseRepository.class);
+    private final CaseStatistics statistics = new CaseStatistics(caseRepository, mock(LoggingService.class));
+    
+    @BeforeEach
+    void setUp() {
+        when(caseRepository.countGroupedByTenant(TENANT)).thenReturn(List.of(
+                new CaseCountRow(CaseStatus.OPEN, CasePriority.HIGH, "alice", 2L),
+                new CaseCountRow(CaseStatus.CLOSED, CasePriority.LOW, null, 1L)));
+    }
+    
+    @Test
+    void testFirstSummaryLoadsGroupedCounts() {
+        CaseStatsSummaryDto summary = statistics.summary(TENANT);
+        
+        assertEquals(3, summary.getTotal());
+        assertEquals(2, summary.getByStatus().get(CaseStatus.OPEN));
+        assertEquals(0, summary.getByStatus().get(CaseStatus.IN_PROGRESS));
+        assertEquals(1, summary.getByPriority().get(CasePriority.LOW));
+        assertEquals(Map.of("alice", 2L), summary.getByAssignee());
+        assertEquals(1, summary.getUnassigned());
+    }
+    
+    @Test
+    void testDeltasAreAppliedWithoutQueries() {
+        statistics.summary(TENANT);
+        clearInvocations(caseRepository);
+        
+        CaseStatsKey created = new CaseStatsKey(CaseStatus.OPEN, CasePriority.HIGH, null);
+        CaseStatsKey assigned = new CaseStatsKey(CaseStatus.IN_PROGRESS, CasePriority.HIGH, "bob");
+        statistics.apply(TENANT, null, created);
+        statistics.apply(TENANT, created, assigned);
+        statistics.apply(TENANT, new CaseStatsKey(CaseStatus.OPEN, CasePriority.HIGH, "alice"), null);
+        CaseStatsSummaryDto summary = statistics.summary(TENANT);
+        
+        assertEquals(3, summary.getTotal());
+        assertEquals(1, summary.getByStatus().get(CaseStatus.OPEN));
+        assertEquals(1, summary.getByStatus().get(CaseStatus.IN_PROGRESS));
+        assertEquals(Map.of("alice", 1L, "bob", 1L), summary.getByAssignee());
+        verifyNoInteractions(caseRepository);
+    }
+    
+    @Test
+    void testUnloadedTenantsIgnoreDeltas() {
+        statistics.apply("tenant-b", null, new CaseStatsKey(CaseStatus.OPEN, CasePriority.HIGH, null));
+        
+        verifyNoInteractions(caseRepository);
+    }
+}
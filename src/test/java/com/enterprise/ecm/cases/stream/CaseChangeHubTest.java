@@ -0,0 +1,71 @@
+package com.enterprise.ecm.cases.stream;
+
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class CaseChangeHubTest {
+    
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(10);
+    
+    // a single sender thread, which the stalled subscriber takes
+    private final CaseChangeHub hub = new CaseChangeHub(new ObjectMapper(), mock(LoggingService.class),
+            16, Duration.ofMinutes(30), 1, SEND_TIMEOUT);
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        hub.shutdown();
+    }
+    
+    @Test
+    void testAStalledSubscriberIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        hub.subscribe("tenant-a", new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) {
+                // a client that stopped reading: the write ignores interrupts until it is released
+                writing.countDown();
+                boolean released = false;
+                while (!released) {
+                    try {
+                        released = release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        // keeps blocking, like a servlet write
+                    }
+                }
+            }
+        });
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        
+        BlockingQueue<Set<?>> received = new LinkedBlockingQueue<>();
+        hub.subscribe("tenant-a", new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) {
+                received.add(items);
+            }
+        });
+        assertEquals(2, hub.getSubscriberCount("tenant-a"));
+        
+        assertEquals(0, hub.dropStalledSubscribers(System.nanoTime()));
+        assertEquals(1, hub.dropStalledSubscribers(System.nanoTime() + SEND_TIMEOUT.toNanos() + 1));
+        assertEquals(1, hub.getSubscriberCount("tenant-a"));
+        // the other subscriber gets its resync on the thread added in place of the stalled one
+        assertNotNull(received.poll(5, TimeUnit.SECONDS));
+    }
+}
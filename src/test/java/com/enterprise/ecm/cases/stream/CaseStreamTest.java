@@ -0,0 +1,107 @@
+package com.enterprise.ecm.cases.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.function.Predicate;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+// printing results would read the response headers while the hub is writing events
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@WithMockUser(roles = "ADMIN")
+class CaseStreamTest {
+    
+    private static final String TENANT = "stream";
+    private static final String OTHER_TENANT = "stream-other";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CaseChangeHub caseChangeHub;
+    
+    @Test
+    void testSubscribersReceiveTheCommittedChangesOfTheirTenant() throws Exception {
+        MockHttpServletResponse stream = mockMvc.perform(get("/cases/stream").header("X-TenantID", TENANT))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        MockHttpServletResponse otherStream = mockMvc.perform(get("/cases/stream").header("X-TenantID", OTHER_TENANT))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        assertEquals(1, caseChangeHub.getSubscriberCount(TENANT));
+        awaitContent(stream, content -> content.startsWith("event:resync\n"));
+        
+        Long caseId = objectMapper.readTree(mockMvc.perform(post("/cases").header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Hail damage\",\"priority\":\"MEDIUM\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        mockMvc.perform(patch("/cases/" + caseId + "/status").param("status", "IN_PROGRESS").header("X-TenantID", TENANT))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/cases/" + caseId).header("X-TenantID", TENANT))
+                .andExpect(status().isNoContent());
+        
+        String content = awaitContent(stream, received -> received.contains("event:deleted\n"));
+        int created = content.indexOf("event:created\ndata:{\"type\":\"CREATED\",\"caseId\":" + caseId + ",\"version\":0,");
+        int updated = content.indexOf("event:updated\ndata:{\"type\":\"UPDATED\",\"caseId\":" + caseId + ",\"version\":1,");
+        int deleted = content.indexOf("event:deleted\ndata:{\"type\":\"DELETED\",\"caseId\":" + caseId + ",");
+        assertTrue(created > 0 && created < updated && updated < deleted, content);
+        assertTrue(content.contains("\"title\":\"Hail damage\",\"status\":\"IN_PROGRESS\""), content);
+        assertFalse(otherStream.getContentAsString().contains("event:created"));
+    }
+    
+    @Test
+    void testNoteAndAttachmentChangesAreSentAsUpdatesWithTheNewVersion() throws Exception {
+        MockHttpServletResponse stream = mockMvc.perform(get("/cases/stream").header("X-TenantID", TENANT))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+        awaitContent(stream, content -> content.startsWith("event:resync\n"));
+        Long caseId = objectMapper.readTree(mockMvc.perform(post("/cases").header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Water damage\",\"priority\":\"HIGH\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        
+        mockMvc.perform(post("/cases/" + caseId + "/notes").header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"content\":\"Adjuster booked\"}"))
+                .andExpect(status().isCreated());
+        awaitContent(stream, content -> content.contains("\"type\":\"UPDATED\",\"caseId\":" + caseId + ",\"version\":1,"));
+        
+        Long attachmentId = objectMapper.readTree(mockMvc.perform(post("/cases/" + caseId + "/attachments").param("fileName", "quote.txt")
+                        .header("X-TenantID", TENANT).contentType(MediaType.TEXT_PLAIN).content("Repair quote"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        awaitContent(stream, content -> content.contains("\"type\":\"UPDATED\",\"caseId\":" + caseId + ",\"version\":2,"));
+        
+        mockMvc.perform(delete("/cases/" + caseId + "/attachments/" + attachmentId).header("X-TenantID", TENANT))
+                .andExpect(status().isNoContent());
+        awaitContent(stream, content -> content.contains("\"type\":\"UPDATED\",\"caseId\":" + caseId + ",\"version\":3,"));
+    }
+    
+    private static String awaitContent(MockHttpServletResponse response, Predicate<String> condition) {
+        return await().atMost(Duration.ofSeconds(10)).until(response::getContentAsString, condition);
+    }
+}
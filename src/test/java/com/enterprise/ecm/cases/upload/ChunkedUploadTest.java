@@ -0,0 +1,203 @@
+package com.enterprise.ecm.cases.upload;
+
+import com.enterprise.ecm.cases.Case;
+import com.enterprise.ecm.cases.CaseAttachment;
+import com.enterprise.ecm.cases.CaseRepository;
+import com.enterprise.ecm.cases.CaseStatus;
+import com.enterprise.ecm.cases.dto.CreateAttachmentUploadRequest;
+import com.enterprise.ecm.cases.storage.ContentBlobStore;
+import com.enterprise.ecm.shared.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "cases.attachments.chunk-size=16B")
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class ChunkedUploadTest {
+    
+    private static final String TENANT = "uploads";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private CaseRepository caseRepository;
+    
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+    
+    @Autowired
+    private ContentBlobStore contentBlobStore;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    private Long caseId;
+    private byte[] content;
+    
+    @BeforeEach
+    void setUp() {
+        caseId = transactionTemplate.execute(status -> {
+            Case caseEntity = new Case("UPL-" + System.nanoTime(), "Recorded interview", "Audio evidence");
+            caseEntity.setTenantId(TENANT);
+            caseEntity.setStatus(CaseStatus.OPEN);
+            return caseRepository.save(caseEntity).getId();
+        });
+        // 4 chunks of 16 bytes, the last one short
+        content = ("chunked upload " + System.nanoTime() + " of a recording that spans chunks")
+                .substring(0, 60).getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Test
+    void testChunksInAnyOrderAreAttachedWithTheirHash() throws Exception {
+        String uploadUrl = startUpload();
+        for (int chunk : new int[] {2, 0, 3}) {
+            putChunk(uploadUrl, chunk).andExpect(status().isOk());
+        }
+        mockMvc.perform(get(uploadUrl).header("X-TenantID", TENANT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.chunkCount").value(4))
+                .andExpect(jsonPath("$.receivedChunks.length()").value(3));
+        mockMvc.perform(post(uploadUrl + "/complete").header("X-TenantID", TENANT))
+                .andExpect(status().isBadRequest());
+        
+        putChunk(uploadUrl, 1).andExpect(status().isOk());
+        // a resent chunk is acknowledged without being written again
+        putChunk(uploadUrl, 1).andExpect(status().isOk());
+        mockMvc.perform(post(uploadUrl + "/complete").param("sha256", sha256Hex(content)).header("X-TenantID", TENANT))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.contentHash").value(sha256Hex(content)))
+                .andExpect(jsonPath("$.fileSize").value(content.length))
+                .andExpect(jsonPath("$.fileName").value("interview.wav"));
+        assertArrayEquals(content, Files.readAllBytes(contentBlobStore.find(sha256Hex(content)).getFile()));
+        assertEquals(crc32(content), contentBlobStore.find(sha256Hex(content)).getCrc32());
+        mockMvc.perform(get(uploadUrl).header("X-TenantID", TENANT))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void testDamagedChunksAreRejectedAndCanBeResent() throws Exception {
+        String uploadUrl = startUpload();
+        mockMvc.perform(put(uploadUrl + "/chunks/0").header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(Arrays.copyOf(content, 10)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put(uploadUrl + "/chunks/0").header("X-TenantID", TENANT)
+                        .header("Content-Digest", "sha-256=:" + Base64.getEncoder().encodeToString(new byte[32]) + ":")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(chunk(0)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put(uploadUrl + "/chunks/0").header("X-TenantID", TENANT)
+                        .header("Content-Digest", "sha-256=:" + Base64.getEncoder().encodeToString(sha256(chunk(0))) + ":")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(chunk(0)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receivedChunks[0]").value(0));
+        mockMvc.perform(put(uploadUrl + "/chunks/4").header("X-TenantID", TENANT)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[1]))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get(uploadUrl).header("X-TenantID", "other"))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void testParallelChunksProduceTheSameHash() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            TenantContext.setCurrentTenant(TENANT);
+            CreateAttachmentUploadRequest request = new CreateAttachmentUploadRequest();
+            request.setFileName("parallel.bin");
+            request.setSize((long) content.length);
+            ChunkedUpload upload = chunkedUploadService.startUpload(caseId, request);
+            
+            List<Integer> chunks = new ArrayList<>(List.of(0, 1, 2, 3));
+            Collections.shuffle(chunks);
+            List<Future<?>> writes = new ArrayList<>();
+            for (int chunk : chunks) {
+                writes.add(executor.submit(() -> {
+                    TenantContext.setCurrentTenant(TENANT);
+                    try {
+                        chunkedUploadService.writeChunk(caseId, upload.getId(), chunk, new ByteArrayInputStream(chunk(chunk)), null);
+                    } finally {
+                        TenantContext.clear();
+                    }
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+            CaseAttachment attachment = chunkedUploadService.completeUpload(caseId, upload.getId(), null);
+            assertEquals(sha256Hex(content), attachment.getContentHash());
+            assertEquals(crc32(content), contentBlobStore.find(sha256Hex(content)).getCrc32());
+        } finally {
+            TenantContext.clear();
+            executor.shutdownNow();
+        }
+    }
+    
+    private String startUpload() throws Exception {
+        JsonNode upload = objectMapper.readTree(mockMvc.perform(post("/cases/" + caseId + "/attachments/uploads")
+                        .header("X-TenantID", TENANT).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fileName\":\"interview.wav\",\"contentType\":\"audio/wav\",\"size\":" + content.length + "}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.chunkSize").value(16))
+                .andReturn().getResponse().getContentAsString());
+        return "/cases/" + caseId + "/attachments/uploads/" + upload.get("uploadId").asText();
+    }
+    
+    private ResultActions putChunk(String uploadUrl, int chunk) throws Exception {
+        return mockMvc.perform(put(uploadUrl + "/chunks/" + chunk).header("X-TenantID", TENANT)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM).content(chunk(chunk)));
+    }
+    
+    private byte[] chunk(int chunk) {
+        return Arrays.copyOfRange(content, chunk * 16, Math.min(content.length, (chunk + 1) * 16));
+    }
+    
+    private static byte[] sha256(byte[] bytes) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(bytes);
+    }
+    
+    private static long crc32(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+    
+    private static String sha256Hex(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(sha256(bytes));
+    }
+}
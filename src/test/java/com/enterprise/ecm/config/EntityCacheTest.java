@@ -0,0 +1,118 @@
+package com.enterprise.ecm.config;
+
+import com.enterprise.ecm.cases.Case;
+import com.enterprise.ecm.cases.CaseRepository;
+import com.enterprise.ecm.cases.CaseStatus;
+import com.enterprise.ecm.support.StatementCounter;
+import com.enterprise.ecm.users.User;
+import com.enterprise.ecm.users.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// completions of domain events are held back, so that their batched writes do not land among the counted statements
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "domain-events.completion-flush-interval=PT1H", "domain-events.completion-batch-size=100000"})
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class EntityCacheTest {
+    
+    private static final String TENANT = "entity-cache";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private CaseRepository caseRepository;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private StatementCounter statementCounter;
+    private Case caseEntity;
+    private User user;
+    
+    @BeforeEach
+    void setUp() {
+        statementCounter = new StatementCounter(entityManagerFactory);
+        String suffix = String.valueOf(System.nanoTime());
+        caseEntity = transactionTemplate.execute(status -> {
+            Case newCase = new Case("EC-" + suffix, "Printer offline", null);
+            newCase.setTenantId(TENANT);
+            newCase.setStatus(CaseStatus.OPEN);
+            return caseRepository.save(newCase);
+        });
+        user = transactionTemplate.execute(status -> {
+            User newUser = new User("cache" + suffix, "cache" + suffix + "@example.com", "secret");
+            newUser.setTenantId(TENANT);
+            newUser.addRole("USER");
+            return userRepository.save(newUser);
+        });
+    }
+    
+    @Test
+    void testUserByUsernameIsServedFromCacheUntilWritten() throws Exception {
+        RequestBuilder byUsername = get("/users/username/" + user.getUsername()).header("X-TenantID", TENANT);
+        mockMvc.perform(byUsername).andExpect(status().isOk());
+        
+        statementCounter.reset();
+        mockMvc.perform(byUsername).andExpect(status().isOk()).andExpect(jsonPath("$.roles[0]").value("USER"));
+        assertEquals(0, statementCounter.count(), "user, its roles and the username lookup come from the cache");
+        
+        mockMvc.perform(patch("/users/" + user.getId() + "/deactivate").header("X-TenantID", TENANT)).andExpect(status().isOk());
+        mockMvc.perform(byUsername).andExpect(status().isOk()).andExpect(jsonPath("$.active").value(false));
+    }
+    
+    @Test
+    void testCaseByNumberIsServedFromCacheUntilWritten() throws Exception {
+        RequestBuilder byNumber = get("/cases/number/" + caseEntity.getCaseNumber()).header("X-TenantID", TENANT);
+        mockMvc.perform(byNumber).andExpect(status().isOk());
+        
+        statementCounter.reset();
+        mockMvc.perform(byNumber).andExpect(status().isOk());
+        assertEquals(2, statementCounter.count(), "only notes and attachments are loaded");
+        
+        mockMvc.perform(patch("/cases/" + caseEntity.getId() + "/status").param("status", "IN_PROGRESS")
+                .header("X-TenantID", TENANT)).andExpect(status().isOk());
+        mockMvc.perform(byNumber).andExpect(status().isOk()).andExpect(jsonPath("$.status").value("IN_PROGRESS"));
+    }
+    
+    @Test
+    void testCachedCaseIsNotServedToOtherTenants() throws Exception {
+        mockMvc.perform(get("/cases/" + caseEntity.getId()).header("X-TenantID", TENANT)).andExpect(status().isOk());
+        mockMvc.perform(get("/cases/" + caseEntity.getId()).header("X-TenantID", "other")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/cases/number/" + caseEntity.getCaseNumber()).header("X-TenantID", "other")).andExpect(status().isNotFound());
+    }
+    
+    @Test
+    void testHitsAndMissesArePublished() throws Exception {
+        mockMvc.perform(get("/cases/" + caseEntity.getId()).header("X-TenantID", TENANT)).andExpect(status().isOk());
+        
+        assertTrue(meterRegistry.get("cache.gets").tags("cache", EntityCacheConfig.CASES, "result", "hit").functionCounter().count() > 0);
+        meterRegistry.get("cache.gets").tags("cache", EntityCacheConfig.USERS_BY_USERNAME, "result", "miss").functionCounter();
+    }
+}
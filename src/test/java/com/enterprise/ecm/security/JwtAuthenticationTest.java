@@ -0,0 +1,138 @@
+package com.enterprise.ecm.security;
+
+import com.enterprise.ecm.shared.logging.LoggingService;
+import com.enterprise.ecm.shared.security.UserVersionRegistry;
+import com.enterprise.ecm.support.AuthClient;
+import com.enterprise.ecm.support.StatementCounter;
+import com.enterprise.ecm.users.DeletedUserRepository;
+import com.enterprise.ecm.users.UserRepository;
+import com.enterprise.ecm.users.UserVersionLoader;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// completions of domain events are held back, so that their batched writes do not land among the counted statements
+@SpringBootTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+        "domain-events.completion-flush-interval=PT1H", "domain-events.completion-batch-size=100000"})
+@AutoConfigureMockMvc
+class JwtAuthenticationTest {
+    
+    private static final String TENANT = "jwt";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private DeletedUserRepository deletedUserRepository;
+    
+    private AuthClient authClient;
+    
+    @BeforeEach
+    void setUp() {
+        authClient = new AuthClient(mockMvc, objectMapper, TENANT);
+    }
+    
+    @Test
+    void testTokensAuthenticateWithoutReadingTheUserUntilItChanges() throws Exception {
+        JsonNode user = authClient.register("jwt-admin", "ADMIN");
+        String token = authClient.token("jwt-admin", AuthClient.PASSWORD);
+        JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1]));
+        assertEquals("[\"ADMIN\"]", claims.get("roles").toString());
+        assertEquals(user.get("id").asLong(), claims.get("uid").asLong());
+        assertEquals(TENANT, claims.get("tenant").asText());
+        assertEquals(0, claims.get("ver").asLong());
+        
+        StatementCounter statementCounter = new StatementCounter(entityManagerFactory);
+        statementCounter.reset();
+        mockMvc.perform(get("/auth/test").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        assertEquals(0, statementCounter.count(), "SQL statements to authenticate a token");
+        mockMvc.perform(get("/cases/stats/summary").header(HttpHeaders.AUTHORIZATION, "Bearer " + token).header("X-TenantID", TENANT))
+                .andExpect(status().isOk());
+        
+        mockMvc.perform(patch("/users/" + user.get("id").asLong() + "/deactivate")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token).header("X-TenantID", TENANT))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/cases/stats/summary").header(HttpHeaders.AUTHORIZATION, "Bearer " + token).header("X-TenantID", TENANT))
+                .andExpect(status().isForbidden());
+    }
+    
+    @Test
+    void testTokensOfDeletedUsersStayRejectedAfterRestartButNotForANewUserOfTheSameName() throws Exception {
+        authClient.register("jwt-deleter", "ADMIN");
+        String admin = authClient.token("jwt-deleter", AuthClient.PASSWORD);
+        long deletedId = authClient.register("jwt-deleted", "USER").get("id").asLong();
+        String deletedToken = authClient.token("jwt-deleted", AuthClient.PASSWORD);
+        
+        mockMvc.perform(delete("/users/" + deletedId).header(HttpHeaders.AUTHORIZATION, "Bearer " + admin).header("X-TenantID", TENANT))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + deletedToken).header("X-TenantID", TENANT))
+                .andExpect(status().isForbidden());
+        
+        long recreatedId = authClient.register("jwt-deleted", "USER").get("id").asLong();
+        String recreatedToken = authClient.token("jwt-deleted", AuthClient.PASSWORD);
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + recreatedToken).header("X-TenantID", TENANT))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + deletedToken).header("X-TenantID", TENANT))
+                .andExpect(status().isForbidden());
+        
+        // a restarted node loads the deletion from the database
+        UserVersionRegistry restarted = new UserVersionRegistry(tokenProvider.getTokenLifetime().toMillis());
+        new UserVersionLoader(restarted, userRepository, deletedUserRepository, mock(LoggingService.class),
+                tokenProvider.getTokenLifetime().toMillis()).load();
+        assertFalse(restarted.isCurrent(deletedId, 0));
+        assertTrue(restarted.isCurrent(recreatedId, 0));
+    }
+    
+    @Test
+    void testTokenIsVerifiedOnceAndTamperedTokensAreRejected() throws Exception {
+        authClient.register("jwt-user", "USER");
+        String token = authClient.token("jwt-user", AuthClient.PASSWORD);
+        
+        VerifiedToken verified = tokenProvider.verify(token);
+        assertEquals("jwt-user", verified.getUsername());
+        assertEquals(TENANT, verified.getTenantId());
+        assertSame(verified, tokenProvider.verify(token));
+        
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                        .replace("\"USER\"", "\"ADMIN\"").getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+        assertNull(tokenProvider.verify(forged));
+        mockMvc.perform(get("/users").header(HttpHeaders.AUTHORIZATION, "Bearer " + forged).header("X-TenantID", TENANT))
+                .andExpect(status().isForbidden());
+    }
+}
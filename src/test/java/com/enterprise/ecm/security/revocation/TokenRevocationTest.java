@@ -0,0 +1,96 @@
+package com.enterprise.ecm.security.revocation;
+
+import com.enterprise.ecm.support.AuthClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TokenRevocationTest {
+    
+    private static final String TENANT = "revocation";
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+    
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    
+    private AuthClient authClient;
+    
+    @BeforeEach
+    void setUp() {
+        authClient = new AuthClient(mockMvc, objectMapper, TENANT);
+    }
+    
+    @Test
+    void testLogoutRevokesTheAccessToken() throws Exception {
+        authClient.register("revocation-user", "USER");
+        String token = authClient.token("revocation-user", AuthClient.PASSWORD);
+        String other = authClient.token("revocation-user", AuthClient.PASSWORD);
+        
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token).header("X-TenantID", TENANT))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/auth/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + token).header("X-TenantID", TENANT))
+                .andExpect(status().isForbidden());
+        // other logins of the user are not affected
+        mockMvc.perform(get("/auth/me").header(HttpHeaders.AUTHORIZATION, "Bearer " + other).header("X-TenantID", TENANT))
+                .andExpect(status().isOk());
+    }
+    
+    @Test
+    void testRefreshLoadsRevocationsFromOtherNodesAndExpiredOnesArePruned() {
+        String revokedElsewhere = UUID.randomUUID().toString();
+        String expired = UUID.randomUUID().toString();
+        revokedTokenRepository.save(new RevokedToken(revokedElsewhere, LocalDateTime.now().plusMinutes(10)));
+        revokedTokenRepository.save(new RevokedToken(expired, LocalDateTime.now().minusMinutes(1)));
+        
+        tokenRevocationRegistry.refresh();
+        assertTrue(tokenRevocationRegistry.isRevoked(revokedElsewhere));
+        assertFalse(tokenRevocationRegistry.isRevoked(expired));
+        assertFalse(tokenRevocationRegistry.isRevoked(UUID.randomUUID().toString()));
+        
+        assertTrue(tokenRevocationRegistry.pruneExpiredBefore(LocalDateTime.now()) >= 1);
+        assertFalse(revokedTokenRepository.existsById(expired));
+        assertTrue(revokedTokenRepository.existsById(revokedElsewhere));
+    }
+    
+    @Test
+    void testBloomFilterHasNoFalseNegativesAndFewFalsePositives() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("revoked-" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("revoked-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            falsePositives += filter.mightContain("valid-" + i) ? 1 : 0;
+        }
+        assertTrue(falsePositives < 300, "false positives out of 10000: " + falsePositives);
+    }
+}
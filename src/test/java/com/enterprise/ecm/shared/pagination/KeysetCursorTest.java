@@ -0,0 +1,29 @@
+package com.enterprise.ecm.shared.pagination;
+
+import com.enterprise.ecm.shared.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+    
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        String cursor = KeysetCursor.encode(12345L);
+        
+        assertEquals(12345L, KeysetCursor.decode(cursor));
+        assertFalse(cursor.contains("12345")); // Should be opaque
+    }
+    
+    @Test
+    void testMissingCursorStartsFromTop() {
+        assertEquals(Long.MAX_VALUE, KeysetCursor.decode(null));
+        assertEquals(Long.MAX_VALUE, KeysetCursor.decode(""));
+    }
+    
+    @Test
+    void testMalformedCursorIsRejected() {
+        assertThrows(ValidationException.class, () -> KeysetCursor.decode("not-a-cursor"));
+        assertThrows(ValidationException.class, () -> KeysetCursor.decode("%%%"));
+    }
+}
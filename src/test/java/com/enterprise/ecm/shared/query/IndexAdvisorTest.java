@@ -0,0 +1,93 @@
+package com.enterprise.ecm.shared.query;
+
+import com.enterprise.ecm.shared.query.IndexAdvisor.ObservedQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexAdvisorTest {
+    
+    private final List<List<String>> caseIndexes = new ArrayList<>(List.of(List.of("id"), List.of("tenant_id")));
+    
+    private final IndexAdvisor.Schema schema = new IndexAdvisor.Schema() {
+        @Override
+        public String tableOf(String entityName) {
+            return entityName.equals("Case") ? "cases" : null;
+        }
+        
+        @Override
+        public String primaryKeyOf(String entityName) {
+            return "id";
+        }
+        
+        @Override
+        public String columnOf(String entityName, String attribute) {
+            return attribute.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase(Locale.ROOT);
+        }
+        
+        @Override
+        public List<List<String>> indexesOf(String table) {
+            return caseIndexes;
+        }
+    };
+    
+    @Test
+    void testShapeOfKeysetQuery() {
+        QueryShape shape = QueryShape.parse("SELECT c FROM Case c WHERE c.tenantId = :tenantId AND c.dueDate <= :now AND "
+                + "c.status NOT IN (com.enterprise.ecm.cases.CaseStatus.CLOSED) AND c.id < :afterId ORDER BY c.id DESC");
+        
+        assertEquals("Case", shape.getEntityName());
+        assertEquals(List.of("tenantId"), shape.getEqualityAttributes());
+        assertEquals(List.of("dueDate", "id"), shape.getRangeAttributes());
+        assertEquals(List.of("id"), shape.getSortAttributes());
+    }
+    
+    @Test
+    void testShapeSkipsPredicatesNoIndexCanSeekOn() {
+        QueryShape shape = QueryShape.parse("select count(c) from Case c where :tenantId = c.tenantId "
+                + "and (c.title LIKE :keyword OR c.description LIKE :keyword) and c.closedAt is null");
+        
+        assertEquals(List.of("tenantId", "closedAt"), shape.getEqualityAttributes());
+        assertTrue(shape.getRangeAttributes().isEmpty());
+        assertNull(QueryShape.parse("update Case c set c.status = :status"));
+    }
+    
+    @Test
+    void testRecommendsEqualityThenSortThenRangeRankedByTime() {
+        List<IndexRecommendation> recommendations = IndexAdvisor.recommend(List.of(
+                new ObservedQuery("SELECT c FROM Case c WHERE c.tenantId = :t AND c.status = :s AND c.id < :a ORDER BY c.id DESC", 10, 50, 9),
+                new ObservedQuery("SELECT COUNT(c) FROM Case c WHERE c.status = :s AND c.tenantId = :t", 5, 20, 6),
+                new ObservedQuery("SELECT COUNT(c) FROM Case c WHERE c.tenantId = :t AND c.dueDate <= :now", 40, 400, 30),
+                new ObservedQuery("SELECT c FROM Case c WHERE c.tenantId = :t AND c.id IN :ids", 100, 900, 20),
+                new ObservedQuery("SELECT c FROM Case c WHERE c.tenantId = :t", 100, 900, 20),
+                new ObservedQuery("SELECT u FROM User u WHERE u.tenantId = :t AND u.email = :e", 100, 900, 20)), schema);
+        
+        assertEquals(2, recommendations.size());
+        IndexRecommendation dueDate = recommendations.get(0);
+        assertEquals(List.of("tenant_id", "due_date"), dueDate.getColumns());
+        assertEquals(400, dueDate.getTotalTimeMs());
+        
+        // the status count is served by the keyset index and merged into it
+        IndexRecommendation status = recommendations.get(1);
+        assertEquals(List.of("tenant_id", "status", "id"), status.getColumns());
+        assertEquals(15, status.getExecutions());
+        assertEquals(70, status.getTotalTimeMs());
+        assertEquals(9, status.getMaxTimeMs());
+        assertEquals(2, status.getQueries().size());
+        assertEquals("idx_cases_tenant_id_status_id", status.getIndexName());
+        assertTrue(status.getChangeSet().contains("<column name=\"status\"/>"));
+    }
+    
+    @Test
+    void testExistingIndexWithEqualityColumnsInAnyOrderServesTheQuery() {
+        caseIndexes.add(List.of("status", "tenant_id", "id"));
+        
+        assertTrue(IndexAdvisor.recommend(List.of(
+                new ObservedQuery("SELECT c FROM Case c WHERE c.tenantId = :t AND c.status = :s ORDER BY c.id", 1, 1, 1)), schema).isEmpty());
+        assertFalse(IndexAdvisor.serves(List.of("tenant_id", "id", "status"), List.of("tenant_id", "status", "id"), 2));
+    }
+}
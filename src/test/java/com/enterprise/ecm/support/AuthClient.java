@@ -0,0 +1,67 @@
+package com.enterprise.ecm.support;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registers users of one tenant and logs them in through the auth endpoints, so tests can get a
+ * token without repeating the requests. Logins are asynchronous, so they are dispatched again
+ * once the credentials have been checked.
+ */
+public class AuthClient {
+    
+    public static final String PASSWORD = "secret123";
+    
+    private final MockMvc mockMvc;
+    private final ObjectMapper objectMapper;
+    private final String tenant;
+    
+    public AuthClient(MockMvc mockMvc, ObjectMapper objectMapper, String tenant) {
+        this.mockMvc = mockMvc;
+        this.objectMapper = objectMapper;
+        this.tenant = tenant;
+    }
+    
+    /**
+     * Registers {@code username} with {@link #PASSWORD} and the given role, and returns the
+     * created user.
+     */
+    public JsonNode register(String username, String role) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/auth/register").header("X-TenantID", tenant)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"email\":\"" + username + "@example.com\",\"password\":\""
+                                + PASSWORD + "\",\"roles\":[\"" + role + "\"]}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+    }
+    
+    /**
+     * Logs in and returns the response, with the access and the refresh token.
+     */
+    public JsonNode login(String username, String password) throws Exception {
+        MvcResult login = mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return objectMapper.readTree(mockMvc.perform(asyncDispatch(login))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Logs in and returns the access token.
+     */
+    public String token(String username, String password) throws Exception {
+        return login(username, password).get("token").asText();
+    }
+}
@@ -0,0 +1,26 @@
+package com.enterprise.ecm.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the JDBC statements Hibernate prepares, so tests can pin the number of queries an
+ * endpoint issues. Requires {@code hibernate.generate_statistics=true}.
+ */
+public class StatementCounter {
+    
+    private final Statistics statistics;
+    
+    public StatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+    
+    public void reset() {
+        statistics.clear();
+    }
+    
+    public long count() {
+        return statistics.getPrepareStatementCount();
+    }
+}